@@ -0,0 +1,58 @@
+package com.superuptest;
+
+import android.content.Context;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+import android.view.View;
+
+import com.superuptest.engine.GameEngine;
+import com.superuptest.engine.WaveShapeGenerator;
+import com.superuptest.views.GameContainer;
+import com.superuptest.views.WaveView;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.*;
+
+/**
+ * Instrumented test that checks that a new wave is centred without a layout pass.
+ */
+@RunWith(AndroidJUnit4.class)
+public class GameContainerTest {
+
+    private static final int WIDTH = 1080;
+
+    private static final int HEIGHT = 1920;
+
+    @Test
+    public void addWaveDoesNotRequestLayout() throws Exception {
+        final Context context = InstrumentationRegistry.getTargetContext();
+
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                WaveShapeGenerator generator = new WaveShapeGenerator(GameEngine.WAVE_STROKE_WIDTH);
+                GameContainer container = new GameContainer(context);
+                container.measure(View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+                        View.MeasureSpec.makeMeasureSpec(HEIGHT, View.MeasureSpec.EXACTLY));
+                container.layout(0, 0, WIDTH, HEIGHT);
+
+                for (int i = 0; i < 50; i++) {
+                    WaveView wave = new WaveView(context, generator.generate());
+                    container.addWave(wave);
+
+                    assertFalse(container.isLayoutRequested());
+                    assertEquals(0, wave.getLeft());
+                    assertEquals((HEIGHT - WIDTH) / 2, wave.getTop());
+                    assertEquals(WIDTH, wave.getWidth());
+                    assertEquals(WIDTH, wave.getHeight());
+                }
+
+                container.removeWave(container.getChildAt(0));
+                assertFalse(container.isLayoutRequested());
+                assertEquals(49, container.getChildCount());
+            }
+        });
+    }
+}
@@ -0,0 +1,156 @@
+package com.superuptest;
+
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+import android.view.View;
+
+import com.superuptest.engine.GameEngine;
+import com.superuptest.engine.QualityGovernor;
+import com.superuptest.engine.VerifyingHitTester;
+import com.superuptest.engine.Wave;
+import com.superuptest.game.BitmapHitTester;
+import com.superuptest.game.ClipHitTester;
+import com.superuptest.game.DisplayedFrame;
+import com.superuptest.game.PatchHitTester;
+import com.superuptest.game.ScreenHitTester;
+import com.superuptest.views.WaveFieldView;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Instrumented test that cross-checks the pixel HitTesters with each other and with geometry,
+ * the displayed frame is the frame of a WaveFieldView.
+ */
+@RunWith(AndroidJUnit4.class)
+public class HitTesterTest {
+
+    private static final int WIDTH = 1080;
+
+    private static final int HEIGHT = 1920;
+
+    private static final int POINTS = 5000;
+
+    @Test
+    public void patchReadsTheSamePixelsAsScreen() throws Exception {
+        DisplayedFrame frame = displayedFrame(playedEngine());
+        VerifyingHitTester verifier = new VerifyingHitTester(new PatchHitTester(frame),
+                new ScreenHitTester(frame), null);
+
+        checkRandomPoints(verifier);
+        assertEquals(0, verifier.getMismatchCount());
+    }
+
+    @Test
+    public void geometryMatchesDisplayedFrame() throws Exception {
+        GameEngine engine = playedEngine();
+        VerifyingHitTester verifier = new VerifyingHitTester(engine.getGeometricHitTester(),
+                new ScreenHitTester(displayedFrame(engine)), null);
+
+        //the pixels on the edges of the strokes may be rounded either way
+        checkRandomPoints(verifier);
+        assertTrue("mismatches " + verifier.getMismatchCount(), verifier.getMismatchCount() < POINTS / 50);
+    }
+
+    @Test
+    public void clipReadsTheSamePixelsAsBitmap() throws Exception {
+        GameEngine engine = playedEngine();
+        VerifyingHitTester verifier = new VerifyingHitTester(new ClipHitTester(engine, null),
+                new BitmapHitTester(engine, null), null);
+
+        checkRandomPoints(verifier);
+        assertEquals(0, verifier.getMismatchCount());
+    }
+
+    @Test
+    public void clipReadsTheSameCoarsePixelsAsBitmap() throws Exception {
+        GameEngine engine = playedEngine();
+        QualityGovernor governor = new QualityGovernor(null);
+        governor.setFixedLevel(QualityGovernor.QUALITY_COARSE);
+        VerifyingHitTester verifier = new VerifyingHitTester(new ClipHitTester(engine, governor),
+                new BitmapHitTester(engine, governor), null);
+
+        checkRandomPoints(verifier);
+        assertEquals(0, verifier.getMismatchCount());
+    }
+
+    @Test
+    public void geometryMatchesDrawnPixels() throws Exception {
+        GameEngine engine = playedEngine();
+        VerifyingHitTester verifier = new VerifyingHitTester(engine.getGeometricHitTester(),
+                new BitmapHitTester(engine, null), null);
+
+        //the pixels on the edges of the strokes may be rounded either way
+        checkRandomPoints(verifier);
+        assertTrue("mismatches " + verifier.getMismatchCount(), verifier.getMismatchCount() < POINTS / 50);
+    }
+
+    /**
+     * Create a game with a few growing waves.
+     * @return The GameEngine.
+     * */
+    private GameEngine playedEngine() {
+        GameEngine engine = new GameEngine(new GameEngine.GameEngineCallbacks() {
+            @Override
+            public void onWaveSpawned(Wave wave) {
+            }
+
+            @Override
+            public void onWaveRemoved(Wave wave) {
+            }
+
+            @Override
+            public void onScoreChanged(int score) {
+            }
+
+            @Override
+            public void onGameOver() {
+            }
+        }, 19);
+
+        engine.setSize(WIDTH, HEIGHT);
+        engine.advance(GameEngine.PULSE_INTERVAL * 5);
+        return engine;
+    }
+
+    /**
+     * Draw a game in a WaveFieldView of the game size and capture the frame on the main thread.
+     * @return The DisplayedFrame of the view.
+     * */
+    private DisplayedFrame displayedFrame(final GameEngine engine) {
+        final DisplayedFrame[] frame = new DisplayedFrame[1];
+
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                WaveFieldView field = new WaveFieldView(InstrumentationRegistry.getTargetContext());
+                field.measure(View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+                        View.MeasureSpec.makeMeasureSpec(HEIGHT, View.MeasureSpec.EXACTLY));
+                field.layout(0, 0, WIDTH, HEIGHT);
+                field.setEngine(engine);
+
+                frame[0] = new DisplayedFrame(field, field);
+                frame[0].capture();
+            }
+        });
+
+        return frame[0];
+    }
+
+    /**
+     * Check random points of the game.
+     * */
+    private void checkRandomPoints(VerifyingHitTester verifier) {
+        Random random = new Random(2);
+
+        for (int i = 0; i < POINTS; i++) {
+            verifier.isOnWall(random.nextFloat() * WIDTH, random.nextFloat() * HEIGHT);
+        }
+
+        assertEquals(POINTS, verifier.getCheckCount());
+    }
+}
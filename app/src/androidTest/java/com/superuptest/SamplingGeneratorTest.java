@@ -0,0 +1,79 @@
+package com.superuptest;
+
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+import android.view.MotionEvent;
+
+import com.superuptest.game.SamplingGenerator;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Instrumented test that checks the MODE_TOUCH samples of the SamplingGenerator.
+ */
+@RunWith(AndroidJUnit4.class)
+public class SamplingGeneratorTest {
+
+    private final ArrayList<Long> mTouchSamples = new ArrayList<>();
+
+    private final SamplingGenerator.SamplingGeneratorCallbacks mCallbacks =
+            new SamplingGenerator.SamplingGeneratorCallbacks() {
+                @Override
+                public void onSample(long frameTimeNanos) {
+                }
+
+                @Override
+                public void onTouchSample(long eventTimeNanos) {
+                    mTouchSamples.add(eventTimeNanos);
+                }
+            };
+
+    @Test
+    public void touchModeSamplesEveryMotionEvent() throws Exception {
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                SamplingGenerator generator = new SamplingGenerator(mCallbacks);
+                assertEquals(SamplingGenerator.MODE_FRAME, generator.getMode());
+
+                //the frame mode ignores the events
+                generator.start();
+                touch(generator, 100);
+                assertTrue(mTouchSamples.isEmpty());
+
+                generator.setMode(SamplingGenerator.MODE_TOUCH);
+                touch(generator, 200);
+                touch(generator, 208);
+                assertEquals(2, mTouchSamples.size());
+                assertEquals(TimeUnit.MILLISECONDS.toNanos(208), (long) mTouchSamples.get(1));
+
+                //a stopped game is not checked
+                generator.stop();
+                touch(generator, 216);
+                assertEquals(2, mTouchSamples.size());
+
+                try {
+                    generator.setMode(2);
+                    fail("unknown mode accepted");
+                } catch (IllegalArgumentException expected) {
+                    assertEquals(SamplingGenerator.MODE_TOUCH, generator.getMode());
+                }
+            }
+        });
+    }
+
+    /**
+     * Feed a move event with an event time.
+     * */
+    private static void touch(SamplingGenerator generator, long eventTimeMillis) {
+        MotionEvent event = MotionEvent.obtain(0, eventTimeMillis, MotionEvent.ACTION_MOVE, 10, 10, 0);
+        generator.onTouchEvent(event);
+        event.recycle();
+    }
+}
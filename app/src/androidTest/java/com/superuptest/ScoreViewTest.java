@@ -0,0 +1,65 @@
+package com.superuptest;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.os.Debug;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+import android.view.View;
+import android.widget.FrameLayout;
+
+import com.superuptest.views.ScoreView;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.*;
+
+/**
+ * Instrumented test that checks that a new score is drawn without a layout pass
+ * and without allocations.
+ */
+@RunWith(AndroidJUnit4.class)
+public class ScoreViewTest {
+
+    private static final int SIZE = 1080;
+
+    @Test
+    public void scoresDoNotRequestLayoutOrAllocate() throws Exception {
+        final Context context = InstrumentationRegistry.getTargetContext();
+
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                FrameLayout parent = new FrameLayout(context);
+                ScoreView score = new ScoreView(context);
+                parent.addView(score, new FrameLayout.LayoutParams(
+                        FrameLayout.LayoutParams.WRAP_CONTENT, FrameLayout.LayoutParams.WRAP_CONTENT));
+                parent.measure(View.MeasureSpec.makeMeasureSpec(SIZE, View.MeasureSpec.EXACTLY),
+                        View.MeasureSpec.makeMeasureSpec(SIZE, View.MeasureSpec.EXACTLY));
+                parent.layout(0, 0, SIZE, SIZE);
+
+                int width = score.getWidth();
+                Canvas canvas = new Canvas(Bitmap.createBitmap(SIZE, SIZE, Bitmap.Config.ARGB_8888));
+                score.draw(canvas);
+
+                Debug.startAllocCounting();
+                Debug.resetThreadAllocCount();
+
+                //the widest scores fit the first measure
+                for (int i = 0; i < 100; i++) {
+                    score.setScore(i * 21474836);
+                    assertFalse(parent.isLayoutRequested());
+                    score.draw(canvas);
+                }
+
+                int allocations = Debug.getThreadAllocCount();
+                Debug.stopAllocCounting();
+
+                assertEquals(0, allocations);
+                assertEquals(width, score.getWidth());
+            }
+        });
+    }
+}
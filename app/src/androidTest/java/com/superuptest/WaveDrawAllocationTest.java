@@ -0,0 +1,126 @@
+package com.superuptest;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.os.Debug;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+import android.view.View;
+
+import com.superuptest.engine.FrameStats;
+import com.superuptest.engine.GameEngine;
+import com.superuptest.engine.Wave;
+import com.superuptest.engine.WaveShape;
+import com.superuptest.engine.WaveShapeGenerator;
+import com.superuptest.views.WaveFieldView;
+import com.superuptest.views.WaveView;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.*;
+
+/**
+ * Instrumented test that counts the allocations of the wave drawing per frame,
+ * the draw time is recorded in a FrameStats like in the game.
+ */
+@RunWith(AndroidJUnit4.class)
+public class WaveDrawAllocationTest {
+
+    private static final int SIZE = 1080;
+
+    private static final int FRAMES = 300;
+
+    @Test
+    public void waveViewDrawDoesNotAllocate() throws Exception {
+        final Context context = InstrumentationRegistry.getTargetContext();
+
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                WaveShape shape = new WaveShapeGenerator(GameEngine.WAVE_STROKE_WIDTH).generate();
+                WaveView wave = new WaveView(context, shape);
+                wave.setFrameStats(new FrameStats());
+                layout(wave);
+
+                assertEquals(0, countDrawAllocations(wave, shape));
+            }
+        });
+    }
+
+    @Test
+    public void waveFieldViewDrawDoesNotAllocate() throws Exception {
+        final Context context = InstrumentationRegistry.getTargetContext();
+
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                GameEngine engine = new GameEngine(new NoCallbacks());
+                engine.setSize(SIZE, SIZE);
+                engine.step(GameEngine.PULSE_INTERVAL * 3);
+
+                WaveFieldView field = new WaveFieldView(context);
+                field.setEngine(engine);
+                field.setFrameStats(new FrameStats());
+                layout(field);
+
+                Wave newest = engine.getWave(engine.getWaveCount() - 1);
+                assertEquals(0, countDrawAllocations(field, newest.getShape()));
+            }
+        });
+    }
+
+    private static void layout(View view) {
+        view.measure(View.MeasureSpec.makeMeasureSpec(SIZE, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(SIZE, View.MeasureSpec.EXACTLY));
+        view.layout(0, 0, SIZE, SIZE);
+    }
+
+    /**
+     * Draw the view frame after frame with a growing wave and count the allocations
+     * of this thread, after one warm up frame.
+     * */
+    private static int countDrawAllocations(View view, WaveShape shape) {
+        Canvas canvas = new Canvas(Bitmap.createBitmap(SIZE, SIZE, Bitmap.Config.ARGB_8888));
+
+        shape.setRadius(100);
+        view.draw(canvas);
+
+        Debug.startAllocCounting();
+        Debug.resetThreadAllocCount();
+
+        for (int frame = 0; frame < FRAMES; frame++) {
+            shape.setRadius(100 + frame);
+            view.draw(canvas);
+        }
+
+        int allocations = Debug.getThreadAllocCount();
+        Debug.stopAllocCounting();
+
+        return allocations;
+    }
+
+    private static class NoCallbacks implements GameEngine.GameEngineCallbacks {
+
+        @Override
+        public void onWaveSpawned(Wave wave) {
+
+        }
+
+        @Override
+        public void onWaveRemoved(Wave wave) {
+
+        }
+
+        @Override
+        public void onScoreChanged(int score) {
+
+        }
+
+        @Override
+        public void onGameOver() {
+
+        }
+    }
+}
@@ -1,47 +1,127 @@
 package com.superuptest.activities;
 
-import android.graphics.Point;
+import android.annotation.TargetApi;
+import android.os.Build;
 import android.os.Bundle;
+import android.os.Handler;
 import android.support.annotation.NonNull;
 import android.support.constraint.ConstraintLayout;
-import android.support.constraint.ConstraintSet;
 import android.support.v7.app.AppCompatActivity;
 import android.util.Log;
+import android.view.FrameMetrics;
+import android.view.KeyEvent;
 import android.view.MotionEvent;
 import android.view.View;
+import android.view.Window;
 import android.view.WindowManager;
-import android.widget.FrameLayout;
-import android.widget.TextView;
 
+import com.superuptest.BuildConfig;
 import com.superuptest.R;
-import com.superuptest.game.PulseGenerator;
+import com.superuptest.engine.FrameStats;
+import com.superuptest.engine.GameEngine;
+import com.superuptest.engine.GameStateMachine;
+import com.superuptest.engine.HitTester;
+import com.superuptest.engine.InputQueue;
+import com.superuptest.engine.LatencyTracer;
+import com.superuptest.engine.QualityGovernor;
+import com.superuptest.engine.SessionRecorder;
+import com.superuptest.engine.SessionReplayer;
+import com.superuptest.engine.SimulationThread;
+import com.superuptest.engine.VerifyingHitTester;
+import com.superuptest.engine.Wave;
+import com.superuptest.engine.WorldSnapshot;
+import com.superuptest.game.BitmapHitTester;
+import com.superuptest.game.ClipHitTester;
+import com.superuptest.game.DisplayedFrame;
+import com.superuptest.game.FramePacer;
+import com.superuptest.game.PatchHitTester;
 import com.superuptest.game.SamplingGenerator;
+import com.superuptest.game.ScreenHitTester;
+import com.superuptest.views.GameContainer;
+import com.superuptest.views.ScoreView;
+import com.superuptest.views.StatsOverlayView;
+import com.superuptest.views.WaveFieldView;
 import com.superuptest.views.WaveView;
+import com.superuptest.views.WaveViewPool;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
 
     /**
-    * This Activity holds all the logic of the game.
+    * This Activity renders the game and feeds it with input.
+    *
+    * GameEngine - holds all the logic of the game: waves, holes, collision and points,
+    * it lives in the engine module and has no Android classes.
     *
     * WaveView - represent a pulsing circle with holes.
     *
+    * GameContainer - holds the WaveViews in RENDER_VIEWS mode and centres them.
+    *
+    * WaveViewPool - reuses the WaveViews of the removed waves for the new waves,
+    * as the GameEngine reuses the removed waves.
+    *
     * GameBorderView - represent the border of the game.
     *
-    * PulseGenerator - used to generate WaveView every X time (3 sec in our case).
+    * ScoreView - draws the points from a char buffer, a new score never requests a layout pass.
+    *
+    * WaveFieldView - draws the border and all the waves in a single view,
+    * used instead of WaveView and GameBorderView in RENDER_SINGLE_VIEW mode.
+    *
+    * SamplingGenerator - generate a sample on every displayed frame,
+    * every sample moves the GameEngine forward by the frame time,
+    * with EXTRA_SAMPLING_MODE the fingers are also checked as each MotionEvent arrives.
+    *
+    * HitTester - checks the finger positions, by geometry (CollisionEngine), by the pixels
+    * of the displayed frame (ScreenHitTester, PatchHitTester) or by the pixels of the game
+    * drawn again from the engine state (BitmapHitTester, ClipHitTester),
+    * VerifyingHitTester runs two of them and logs where they disagree, the geometry
+    * verified against the displayed frame shows it matches what the player sees.
+    *
+    * DisplayedFrame - the copy of the game views of every frame the displayed frame
+    * HitTesters read, captured on the UI thread only when one of them is used.
+    *
+    * FramePacer - asks for the highest refresh rate of the display and tells the refresh rate
+    * in effect, the waves are grown to the vsync time of every frame so they move the same
+    * at 60, 90 and 120 Hz.
+    *
+    * FrameStats - records the draw, layout and hit check times and the dropped frames,
+    * StatsOverlayView shows them and they are written to logcat when the game ends.
+    *
+    * LatencyTracer - traces every touch sample from its MotionEvent time to the collision
+    * check of its position, and the sample that ended the game to gameOver(),
+    * written to logcat with the FrameStats.
     *
-    * SamplingGenerator - generate fast sampling rate.
+    * GameStateMachine - waiting, playing, paused or over, the frames are sampled only
+    * while the game is played, the idle states keep the last drawn frame and the first touch
+    * starts the game at once.
+    *
+    * QualityGovernor - steps the drawing quality down when frames overrun the vsync period
+    * of the refresh rate in effect and back up when they are on time, frames paced by
+    * a slower supported rate are not overruns, the collision is exact at every level.
+    *
+    * SessionRecorder - records the seed and every input of the game to a binary log,
+    * SessionReplayer - plays a recorded log instead of the touch input, with the same result,
+    * so the same session can be played on every build and the frame timings compared.
+    *
+    * SimulationThread - runs the GameEngine on its own thread when EXTRA_SIM_THREAD is set,
+    * the touch input is sent to it through a queue and every frame draws the newest WorldSnapshot.
     *
     * */
 
     /*
     * Why i used SamplingGenerator?
     * Because onTouch(View v, MotionEvent event) not called when the user touch the screen
-    * and not move the finger, so i hold the last coordinates separately to check if
-    * the WaveView reached the touched position.
+    * and not move the finger, so the GameEngine holds the last coordinates separately
+    * and checks them on every step.
     * */
 
 public class GameActivity extends AppCompatActivity implements
-        WaveView.WaveViewCallbacks,
-        PulseGenerator.PulseGeneratorCallbacks,
-        View.OnTouchListener, SamplingGenerator.SamplingGeneratorCallbacks {
+        GameEngine.GameEngineCallbacks, VerifyingHitTester.VerifyingHitTesterCallbacks,
+        QualityGovernor.QualityGovernorCallbacks, GameStateMachine.GameStateMachineCallbacks,
+        View.OnTouchListener, SamplingGenerator.SamplingGeneratorCallbacks,
+        FramePacer.FramePacerCallbacks {
 
     /**
      * The logging tag of this Class.
@@ -49,54 +129,240 @@ public class GameActivity extends AppCompatActivity implements
     private static final String TAG = "GameActivity";
 
     /**
-     * TextView that show points.
+     * Intent extra that select the render mode, RENDER_VIEWS or RENDER_SINGLE_VIEW.
+     * */
+    public static final String EXTRA_RENDER_MODE = "render_mode";
+
+    /**
+     * Render mode that adds a WaveView to the layout for every wave.
      * */
-    private TextView tvCount;
+    public static final int RENDER_VIEWS = 0;
 
     /**
-     * ConstraintLayout hold all the views, include generated WaveViews.
+     * Render mode that draws the border and all the waves in one WaveFieldView.
+     * */
+    public static final int RENDER_SINGLE_VIEW = 1;
+
+    /**
+     * Intent extra that shows the StatsOverlayView from the start,
+     * in debug builds the volume up key toggles it too.
+     * */
+    public static final String EXTRA_SHOW_STATS = "show_stats";
+
+    /**
+     * Intent extra that turns the swept collision on or off, on by default.
+     * In swept collision every historical sample of a MotionEvent is checked,
+     * so a fast finger can not jump over a wall between two frames.
+     * */
+    public static final String EXTRA_SWEPT_COLLISION = "swept_collision";
+
+    /**
+     * Intent extra that select the touch mode, GameEngine.TOUCH_SINGLE, TOUCH_ALL_FINGERS
+     * or TOUCH_COOP.
+     * */
+    public static final String EXTRA_TOUCH_MODE = "touch_mode";
+
+    /**
+     * Intent extra with the path of a file to record the session to,
+     * debug builds record to LAST_SESSION_FILE in the files directory without it.
+     * */
+    public static final String EXTRA_RECORD_FILE = "record_file";
+
+    /**
+     * Intent extra with the path of a recorded session to replay instead of the touch input.
+     * */
+    public static final String EXTRA_REPLAY_FILE = "replay_file";
+
+    /**
+     * Name of the file that debug builds record the last session to.
+     * */
+    public static final String LAST_SESSION_FILE = "last_session.bin";
+
+    /**
+     * Intent extra with the game time per real time, 1 by default, 0.5 plays in slow motion.
+     * In debug builds the volume down key pauses and resumes the game.
+     * */
+    public static final String EXTRA_TIME_SCALE = "time_scale";
+
+    /**
+     * Intent extra that select the HitTester of the game, HIT_TESTER_GEOMETRIC by default.
+     * */
+    public static final String EXTRA_HIT_TESTER = "hit_tester";
+
+    /**
+     * Intent extra that select a HitTester to verify the HitTester of the game against,
+     * every disagreement is written to logcat.
+     * */
+    public static final String EXTRA_VERIFY_HIT_TESTER = "verify_hit_tester";
+
+    /**
+     * HitTester by geometry, the CollisionEngine of the GameEngine.
+     * */
+    public static final int HIT_TESTER_GEOMETRIC = 0;
+
+    /**
+     * HitTester by the pixel of the whole game drawn again from the engine state into a bitmap.
+     * */
+    public static final int HIT_TESTER_BITMAP = 1;
+
+    /**
+     * HitTester by the pixel of the game drawn again from the engine state under the finger only.
+     * */
+    public static final int HIT_TESTER_CLIP = 2;
+
+    /**
+     * HitTester by the pixel of the displayed frame, on the UI thread only.
+     * */
+    public static final int HIT_TESTER_SCREEN = 3;
+
+    /**
+     * HitTester by a patch of the displayed frame around the finger, on the UI thread only.
+     * */
+    public static final int HIT_TESTER_PATCH = 4;
+
+    /**
+     * The maximum number of removed WaveViews kept for reuse.
+     * */
+    private static final int WAVE_VIEW_POOL_SIZE = 8;
+
+    /**
+     * The longest wait in milliseconds for the SimulationThread to end before its
+     * LatencyTracer is read, it ends after the current step.
+     * */
+    private static final long SIMULATION_JOIN_TIMEOUT = 100;
+
+    /**
+     * Intent extra that runs the GameEngine on a SimulationThread instead of the UI thread,
+     * the waves are drawn from snapshots by the WaveFieldView, so RENDER_SINGLE_VIEW is used.
+     * */
+    public static final String EXTRA_SIM_THREAD = "sim_thread";
+
+    /**
+     * Intent extra that fixes the drawing quality to a QualityGovernor level,
+     * by default the level follows the frame times.
+     * */
+    public static final String EXTRA_QUALITY = "quality";
+
+    /**
+     * Intent extra that select the SamplingGenerator mode, SamplingGenerator.MODE_FRAME by default.
+     * MODE_TOUCH also checks the fingers as each MotionEvent arrives, between the frames.
+     * */
+    public static final String EXTRA_SAMPLING_MODE = "sampling_mode";
+
+    /**
+     * ScoreView that show points.
+     * */
+    private ScoreView mScoreView;
+
+    /**
+     * ConstraintLayout hold all the views.
      * */
     private ConstraintLayout mContainer;
 
     /**
-     * Count of points - how much circles got outside of the border.
+     * GameContainer that holds the generated WaveViews.
      * */
-    private int mCount = 0;
+    private GameContainer mGameContainer;
 
     /**
-     * PulseGenerator instance to generate pulse rate of WaveView.
+     * WaveFieldView that draws all the waves in RENDER_SINGLE_VIEW mode.
      * */
-    private PulseGenerator mPulseGenerator;
+    private WaveFieldView mWaveField;
 
     /**
-     * PulseGenerator instance to generate sample rate.
+     * StatsOverlayView that shows the FrameStats.
      * */
-    private SamplingGenerator mSampleGenerator;
+    private StatsOverlayView mStatsOverlay;
+
+    /**
+     * All the WaveViews in RENDER_VIEWS mode, the oldest wave first.
+     * */
+    private final ArrayList<WaveView> mWaveViews = new ArrayList<>();
+
+    /**
+     * WaveViewPool that reuses the WaveViews in RENDER_VIEWS mode.
+     * */
+    private WaveViewPool mWaveViewPool;
+
+    /**
+     * The render mode of this game.
+     * */
+    private int mRenderMode;
+
+    /**
+     * GameEngine instance, holds the state of the game.
+     * */
+    private GameEngine mEngine;
+
+    /**
+     * SimulationThread that runs the GameEngine, null when it runs on the UI thread.
+     * */
+    private SimulationThread mSimulation;
 
     /**
-     * Holds the last X coordinate that was touched.
+     * The score of the last drawn snapshot.
      * */
-    private int mLastX = 0;
+    private int mLastScore = 0;
 
     /**
-     * Holds the last Y coordinate that was touched.
+     * VerifyingHitTester of the game, null when the HitTester is not verified.
      * */
-    private int mLastY = 0;
+    private VerifyingHitTester mHitVerifier;
 
     /**
-     * Value of white color (not of Color.WHITE).
+     * The copy of the displayed frame, null when no HitTester reads it.
      * */
-    private static final int COLOR_WHITE = 0;
+    private DisplayedFrame mDisplayedFrame;
 
     /**
-     * ConstraintSet instance.
+     * SessionRecorder that records this game, null when not recorded.
      * */
-    private ConstraintSet constraintSet = new ConstraintSet();
+    private SessionRecorder mRecorder;
 
     /**
-     * Holds the value of screen width, used to create WaveViews.
+     * SessionReplayer that plays a recorded game, null when the user plays.
      * */
-    private int screenWidth;
+    private SessionReplayer mReplayer;
+
+    /**
+     * FrameStats instance, records the frame timings of this game.
+     * */
+    private final FrameStats mFrameStats = new FrameStats();
+
+    /**
+     * LatencyTracer of the touch samples of the user, not used by a replay.
+     * */
+    private final LatencyTracer mLatencyTracer = new LatencyTracer();
+
+    /**
+     * GameStateMachine of the session, the game waits for the first touch.
+     * */
+    private final GameStateMachine mGameState = new GameStateMachine(this);
+
+    /**
+     * QualityGovernor that sets the drawing quality from the frame times.
+     * */
+    private final QualityGovernor mQualityGovernor = new QualityGovernor(this);
+
+    /**
+     * FramePacer that asks for the refresh rate and reports the rate in effect.
+     * */
+    private FramePacer mFramePacer;
+
+    /**
+     * Listener of the platform frame metrics, used from API 24 for the layout time.
+     * */
+    private Window.OnFrameMetricsAvailableListener mFrameMetricsListener;
+
+    /**
+     * SamplingGenerator instance to generate sample rate.
+     * */
+    private SamplingGenerator mSampleGenerator;
+
+    /**
+     * The frame time of the last sample, 0 before the first sample.
+     * */
+    private long mLastFrameTime = 0;
 
 
 
@@ -108,116 +374,506 @@ public class GameActivity extends AppCompatActivity implements
         //keep the screen on
         getWindow().addFlags(WindowManager.LayoutParams.FLAG_KEEP_SCREEN_ON);
 
-        screenWidth = getScreenWidth();
-
         mContainer = findViewById(R.id.cc_container);
-        tvCount = findViewById(R.id.tv_count);
+        mScoreView = findViewById(R.id.score_view);
+        mWaveField = findViewById(R.id.wave_field);
+        mGameContainer = findViewById(R.id.game_container);
+        mStatsOverlay = findViewById(R.id.stats_overlay);
 
-        mContainer.setDrawingCacheEnabled(true);
-        mContainer.setOnTouchListener(this);
+        mRenderMode = getIntent().getIntExtra(EXTRA_RENDER_MODE, RENDER_SINGLE_VIEW);
+
+        //the snapshots are drawn by the WaveFieldView only
+        String replayPath = getIntent().getStringExtra(EXTRA_REPLAY_FILE);
+        boolean simThread = replayPath == null && getIntent().getBooleanExtra(EXTRA_SIM_THREAD, false);
+        if (simThread){
+            mRenderMode = RENDER_SINGLE_VIEW;
+        }
+
+        //frames that came later than the display refresh period are dropped frames,
+        //the FramePacer asks for the highest refresh rate of the display, the display
+        //may keep its rate or switch later, the period follows the rate in effect
+        mFramePacer = new FramePacer(getWindow());
+        mFramePacer.requestHighestRefreshRate();
+        mQualityGovernor.setSupportedVsyncPeriods(toVsyncPeriods(mFramePacer.getSupportedRefreshRates()));
+        onRefreshRateChanged(mFramePacer.getRefreshRate());
+        mFramePacer.start(this);
+
+        int quality = getIntent().getIntExtra(EXTRA_QUALITY, -1);
+        if (quality >= 0){
+            mQualityGovernor.setFixedLevel(quality);
+        }
+        mWaveField.setFrameStats(mFrameStats);
+        mWaveViewPool = new WaveViewPool(this, WAVE_VIEW_POOL_SIZE);
+        mWaveViewPool.setFrameStats(mFrameStats);
+        mStatsOverlay.setFrameStats(mFrameStats);
+        mStatsOverlay.setQualityGovernor(mQualityGovernor);
+        applyQuality();
+
+        if (getIntent().getBooleanExtra(EXTRA_SHOW_STATS, false)){
+            mStatsOverlay.setVisibility(View.VISIBLE);
+        }
+
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N){
+            addFrameMetricsListener();
+        }
+
+        if (mRenderMode == RENDER_SINGLE_VIEW){
+            //the WaveFieldView draws the border too
+            findViewById(R.id.view).setVisibility(View.GONE);
+            mWaveField.setVisibility(View.VISIBLE);
+        }
 
-        mPulseGenerator = new PulseGenerator(this);
         mSampleGenerator = new SamplingGenerator(this);
+        mSampleGenerator.setMode(getIntent().getIntExtra(EXTRA_SAMPLING_MODE, SamplingGenerator.MODE_FRAME));
 
-        mPulseGenerator.start();
-        mSampleGenerator.start();
+        if (replayPath != null){
+            //the log is read on a background thread, the game starts when it is ready
+            new Thread(getReplayLoader(new File(replayPath)), "SessionLoader").start();
+        }else if (simThread){
+            startSimulation();
+        }else {
+            startGame();
+        }
+
+    }
+
+    /**
+     * Create the GameEngine for the user and start the game.
+     * */
+    private void startGame() {
+        mEngine = new GameEngine(this);
+        setupEngine(mEngine);
+        mEngine.setLatencyTracer(mLatencyTracer);
+
+        if (mRecorder != null){
+            mEngine.setRecorder(mRecorder);
+        }
+
+        mContainer.addOnLayoutChangeListener(getLayoutChangeListener());
+        mContainer.setOnTouchListener(this);
+
+        //the frames are sampled from the first touch
+        connectEngine();
+    }
+
+    /**
+     * Create the SimulationThread for the user, the GameEngine is set up before
+     * the thread starts on the first touch and only touched by that thread after it.
+     * The hit checks are not timed in this mode, the FrameStats is not thread safe.
+     * */
+    private void startSimulation() {
+        mSimulation = new SimulationThread(System.nanoTime());
+        setupEngine(mSimulation.getEngine());
+        mSimulation.setLatencyTracer(mLatencyTracer);
+
+        if (mRecorder != null){
+            mSimulation.setRecorder(mRecorder);
+        }
 
+        mContainer.addOnLayoutChangeListener(getLayoutChangeListener());
+        mContainer.setOnTouchListener(this);
     }
 
     /**
-     * Return screen width.
-     * @return screen width.
+     * Apply the collision and touch mode extras to a new GameEngine and create the
+     * SessionRecorder of the game.
+     * @param engine The GameEngine of the user.
      * */
-    private int getScreenWidth(){
-        Point point = new Point();
-        getWindowManager().getDefaultDisplay().getSize(point);
-        return point.x;
+    private void setupEngine(GameEngine engine) {
+        engine.getClock().setTimeScale(getIntent().getFloatExtra(EXTRA_TIME_SCALE, 1));
+        setupHitTester(engine, getIntent().getIntExtra(EXTRA_HIT_TESTER, HIT_TESTER_GEOMETRIC));
+        engine.setSweptCollision(getIntent().getBooleanExtra(EXTRA_SWEPT_COLLISION, true));
+        engine.setTouchMode(getIntent().getIntExtra(EXTRA_TOUCH_MODE, GameEngine.TOUCH_SINGLE));
+
+        String recordPath = getIntent().getStringExtra(EXTRA_RECORD_FILE);
+        if (recordPath != null){
+            mRecorder = new SessionRecorder(new File(recordPath));
+        }else if (BuildConfig.DEBUG){
+            mRecorder = new SessionRecorder(new File(getFilesDir(), LAST_SESSION_FILE));
+        }
     }
 
     /**
-     * This method define if the user touched the border or the WaveView,
-     * it is take the last coordinates and check the color.
-     * If the color is NOT white it is mean that the user touch the border or the WaveView.
+     * Create the GameEngine of a recorded session and replay it, the touch input is ignored,
+     * the size of the game and the HitTester type are the recorded ones.
+     * @param replayer The SessionReplayer of the recorded session.
      * */
-    private void checkColor() {
+    private void startReplay(SessionReplayer replayer) {
+        mReplayer = replayer;
+        mEngine = replayer.createEngine(this);
+        mEngine.getClock().setTimeScale(getIntent().getFloatExtra(EXTRA_TIME_SCALE, 1));
+        setupHitTester(mEngine, replayer.getHitTesterType());
 
-        try {
+        //a replay does not wait for a touch
+        connectEngine();
+        mGameState.play();
+    }
 
-            int color = mContainer.getDrawingCache().getPixel(mLastX, mLastY);
+    /**
+     * Set the HitTester of a new GameEngine, verified when the extra asks for it.
+     * @param engine The GameEngine of the game.
+     * @param type One of the HIT_TESTER types.
+     * */
+    private void setupHitTester(GameEngine engine, int type) {
+        type = getSupportedHitTester(type);
+        HitTester hitTester = createHitTester(type, engine);
+
+        int verifyType = getSupportedHitTester(getIntent().getIntExtra(EXTRA_VERIFY_HIT_TESTER, -1));
+        if (verifyType >= 0){
+            mHitVerifier = new VerifyingHitTester(hitTester, createHitTester(verifyType, engine), this);
+            hitTester = mHitVerifier;
+        }
 
-            if (color != COLOR_WHITE){
-                gameOver();
+        //the type is recorded, the reference tester does not change the game
+        engine.setHitTester(hitTester, type);
+    }
+
+    /**
+     * Return the HitTester type that can check this game, the displayed frame is read
+     * on the UI thread, a SimulationThread uses the geometry instead.
+     * @param type One of the HIT_TESTER types, -1 for none.
+     * @return The type to use.
+     * */
+    private int getSupportedHitTester(int type) {
+
+        if (mSimulation != null && (type == HIT_TESTER_SCREEN || type == HIT_TESTER_PATCH)){
+            Log.w(TAG, "hit tester " + type + " reads the views on the UI thread, the geometry is used");
+            return HIT_TESTER_GEOMETRIC;
+        }
+
+        return type;
+    }
+
+    /**
+     * Create a HitTester.
+     * @param type One of the HIT_TESTER types.
+     * @param engine The GameEngine of the game.
+     * @return The HitTester.
+     * */
+    @NonNull
+    private HitTester createHitTester(int type, GameEngine engine) {
+
+        switch (type){
+
+            case HIT_TESTER_BITMAP:
+                return new BitmapHitTester(engine, mQualityGovernor);
+
+            case HIT_TESTER_CLIP:
+                return new ClipHitTester(engine, mQualityGovernor);
+
+            case HIT_TESTER_SCREEN:
+                return new ScreenHitTester(getDisplayedFrame());
+
+            case HIT_TESTER_PATCH:
+                return new PatchHitTester(getDisplayedFrame());
+
+            default:
+                return engine.getGeometricHitTester();
+        }
+    }
+
+    /**
+     * Getter for the copy of the displayed frame, created for the first HitTester that reads it.
+     * @return The DisplayedFrame of the game views.
+     * */
+    @NonNull
+    private DisplayedFrame getDisplayedFrame() {
+
+        if (mDisplayedFrame == null){
+            mDisplayedFrame = new DisplayedFrame(mContainer, findViewById(R.id.view), mWaveField, mGameContainer);
+        }
+
+        return mDisplayedFrame;
+    }
+
+    /**
+     * Connect the views to the GameEngine, they draw the game once until it is played.
+     * */
+    private void connectEngine() {
+        mEngine.setFrameStats(mFrameStats);
+
+        if (mRenderMode == RENDER_SINGLE_VIEW){
+            mWaveField.setEngine(mEngine);
+        }
+    }
+
+    /**
+     * Getter for Runnable that reads a recorded session and replays it on the UI thread.
+     * @param file The recorded session.
+     * @return Runnable for a background thread.
+     * */
+    @NonNull
+    private Runnable getReplayLoader(final File file) {
+        return new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    final SessionReplayer replayer = SessionReplayer.load(file);
+
+                    runOnUiThread(new Runnable() {
+                        @Override
+                        public void run() {
+                            if (!isFinishing()){
+                                startReplay(replayer);
+                            }
+                        }
+                    });
+                } catch (IOException e) {
+                    Log.e(TAG, "can not replay " + file, e);
+
+                    runOnUiThread(new Runnable() {
+                        @Override
+                        public void run() {
+                            finish();
+                        }
+                    });
+                }
             }
+        };
+    }
 
-        } catch (Exception e) {
-            Log.w(TAG, "checkColor: outside of view");
+    /**
+     * Getter for OnLayoutChangeListener that keeps the GameEngine size
+     * in sync with the container size.
+     * @return View.OnLayoutChangeListener for mContainer.
+     * */
+    @NonNull
+    private View.OnLayoutChangeListener getLayoutChangeListener() {
+        return new View.OnLayoutChangeListener() {
+            @Override
+            public void onLayoutChange(View v, int left, int top, int right, int bottom,
+                                       int oldLeft, int oldTop, int oldRight, int oldBottom) {
+
+                //the border and the waves are centred in the container
+                if (mSimulation != null){
+                    mSimulation.post(InputQueue.TYPE_SIZE, 0, right - left, bottom - top, 0);
+                }else {
+                    mEngine.setSize(right - left, bottom - top);
+                }
+            }
+        };
+    }
+
+    /**
+     * Record the layout time of every frame from the platform frame metrics.
+     * */
+    @TargetApi(Build.VERSION_CODES.N)
+    private void addFrameMetricsListener() {
+        mFrameMetricsListener = new Window.OnFrameMetricsAvailableListener() {
+            @Override
+            public void onFrameMetricsAvailable(Window window, FrameMetrics frameMetrics,
+                                                int dropCountSinceLastInvocation) {
+                mFrameStats.recordLayout(frameMetrics.getMetric(FrameMetrics.LAYOUT_MEASURE_DURATION));
+            }
+        };
+
+        //report on the main thread, the FrameStats is not thread safe
+        getWindow().addOnFrameMetricsAvailableListener(mFrameMetricsListener, new Handler());
+    }
+
+    /**
+     * Write the percentiles of the FrameStats and the pool hits and misses to logcat.
+     * */
+    private void dumpFrameStats() {
+        StringBuilder dump = new StringBuilder();
+        mFrameStats.dump(dump);
+        mQualityGovernor.dump(dump);
+
+        //the simulation thread writes the LatencyTracer and the HitTesters until it ended
+        boolean isSimulationEnded = mSimulation == null || mSimulation.join(SIMULATION_JOIN_TIMEOUT);
+
+        if (!isSimulationEnded){
+            dump.append("simulation thread still running, latencies and hit checks not read\n");
+        }else if (mReplayer == null){
+            mLatencyTracer.dump(dump);
+        }else if (mReplayer.hasGap()){
+            dump.append("the replayed log has dropped records, the game ended at the gap\n");
         }
+        mWaveViewPool.getStats().dump(dump, "wave view");
+
+        if (mHitVerifier != null && isSimulationEnded){
+            mHitVerifier.dump(dump);
+        }
+
+        if (mEngine != null){
+            mEngine.getWavePoolStats().dump(dump, "wave");
+        }
+        Log.i(TAG, "frame stats of " + (mRenderMode == RENDER_SINGLE_VIEW ? "single view" : "views")
+                + " render mode\n" + dump);
     }
 
     /**
-     * This callback called when a WaveView reach the border.
-     * @param wave the instance of the WaveView to let the layout remove the view.
+     * This callback called when the GameEngine spawned a new wave.
+     * @param wave the new wave.
      * */
     @Override
-    public void onWaveReachedBorder(WaveView wave) {
+    public void onWaveSpawned(Wave wave) {
+
+        //the WaveFieldView draws the waves of the engine
+        if (mRenderMode == RENDER_SINGLE_VIEW){
+            return;
+        }
 
-        //if the values is 0 this is mean the user not touched the screen,
-        //game not started, no need to count points.
-        if (mLastX!=0 && mLastY!=0)
-        mCount++;
+        //reuse the WaveView of a removed wave
+        final WaveView waveView = mWaveViewPool.obtain(wave.getShape());
 
-        if (tvCount!=null)
-            tvCount.setText("Points: " + mCount);
+        //add the WaveView to the GameContainer, it is centred without a layout pass
+        mGameContainer.addWave(waveView);
+        mWaveViews.add(waveView);
 
-        if (mContainer!=null) {
-            mContainer.removeView(wave);
+    }
+
+    /**
+     * This callback called when a wave reach the border.
+     * @param wave the removed wave, its WaveView is removed from the GameContainer.
+     * */
+    @Override
+    public void onWaveRemoved(Wave wave) {
+
+        for (int i = 0; i < mWaveViews.size(); i++) {
+            if (mWaveViews.get(i).getShape() == wave.getShape()){
+                WaveView waveView = mWaveViews.remove(i);
+                mGameContainer.removeWave(waveView);
+                mWaveViewPool.recycle(waveView);
+                break;
+            }
         }
     }
 
     /**
-     * This callback called when need to create new WaveView.
+     * This callback called when a wave reach the border after the user touched the screen.
+     * @param score the new count of points.
      * */
     @Override
-    public void onPulse() {
-        createWave();
+    public void onScoreChanged(int score) {
+        //no layout pass, the ScoreView draws the new score on the next frame
+        mScoreView.setScore(score);
     }
 
+    /**
+     * This callback called when the verified HitTesters disagreed on a finger position,
+     * called on the thread of the GameEngine.
+     * @param x X coordinate of the finger.
+     * @param y Y coordinate of the finger.
+     * @param primary The answer the game used.
+     * @param reference The answer of the reference HitTester.
+     * */
+    @Override
+    public void onHitMismatch(float x, float y, boolean primary, boolean reference) {
+        Log.w(TAG, "hit testers disagree at " + x + "," + y + " game " + primary + " reference " + reference);
+    }
 
     /**
-     * Create new WaveView and add to layout.
+     * This callback called when the GameStateMachine changed the state, frames are
+     * sampled in STATE_PLAYING only.
+     * @param from The old state.
+     * @param to The new state.
      * */
-    private void createWave(){
-        //create WaveView
-        final WaveView wave = new WaveView(this);
-        wave.setLayoutParams(getParams());
-        wave.setDeviceScreenWidth(screenWidth);
+    @Override
+    public void onStateChanged(int from, int to) {
+        Log.i(TAG, "game " + GameStateMachine.getStateName(from) + " -> " + GameStateMachine.getStateName(to));
+
+        if (to != GameStateMachine.STATE_PLAYING){
+            //the last drawn frame stays on the screen, nothing runs until the next touch
+            mSampleGenerator.stop();
 
-        //add the WaveView to layout
-        mContainer.addView(wave);
-        constraintSet.clone(mContainer);
-        constraintSet.connect(wave.getId(), ConstraintSet.TOP, ConstraintSet.PARENT_ID, ConstraintSet.TOP, 0);
-        constraintSet.connect(wave.getId(), ConstraintSet.LEFT, ConstraintSet.PARENT_ID, ConstraintSet.LEFT, 0);
-        constraintSet.connect(wave.getId(), ConstraintSet.RIGHT, ConstraintSet.PARENT_ID, ConstraintSet.RIGHT, 0);
-        constraintSet.connect(wave.getId(), ConstraintSet.BOTTOM, ConstraintSet.PARENT_ID, ConstraintSet.BOTTOM, 0);
-        constraintSet.applyTo(mContainer);
+            if (to == GameStateMachine.STATE_PAUSED){
+                mEngine.getClock().pause();
+            }
+            return;
+        }
 
+        //the idle time is neither game time nor a dropped frame
+        mLastFrameTime = 0;
+        mQualityGovernor.reset();
+
+        if (from == GameStateMachine.STATE_WAITING && mSimulation != null){
+            mSimulation.start();
+        }else if (from == GameStateMachine.STATE_PAUSED){
+            mEngine.getClock().resume();
+        }
+
+        mSampleGenerator.start();
     }
 
     /**
-     * Return LayoutParams for WaveView.
-     * @return FrameLayout.LayoutParams for WaveView.
+     * This callback called when the display runs at a new refresh rate, and once
+     * with the rate in effect at the start.
+     * @param refreshRate The refresh rate in effect.
      * */
-    @NonNull
-    private FrameLayout.LayoutParams getParams() {
-            return new FrameLayout.LayoutParams(10,10);
+    @Override
+    public void onRefreshRateChanged(float refreshRate) {
+        Log.i(TAG, "display refresh rate " + refreshRate + " Hz");
+
+        if (refreshRate > 0){
+            mFrameStats.setVsyncPeriod((long) (1000000000L / refreshRate));
+            mQualityGovernor.setVsyncPeriod((long) (1000000000L / refreshRate));
+        }
+    }
+
+    /**
+     * Convert refresh rates to vsync periods.
+     * @param refreshRates The refresh rates in Hz.
+     * @return The vsync periods in nanoseconds.
+     * */
+    private static long[] toVsyncPeriods(float[] refreshRates) {
+        long[] periods = new long[refreshRates.length];
+
+        for (int i = 0; i < refreshRates.length; i++) {
+            periods[i] = (long) (1000000000L / refreshRates[i]);
+        }
+
+        return periods;
+    }
+
+    /**
+     * This callback called when the QualityGovernor changed the drawing quality.
+     * @param level The new level.
+     * @param reason What changed the level.
+     * */
+    @Override
+    public void onQualityChanged(int level, String reason) {
+        Log.i(TAG, "quality level " + level + ": " + reason);
+        applyQuality();
+    }
+
+    /**
+     * Apply the level of the QualityGovernor to the WaveFieldView and the WaveViews.
+     * */
+    private void applyQuality() {
+        mWaveField.setQuality(mQualityGovernor);
+        mWaveViewPool.setQuality(mQualityGovernor);
+    }
+
+    /**
+     * This callback called when the user touched the border or a wave, or untouched the screen.
+     * */
+    @Override
+    public void onGameOver() {
+        gameOver();
     }
 
      /**
      * Remove callbacks and finish the activity, return back to MainActivity.
      * */
     private void gameOver(){
-        mPulseGenerator.stop();
-        mSampleGenerator.stop();
+        int state = mGameState.getState();
+
+        //the sampling is stopped by the state change
+        if (!mGameState.over()){
+            return;
+        }
+
+        mLatencyTracer.onGameOver();
+
+        //the writer thread writes the last records and closes the file,
+        //the simulation thread closes it itself when it ends, if it was started
+        if (mSimulation != null && state != GameStateMachine.STATE_WAITING){
+            mSimulation.stop();
+        }else if (mRecorder != null){
+            mRecorder.close();
+        }
+
         mContainer.setOnTouchListener(null);
         finish();
     }
@@ -229,24 +885,199 @@ public class GameActivity extends AppCompatActivity implements
     @Override
     public boolean onTouch(View v, MotionEvent event) {
 
-        mLastX = (int)event.getX();
-        mLastY = (int)event.getY();
+        //the first touch starts the game before it is applied
+        if (event.getActionMasked() == MotionEvent.ACTION_DOWN){
+            mGameState.play();
+        }
+
+        switch (event.getActionMasked()){
 
+            case MotionEvent.ACTION_UP:
+            case MotionEvent.ACTION_CANCEL:
+                //user untouched the screen end game
+                if (mSimulation != null){
+                    mSimulation.post(InputQueue.TYPE_TOUCH_UP, 0, 0, 0,
+                            TimeUnit.MILLISECONDS.toNanos(event.getEventTime()));
+                }else {
+                    mLatencyTracer.onInput(TimeUnit.MILLISECONDS.toNanos(event.getEventTime()));
+                    mEngine.touchUp();
+                }
+                break;
 
-        if (event.getAction() == MotionEvent.ACTION_UP){
-            //user untouched the screen end game
-            gameOver();
+            case MotionEvent.ACTION_POINTER_UP:
+                int pointerId = event.getPointerId(event.getActionIndex());
+                if (mSimulation != null){
+                    mSimulation.post(InputQueue.TYPE_POINTER_UP, pointerId, 0, 0,
+                            TimeUnit.MILLISECONDS.toNanos(event.getEventTime()));
+                }else {
+                    mLatencyTracer.onInput(TimeUnit.MILLISECONDS.toNanos(event.getEventTime()));
+                    mEngine.pointerUp(pointerId);
+                }
+                break;
+
+            default:
+                //every finger, the batched samples since the last event first
+                for (int i = 0; i < event.getHistorySize(); i++) {
+                    long historicalTime = event.getHistoricalEventTime(i);
+
+                    for (int p = 0; p < event.getPointerCount(); p++) {
+                        pointerMove(event.getPointerId(p),
+                                event.getHistoricalX(p, i), event.getHistoricalY(p, i), historicalTime);
+                    }
+                }
+
+                for (int p = 0; p < event.getPointerCount(); p++) {
+                    pointerMove(event.getPointerId(p), event.getX(p), event.getY(p), event.getEventTime());
+                }
+
+                mSampleGenerator.onTouchEvent(event);
+                break;
         }
 
         return true;
     }
 
     /**
-     * When onSample() called every moment.
+     * Send a sample of a finger to the SimulationThread or to the GameEngine.
+     * @param pointerId The pointer id of the finger.
+     * @param x The X coordinate.
+     * @param y The Y coordinate.
+     * @param eventTimeMillis The event time in the SystemClock.uptimeMillis() time base.
+     * */
+    private void pointerMove(int pointerId, float x, float y, long eventTimeMillis) {
+
+        if (mSimulation != null){
+            //the simulation thread converts the time to game time, both use the monotonic clock
+            if (!mSimulation.post(InputQueue.TYPE_SAMPLE, pointerId, x, y,
+                    TimeUnit.MILLISECONDS.toNanos(eventTimeMillis))){
+                Log.w(TAG, "input queue is full, sample dropped");
+            }
+        }else {
+            mLatencyTracer.onInput(TimeUnit.MILLISECONDS.toNanos(eventTimeMillis));
+            mEngine.pointerMove(pointerId, x, y, toGameTime(eventTimeMillis));
+        }
+    }
+
+    /**
+     * Convert the time of a MotionEvent to game time, the game time of the last frame
+     * plus the time since that frame. The game time of the frame is the advanced time,
+     * the steps end up to one step before the frame.
+     * @param eventTimeMillis The event time in the SystemClock.uptimeMillis() time base.
+     * @return The game time of the event in nanoseconds.
+     * */
+    private long toGameTime(long eventTimeMillis) {
+
+        if (mLastFrameTime == 0){
+            return mEngine.getTime();
+        }
+
+        return mEngine.getAdvancedTime()
+                + mEngine.getClock().scale(TimeUnit.MILLISECONDS.toNanos(eventTimeMillis) - mLastFrameTime);
+    }
+
+    /**
+     * When onSample() called once per displayed frame, move the game forward and redraw.
+     * @param frameTimeNanos The frame time of the sample.
+     * */
+    @Override
+    public void onSample(long frameTimeNanos) {
+
+        if (mLastFrameTime != 0){
+            mFrameStats.recordFrame(frameTimeNanos - mLastFrameTime);
+            mQualityGovernor.onFrame(frameTimeNanos - mLastFrameTime);
+
+            if (mReplayer != null){
+                mReplayer.advance(frameTimeNanos - mLastFrameTime);
+            }else if (mEngine != null){
+                mEngine.advance(frameTimeNanos - mLastFrameTime);
+            }
+        }
+        mLastFrameTime = frameTimeNanos;
+        mStatsOverlay.onFrame(frameTimeNanos);
+
+        if (mSimulation != null){
+            drawSnapshot();
+        }else if (mRenderMode == RENDER_SINGLE_VIEW){
+            mWaveField.invalidate();
+        }else {
+            //the views of the oldest waves over the cap are not drawn, the waves are still hit
+            int firstDrawn = mWaveViews.size() - mQualityGovernor.getMaxDrawnWaves();
+
+            for (int i = 0; i < mWaveViews.size(); i++) {
+                WaveView waveView = mWaveViews.get(i);
+                int visibility = i >= firstDrawn ? View.VISIBLE : View.INVISIBLE;
+
+                if (waveView.getVisibility() != visibility){
+                    waveView.setVisibility(visibility);
+                }
+                waveView.invalidate();
+            }
+        }
+
+        //the views hold the frame that is drawn next, the checks until the next frame read it
+        if (mDisplayedFrame != null){
+            mDisplayedFrame.capture();
+        }
+    }
+
+    /**
+     * When onTouchSample() called as each MotionEvent arrives in MODE_TOUCH.
+     * @param eventTimeNanos The event time of the sample.
+     * */
+    @Override
+    public void onTouchSample(long eventTimeNanos) {
+
+        if (mSimulation != null){
+            mSimulation.post(InputQueue.TYPE_CHECK, 0, 0, 0, eventTimeNanos);
+        }else {
+            mEngine.checkTouch();
+        }
+    }
+
+    /**
+     * Draw the newest WorldSnapshot of the SimulationThread, the simulation keeps
+     * running while it is drawn.
+     * */
+    private void drawSnapshot() {
+        WorldSnapshot snapshot = mSimulation.getSnapshots().acquire();
+
+        if (snapshot.getScore() != mLastScore){
+            mLastScore = snapshot.getScore();
+            onScoreChanged(mLastScore);
+        }
+
+        mWaveField.setSnapshot(snapshot);
+
+        if (snapshot.isOver()){
+            gameOver();
+        }
+    }
+
+    /**
+     * In debug builds the volume up key shows or hides the StatsOverlayView,
+     * the volume down key pauses or resumes the game.
      * */
     @Override
-    public void onSample() {
-        checkColor();
+    public boolean onKeyDown(int keyCode, KeyEvent event) {
+
+        if (BuildConfig.DEBUG && keyCode == KeyEvent.KEYCODE_VOLUME_UP){
+            mStatsOverlay.setVisibility(mStatsOverlay.getVisibility() == View.VISIBLE
+                    ? View.GONE : View.VISIBLE);
+            return true;
+        }
+
+        //the GameEngine of the SimulationThread belongs to that thread
+        if (BuildConfig.DEBUG && keyCode == KeyEvent.KEYCODE_VOLUME_DOWN && mEngine != null){
+
+            if (mGameState.getState() == GameStateMachine.STATE_PAUSED){
+                mGameState.play();
+            }else {
+                mGameState.pause();
+            }
+            return true;
+        }
+
+        return super.onKeyDown(keyCode, event);
     }
 
         /**
@@ -260,13 +1091,19 @@ public class GameActivity extends AppCompatActivity implements
         }
 
         /**
-         * Override onDestroy() and remove callbacks.
+         * Override onDestroy(), remove callbacks and dump the FrameStats of the session.
          * */
         @Override
         protected void onDestroy() {
             super.onDestroy();
-            mPulseGenerator.stop();
             mSampleGenerator.stop();
+            mFramePacer.stop();
             mContainer.setOnTouchListener(null);
+
+            if (mFrameMetricsListener != null && Build.VERSION.SDK_INT >= Build.VERSION_CODES.N){
+                getWindow().removeOnFrameMetricsAvailableListener(mFrameMetricsListener);
+            }
+
+            dumpFrameStats();
         }
 }
@@ -0,0 +1,107 @@
+package com.superuptest.game;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+
+import com.superuptest.engine.GameEngine;
+import com.superuptest.engine.HitTester;
+import com.superuptest.engine.QualityGovernor;
+import com.superuptest.views.FieldPainter;
+
+/**
+ * This class checks the finger by the pixels of the whole game drawn again from the engine
+ * state: a point is on a wall if its pixel is not transparent.
+ *
+ * It does not read the displayed frame, ScreenHitTester does. The game is drawn into a private
+ * bitmap of the game size with only an alpha channel, once for every time the waves are grown
+ * to and every geometry level, so all the fingers of a step read the same drawing. The arcs have
+ * the geometry of the screen, exact or coarse, but every wave is drawn and the waves are
+ * grown to the time of the check, not to the time of the displayed frame.
+ */
+
+public class BitmapHitTester implements HitTester {
+
+    /**
+     * The logging tag of this Class.
+     * */
+    private static final String TAG = "BitmapHitTester";
+
+    /**
+     * The GameEngine that holds the waves.
+     * */
+    private final GameEngine mEngine;
+
+    /**
+     * FieldPainter that draws the game into the bitmap.
+     * */
+    private final FieldPainter mPainter = new FieldPainter();
+
+    /**
+     * QualityGovernor of the screen, its geometry is drawn, null for exact geometry.
+     * */
+    private final QualityGovernor mGovernor;
+
+    /**
+     * Bitmap of the whole game, null until the first check.
+     * */
+    private Bitmap mBitmap;
+
+    /**
+     * Canvas that draws into mBitmap.
+     * */
+    private Canvas mCanvas;
+
+    /**
+     * The wave time mBitmap was drawn at, -1 before the first drawing.
+     * */
+    private long mDrawnTime = -1;
+
+    /**
+     * true if mBitmap was drawn with coarse geometry.
+     * */
+    private boolean isDrawnCoarse;
+
+    /**
+     * Constructor
+     * @param engine The GameEngine that holds the waves.
+     * @param governor QualityGovernor of the screen, null for exact geometry.
+     * */
+    public BitmapHitTester(GameEngine engine, QualityGovernor governor) {
+        this.mEngine = engine;
+        this.mGovernor = governor;
+    }
+
+    /**
+     * Check if the pixel of a point is drawn.
+     * @return true if the point is on a wall.
+     * */
+    @Override
+    public boolean isOnWall(float x, float y) {
+        int width = mEngine.getWidth();
+        int height = mEngine.getHeight();
+
+        if (width <= 0 || height <= 0 || x < 0 || y < 0 || x >= width || y >= height){
+            return false;
+        }
+
+        if (mBitmap == null || mBitmap.getWidth() != width || mBitmap.getHeight() != height){
+            mBitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ALPHA_8);
+            mCanvas = new Canvas(mBitmap);
+            mDrawnTime = -1;
+        }
+
+        //the waves are grown to the game time or to the time of a swept touch sample
+        boolean isCoarse = mGovernor != null && mGovernor.isCoarseGeometry();
+        if (mDrawnTime != mEngine.getWaveTime() || isDrawnCoarse != isCoarse){
+            mBitmap.eraseColor(Color.TRANSPARENT);
+            mPainter.setGeometry(mGovernor);
+            mPainter.drawBorder(mCanvas, width * 0.5f, height * 0.5f);
+            mPainter.drawWaves(mCanvas, mEngine, width * 0.5f, height * 0.5f);
+            mDrawnTime = mEngine.getWaveTime();
+            isDrawnCoarse = isCoarse;
+        }
+
+        return Color.alpha(mBitmap.getPixel((int) x, (int) y)) != 0;
+    }
+}
@@ -0,0 +1,90 @@
+package com.superuptest.game;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+
+import com.superuptest.engine.GameEngine;
+import com.superuptest.engine.HitTester;
+import com.superuptest.engine.QualityGovernor;
+import com.superuptest.views.FieldPainter;
+
+/**
+ * This class checks the finger by the pixel of the game drawn again from the engine state,
+ * clipped to the pixel under the finger.
+ *
+ * The game is drawn into a private bitmap of one pixel, moved so the pixel under the finger
+ * is the only pixel drawn, every check draws the border and every wave again.
+ * It reads the same pixel BitmapHitTester reads, with the same geometry of the screen,
+ * without keeping a bitmap of the whole game. It does not read the displayed frame,
+ * ScreenHitTester and PatchHitTester do.
+ */
+
+public class ClipHitTester implements HitTester {
+
+    /**
+     * The logging tag of this Class.
+     * */
+    private static final String TAG = "ClipHitTester";
+
+    /**
+     * The GameEngine that holds the waves.
+     * */
+    private final GameEngine mEngine;
+
+    /**
+     * FieldPainter that draws the game into mPixel.
+     * */
+    private final FieldPainter mPainter = new FieldPainter();
+
+    /**
+     * QualityGovernor of the screen, its geometry is drawn, null for exact geometry.
+     * */
+    private final QualityGovernor mGovernor;
+
+    /**
+     * Bitmap of the pixel under the finger.
+     * */
+    private final Bitmap mPixel = Bitmap.createBitmap(1, 1, Bitmap.Config.ALPHA_8);
+
+    /**
+     * Canvas that draws into mPixel.
+     * */
+    private final Canvas mCanvas = new Canvas(mPixel);
+
+    /**
+     * Constructor
+     * @param engine The GameEngine that holds the waves.
+     * @param governor QualityGovernor of the screen, null for exact geometry.
+     * */
+    public ClipHitTester(GameEngine engine, QualityGovernor governor) {
+        this.mEngine = engine;
+        this.mGovernor = governor;
+    }
+
+    /**
+     * Check if the pixel of a point is drawn.
+     * @return true if the point is on a wall.
+     * */
+    @Override
+    public boolean isOnWall(float x, float y) {
+        int width = mEngine.getWidth();
+        int height = mEngine.getHeight();
+
+        if (width <= 0 || height <= 0 || x < 0 || y < 0 || x >= width || y >= height){
+            return false;
+        }
+
+        mPixel.eraseColor(Color.TRANSPARENT);
+
+        //move the pixel of the point to mPixel
+        mPainter.setGeometry(mGovernor);
+        mCanvas.save();
+        mCanvas.translate(-(int) x, -(int) y);
+        mPainter.drawBorder(mCanvas, width * 0.5f, height * 0.5f);
+        mPainter.drawWaves(mCanvas, mEngine, width * 0.5f, height * 0.5f);
+        mCanvas.restore();
+
+        return Color.alpha(mPixel.getPixel(0, 0)) != 0;
+    }
+}
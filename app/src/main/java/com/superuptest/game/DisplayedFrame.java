@@ -0,0 +1,141 @@
+package com.superuptest.game;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.view.View;
+
+/**
+ * This class keeps a copy of the frame of the game the player sees, the readback of
+ * ScreenHitTester and PatchHitTester.
+ *
+ * capture() draws the views of the game, the border, the WaveFieldView or the WaveViews,
+ * into a bitmap of the container, as the game read the drawing cache of the container.
+ * The ScoreView and the StatsOverlayView are not game views, they are not captured.
+ * It is called on the UI thread after the game moved to a frame and before the frame is drawn,
+ * so the copy has the waves, the quality level and the cap of waves of that frame, and the checks
+ * until the next frame read the frame on the screen. The views draw the copy with their own
+ * onDraw(), so the draw times of the FrameStats include the copy.
+ */
+
+public class DisplayedFrame {
+
+    /**
+     * The logging tag of this Class.
+     * */
+    private static final String TAG = "DisplayedFrame";
+
+    /**
+     * The container of the game, the fingers are in its coordinates.
+     * */
+    private final View mContainer;
+
+    /**
+     * The views of the game in drawing order, only the visible ones are captured.
+     * */
+    private final View[] mLayers;
+
+    /**
+     * Bitmap of the last captured frame, null until the first capture.
+     * */
+    private Bitmap mBitmap;
+
+    /**
+     * Canvas that draws into mBitmap.
+     * */
+    private Canvas mCanvas;
+
+    /**
+     * Count of the captured frames.
+     * */
+    private long mFrameCount = 0;
+
+    /**
+     * Constructor
+     * @param container The container of the game, the size of the frame.
+     * @param layers The views of the game in drawing order, children of the container.
+     * */
+    public DisplayedFrame(View container, View... layers) {
+        this.mContainer = container;
+        this.mLayers = layers;
+    }
+
+    /**
+     * Copy the frame the views are about to draw, called on the UI thread.
+     * */
+    public void capture() {
+        int width = mContainer.getWidth();
+        int height = mContainer.getHeight();
+
+        if (width <= 0 || height <= 0){
+            return;
+        }
+
+        if (mBitmap == null || mBitmap.getWidth() != width || mBitmap.getHeight() != height){
+            mBitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+            mCanvas = new Canvas(mBitmap);
+        }
+
+        mBitmap.eraseColor(Color.TRANSPARENT);
+
+        for (View layer : mLayers) {
+
+            if (layer.getVisibility() != View.VISIBLE){
+                continue;
+            }
+
+            mCanvas.save();
+            mCanvas.translate(layer.getLeft(), layer.getTop());
+            layer.draw(mCanvas);
+            mCanvas.restore();
+        }
+
+        mFrameCount++;
+    }
+
+    /**
+     * Getter for the count of the captured frames, a new count is a new frame.
+     * @return The count of the frames, 0 before the first capture.
+     * */
+    public long getFrameCount() {
+        return mFrameCount;
+    }
+
+    /**
+     * Getter for the width of the last captured frame.
+     * @return The width in pixels, 0 before the first capture.
+     * */
+    public int getWidth() {
+        return mBitmap == null ? 0 : mBitmap.getWidth();
+    }
+
+    /**
+     * Getter for the height of the last captured frame.
+     * @return The height in pixels, 0 before the first capture.
+     * */
+    public int getHeight() {
+        return mBitmap == null ? 0 : mBitmap.getHeight();
+    }
+
+    /**
+     * Check if a pixel of the last captured frame is drawn.
+     * @param x X coordinate of the pixel, inside the frame.
+     * @param y Y coordinate of the pixel, inside the frame.
+     * @return true if the pixel is not transparent.
+     * */
+    public boolean isDrawn(int x, int y) {
+        return Color.alpha(mBitmap.getPixel(x, y)) != 0;
+    }
+
+    /**
+     * Copy a region of the last captured frame.
+     * @param pixels The array to copy to, row after row.
+     * @param x X coordinate of the region, the region is inside the frame.
+     * @param y Y coordinate of the region.
+     * @param width The width of the region.
+     * @param height The height of the region.
+     * */
+    public void copy(int[] pixels, int x, int y, int width, int height) {
+        mBitmap.getPixels(pixels, 0, width, x, y, width, height);
+    }
+}
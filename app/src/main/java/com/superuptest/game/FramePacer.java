@@ -0,0 +1,210 @@
+package com.superuptest.game;
+
+import android.annotation.TargetApi;
+import android.content.Context;
+import android.hardware.display.DisplayManager;
+import android.os.Build;
+import android.os.Handler;
+import android.view.Display;
+import android.view.Window;
+import android.view.WindowManager;
+
+/**
+ * This class picks the refresh rate the game is drawn at and tells the refresh rate
+ * the display really runs at.
+ *
+ * From API 23 the window asks for the display mode with the highest refresh rate
+ * at the current resolution, so 90 and 120 Hz displays are not left at 60 Hz.
+ * The display may keep its mode, for example in battery saver, or switch later,
+ * so the vsync period is never taken from the request: getRefreshRate() is the rate
+ * in effect and the callbacks are told when the display changes it.
+ * The GameEngine grows the waves by the frame time, so the game looks the same
+ * at every refresh rate, only smoother.
+ */
+
+public class FramePacer implements DisplayManager.DisplayListener {
+
+    /**
+     * The logging tag of this Class.
+     * */
+    private static final String TAG = "FramePacer";
+
+    /**
+     * Interface to send the refresh rate changes.
+     * */
+    public interface FramePacerCallbacks {
+
+        /**
+         * Called on the UI thread when the display changed its refresh rate.
+         * @param refreshRate The refresh rate in effect.
+         * */
+        void onRefreshRateChanged(float refreshRate);
+    }
+
+    /**
+     * The window of the game.
+     * */
+    private final Window mWindow;
+
+    /**
+     * The display the window is on.
+     * */
+    private final Display mDisplay;
+
+    /**
+     * DisplayManager that reports the display changes.
+     * */
+    private final DisplayManager mDisplayManager;
+
+    /**
+     * Listener of the refresh rate changes, null when not listening.
+     * */
+    private FramePacerCallbacks mCallbacks;
+
+    /**
+     * The last refresh rate told to the listener.
+     * */
+    private float mRefreshRate;
+
+    /**
+     * Constructor
+     * @param window The window of the game.
+     * */
+    public FramePacer(Window window) {
+        this.mWindow = window;
+        this.mDisplay = ((WindowManager) window.getContext().getSystemService(Context.WINDOW_SERVICE))
+                .getDefaultDisplay();
+        this.mDisplayManager = (DisplayManager) window.getContext().getSystemService(Context.DISPLAY_SERVICE);
+        this.mRefreshRate = mDisplay.getRefreshRate();
+    }
+
+    /**
+     * Ask for the highest refresh rate of the display, the display may keep its mode
+     * or switch later.
+     * */
+    public void requestHighestRefreshRate() {
+
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M){
+            selectHighestMode();
+        }
+    }
+
+    /**
+     * Getter for the refresh rate the display runs at now.
+     * @return The refresh rate in effect, not the requested one.
+     * */
+    public float getRefreshRate() {
+        return mDisplay.getRefreshRate();
+    }
+
+    /**
+     * Getter for the refresh rates the display supports at the current resolution.
+     * @return The refresh rates, the rate in effect only before API 23.
+     * */
+    public float[] getSupportedRefreshRates() {
+
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M){
+            return getModeRefreshRates();
+        }
+
+        return new float[]{mDisplay.getRefreshRate()};
+    }
+
+    /**
+     * Listen to the refresh rate changes of the display.
+     * @param callbacks Listener of the changes, called on the UI thread.
+     * */
+    public void start(FramePacerCallbacks callbacks) {
+        mCallbacks = callbacks;
+        mDisplayManager.registerDisplayListener(this, new Handler());
+    }
+
+    /**
+     * Stop listening to the refresh rate changes.
+     * */
+    public void stop() {
+        mDisplayManager.unregisterDisplayListener(this);
+        mCallbacks = null;
+    }
+
+    @Override
+    public void onDisplayAdded(int displayId) {
+
+    }
+
+    @Override
+    public void onDisplayRemoved(int displayId) {
+
+    }
+
+    /**
+     * The display changed, for example the requested mode was applied.
+     * */
+    @Override
+    public void onDisplayChanged(int displayId) {
+
+        if (displayId != mDisplay.getDisplayId() || mCallbacks == null){
+            return;
+        }
+
+        float refreshRate = mDisplay.getRefreshRate();
+        if (refreshRate != mRefreshRate){
+            mRefreshRate = refreshRate;
+            mCallbacks.onRefreshRateChanged(refreshRate);
+        }
+    }
+
+    /**
+     * Select the display mode with the highest refresh rate at the current resolution.
+     * */
+    @TargetApi(Build.VERSION_CODES.M)
+    private void selectHighestMode() {
+        Display.Mode current = mDisplay.getMode();
+        Display.Mode best = current;
+
+        for (Display.Mode mode : mDisplay.getSupportedModes()) {
+
+            //a mode with another resolution would resize the game
+            if (isSameResolution(mode, current) && mode.getRefreshRate() > best.getRefreshRate()){
+                best = mode;
+            }
+        }
+
+        WindowManager.LayoutParams params = mWindow.getAttributes();
+        if (params.preferredDisplayModeId != best.getModeId()){
+            params.preferredDisplayModeId = best.getModeId();
+            mWindow.setAttributes(params);
+        }
+    }
+
+    /**
+     * Return the refresh rates of the display modes at the current resolution.
+     * @return The refresh rates.
+     * */
+    @TargetApi(Build.VERSION_CODES.M)
+    private float[] getModeRefreshRates() {
+        Display.Mode current = mDisplay.getMode();
+        Display.Mode[] modes = mDisplay.getSupportedModes();
+        float[] rates = new float[modes.length];
+        int count = 0;
+
+        for (Display.Mode mode : modes) {
+            if (isSameResolution(mode, current)){
+                rates[count++] = mode.getRefreshRate();
+            }
+        }
+
+        float[] result = new float[count];
+        System.arraycopy(rates, 0, result, 0, count);
+        return result;
+    }
+
+    /**
+     * Check if two display modes have the same resolution.
+     * */
+    @TargetApi(Build.VERSION_CODES.M)
+    private static boolean isSameResolution(Display.Mode mode, Display.Mode other) {
+        return mode.getPhysicalWidth() == other.getPhysicalWidth()
+                && mode.getPhysicalHeight() == other.getPhysicalHeight();
+    }
+}
@@ -0,0 +1,115 @@
+package com.superuptest.game;
+
+import android.graphics.Color;
+
+import com.superuptest.engine.HitTester;
+
+/**
+ * This class checks the finger by the pixels of a small patch of the frame the player sees.
+ *
+ * Only a patch of PATCH_SIZE pixels around the finger is copied from the DisplayedFrame,
+ * the next checks inside the patch read the copy until a new frame is captured, the points
+ * along a swept path are closer than the patch. It reads the same pixels ScreenHitTester reads.
+ * Nothing is on a wall before the first frame is captured. Used on the UI thread only.
+ */
+
+public class PatchHitTester implements HitTester {
+
+    /**
+     * The logging tag of this Class.
+     * */
+    private static final String TAG = "PatchHitTester";
+
+    /**
+     * The width and the height of the patch in pixels.
+     * */
+    private static final int PATCH_SIZE = 16;
+
+    /**
+     * The copy of the displayed frame.
+     * */
+    private final DisplayedFrame mFrame;
+
+    /**
+     * The pixels of the patch, row after row.
+     * */
+    private final int[] mPatch = new int[PATCH_SIZE * PATCH_SIZE];
+
+    /**
+     * The frame count of the DisplayedFrame the patch was copied from, -1 before the first copy.
+     * */
+    private long mPatchFrame = -1;
+
+    /**
+     * X coordinate of the patch in the frame.
+     * */
+    private int mPatchLeft;
+
+    /**
+     * Y coordinate of the patch in the frame.
+     * */
+    private int mPatchTop;
+
+    /**
+     * The width of the patch, smaller than PATCH_SIZE in a smaller frame.
+     * */
+    private int mPatchWidth;
+
+    /**
+     * The height of the patch, smaller than PATCH_SIZE in a smaller frame.
+     * */
+    private int mPatchHeight;
+
+    /**
+     * Constructor
+     * @param frame The copy of the displayed frame, captured on every frame.
+     * */
+    public PatchHitTester(DisplayedFrame frame) {
+        this.mFrame = frame;
+    }
+
+    /**
+     * Check if the pixel of a point is drawn on the screen, from the patch around it.
+     * @return true if the point is on a wall.
+     * */
+    @Override
+    public boolean isOnWall(float x, float y) {
+        int width = mFrame.getWidth();
+        int height = mFrame.getHeight();
+
+        if (x < 0 || y < 0 || x >= width || y >= height){
+            return false;
+        }
+
+        int pixelX = (int) x;
+        int pixelY = (int) y;
+
+        if (mPatchFrame != mFrame.getFrameCount() || !isInPatch(pixelX, pixelY)){
+            copyPatch(pixelX, pixelY, width, height);
+        }
+
+        int pixel = mPatch[(pixelY - mPatchTop) * mPatchWidth + pixelX - mPatchLeft];
+        return Color.alpha(pixel) != 0;
+    }
+
+    /**
+     * Check if a pixel is inside the copied patch.
+     * */
+    private boolean isInPatch(int x, int y) {
+        return x >= mPatchLeft && x < mPatchLeft + mPatchWidth
+                && y >= mPatchTop && y < mPatchTop + mPatchHeight;
+    }
+
+    /**
+     * Copy the patch around a pixel, moved inside the frame at the edges.
+     * */
+    private void copyPatch(int x, int y, int width, int height) {
+        mPatchWidth = Math.min(PATCH_SIZE, width);
+        mPatchHeight = Math.min(PATCH_SIZE, height);
+        mPatchLeft = Math.max(0, Math.min(x - PATCH_SIZE / 2, width - mPatchWidth));
+        mPatchTop = Math.max(0, Math.min(y - PATCH_SIZE / 2, height - mPatchHeight));
+
+        mFrame.copy(mPatch, mPatchLeft, mPatchTop, mPatchWidth, mPatchHeight);
+        mPatchFrame = mFrame.getFrameCount();
+    }
+}
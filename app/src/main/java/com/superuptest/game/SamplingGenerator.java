@@ -1,11 +1,16 @@
 package com.superuptest.game;
 
-import android.os.Handler;
 import android.support.annotation.NonNull;
+import android.view.Choreographer;
+import android.view.MotionEvent;
+
+import java.util.concurrent.TimeUnit;
 
 /**
  * Created by pavel on 18/02/2018.
- * This class similar to PulseGenerator but with more faster rate.
+ * This class generate a sample on every displayed frame.
+ * The class uses Choreographer frame callbacks, so a sample runs exactly once per vsync
+ * and nothing runs between frames.
  */
 
 public class SamplingGenerator {
@@ -16,15 +21,35 @@ public class SamplingGenerator {
     private static final String TAG = "SamplingGenerator";
 
     /**
-     * Constant that define the onSample rate in milliseconds.
-     * 0 = most fastest.
+     * Sample once per displayed frame.
+     * */
+    public static final int MODE_FRAME = 0;
+
+    /**
+     * Sample once per displayed frame and also check as each MotionEvent arrives,
+     * the frame samples are still needed when the finger is not moving.
+     * */
+    public static final int MODE_TOUCH = 1;
+
+    /**
+     * Choreographer instance of the current thread.
+     * */
+    private Choreographer mChoreographer = Choreographer.getInstance();
+
+    /**
+     * FrameCallback that is posted again on every frame.
+     * */
+    private Choreographer.FrameCallback mFrameCallback = getFrameCallback();
+
+    /**
+     * Flag that tells if the sampling is running.
      * */
-    private static final int SAMPLE_RATE = 0;
+    private boolean isRunning = false;
 
     /**
-     * Handler instance.
+     * The sampling mode, MODE_FRAME or MODE_TOUCH.
      * */
-    private Handler mHandler = new Handler();
+    private int mMode = MODE_FRAME;
 
     /**
      * Interface instance used to send callbacks to Activity.
@@ -35,7 +60,18 @@ public class SamplingGenerator {
      * Interface to send callbacks to activity.
      * */
     public interface SamplingGeneratorCallbacks{
-        void onSample();
+
+        /**
+         * Called once per displayed frame.
+         * @param frameTimeNanos The frame time in the System.nanoTime() time base.
+         * */
+        void onSample(long frameTimeNanos);
+
+        /**
+         * Called in MODE_TOUCH as each MotionEvent arrives.
+         * @param eventTimeNanos The event time in the System.nanoTime() time base.
+         * */
+        void onTouchSample(long eventTimeNanos);
     }
 
     /**
@@ -52,34 +88,74 @@ public class SamplingGenerator {
      * Start sampling.
      * */
     public void start(){
-        mHandler.postDelayed(getRunnable(), SAMPLE_RATE);
+        if (!isRunning){
+            isRunning = true;
+            mChoreographer.postFrameCallback(mFrameCallback);
+        }
     }
 
     /**
      *Stop sampling.
      * */
     public void stop(){
-        mHandler.removeCallbacksAndMessages(null);
+        isRunning = false;
+        mChoreographer.removeFrameCallback(mFrameCallback);
     }
 
+    /**
+     * Setter for the sampling mode.
+     * @param mode MODE_FRAME or MODE_TOUCH.
+     * */
+    public void setMode(int mode) {
+
+        if (mode != MODE_FRAME && mode != MODE_TOUCH){
+            throw new IllegalArgumentException("unknown sampling mode " + mode);
+        }
+
+        this.mMode = mode;
+    }
+
+    /**
+     * Getter for the sampling mode.
+     * @return MODE_FRAME or MODE_TOUCH.
+     * */
+    public int getMode() {
+        return mMode;
+    }
 
     /**
-     *Getter for Runnable object that uses by the handler.
-     * @return Runnable object that uses by the handler.
+     * Feed a MotionEvent, in MODE_TOUCH a sample is generated immediately.
+     * @param event The MotionEvent that arrived.
+     * */
+    public void onTouchEvent(MotionEvent event) {
+        if (isRunning && mMode == MODE_TOUCH){
+            mCallbacks.onTouchSample(TimeUnit.MILLISECONDS.toNanos(event.getEventTime()));
+        }
+    }
+
+
+    /**
+     *Getter for FrameCallback object that uses by the Choreographer.
+     * @return FrameCallback object that uses by the Choreographer.
      * */
     @NonNull
-    private Runnable getRunnable() {
-        return new Runnable() {
+    private Choreographer.FrameCallback getFrameCallback() {
+        return new Choreographer.FrameCallback() {
             @Override
-            public void run() {
+            public void doFrame(long frameTimeNanos) {
 
-                if (mHandler!=null){
+                if (isRunning){
 
                     //callback to activity
-                    mCallbacks.onSample();
+                    mCallbacks.onSample(frameTimeNanos);
+
+                }
+
+                //the callback may stop the sampling (game over)
+                if (isRunning){
 
-                    //call postDelayed with this Runnable again
-                    mHandler.postDelayed(this, SAMPLE_RATE);
+                    //wait for the next frame
+                    mChoreographer.postFrameCallback(this);
 
                 }
             }
@@ -0,0 +1,47 @@
+package com.superuptest.game;
+
+import com.superuptest.engine.HitTester;
+
+/**
+ * This class checks the finger by the pixel of the frame the player sees, as the game did
+ * with the drawing cache of the container: a point is on a wall if its pixel is not transparent.
+ *
+ * The pixel is read from the DisplayedFrame, the copy of the game views of the last frame,
+ * with the quality level, the cap of waves and the wave size of that frame. Nothing is
+ * on a wall before the first frame is captured. Used on the UI thread only.
+ */
+
+public class ScreenHitTester implements HitTester {
+
+    /**
+     * The logging tag of this Class.
+     * */
+    private static final String TAG = "ScreenHitTester";
+
+    /**
+     * The copy of the displayed frame.
+     * */
+    private final DisplayedFrame mFrame;
+
+    /**
+     * Constructor
+     * @param frame The copy of the displayed frame, captured on every frame.
+     * */
+    public ScreenHitTester(DisplayedFrame frame) {
+        this.mFrame = frame;
+    }
+
+    /**
+     * Check if the pixel of a point is drawn on the screen.
+     * @return true if the point is on a wall.
+     * */
+    @Override
+    public boolean isOnWall(float x, float y) {
+
+        if (x < 0 || y < 0 || x >= mFrame.getWidth() || y >= mFrame.getHeight()){
+            return false;
+        }
+
+        return mFrame.isDrawn((int) x, (int) y);
+    }
+}
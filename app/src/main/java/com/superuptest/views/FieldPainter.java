@@ -0,0 +1,150 @@
+package com.superuptest.views;
+
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.RectF;
+
+import com.superuptest.engine.FieldRenderer;
+import com.superuptest.engine.GameEngine;
+import com.superuptest.engine.QualityGovernor;
+import com.superuptest.engine.RenderTarget;
+import com.superuptest.engine.WaveShape;
+import com.superuptest.engine.WorldSnapshot;
+
+/**
+ * This class draws the game border and the waves on an Android Canvas.
+ *
+ * The rings and the arcs come from the FieldRenderer of the engine module, the same
+ * drawing logic the SoftwareRasterizer golden tests check, this class only draws them
+ * with a Paint. WaveFieldView, WaveView and GameBorderView draw the game on the screen with it.
+ * Nothing is allocated while drawing, it is used on one thread.
+ *
+ * The pixel HitTesters re-render the engine state into their own bitmaps with their own
+ * FieldPainter, they do not read the displayed pixels. The screen painters follow the whole
+ * level of the QualityGovernor, the HitTesters follow only its geometry, so the arcs they read
+ * have the shape the screen draws, but every wave is drawn as every wave collides.
+ */
+
+public class FieldPainter implements RenderTarget {
+
+    /**
+     * The logging tag of this Class
+     * */
+    private static final String TAG = "FieldPainter";
+
+    /**
+     * FieldRenderer that computes the rings and the arcs.
+     * */
+    private final FieldRenderer mRenderer = new FieldRenderer();
+
+    /**
+     * Paint to draw the rings, the stroke width is set for every ring.
+     * */
+    private final Paint mPaint = getStrokePaint();
+
+    /**
+     * Oval reused to draw the arcs.
+     * */
+    private final RectF mOval = new RectF();
+
+    /**
+     * The canvas being drawn on.
+     * */
+    private Canvas mCanvas;
+
+    /**
+     * Apply the current level of a QualityGovernor, coarse geometry and the cap
+     * of the drawn waves.
+     * @param governor The QualityGovernor of the game.
+     * */
+    public void setQuality(QualityGovernor governor) {
+        mRenderer.setCoarseGeometry(governor.isCoarseGeometry());
+        mRenderer.setMaxWaves(governor.getMaxDrawnWaves());
+    }
+
+    /**
+     * Apply only the geometry of the current level of a QualityGovernor, every wave is drawn.
+     * @param governor The QualityGovernor of the game, null for exact geometry.
+     * */
+    public void setGeometry(QualityGovernor governor) {
+        mRenderer.setCoarseGeometry(governor != null && governor.isCoarseGeometry());
+        mRenderer.setMaxWaves(Integer.MAX_VALUE);
+    }
+
+    /**
+     * Draw the border around a centre.
+     * @param canvas The canvas to draw on.
+     * @param centerX X coordinate of the centre, also the radius of the border.
+     * @param centerY Y coordinate of the centre.
+     * */
+    public void drawBorder(Canvas canvas, float centerX, float centerY) {
+        mCanvas = canvas;
+        mRenderer.drawBorder(this, centerX, centerY);
+        mCanvas = null;
+    }
+
+    /**
+     * Draw one wave as arcs between the holes.
+     * @param canvas The canvas to draw on.
+     * @param shape The geometry of the wave.
+     * @param centerX X coordinate of the centre.
+     * @param centerY Y coordinate of the centre.
+     * */
+    public void drawWave(Canvas canvas, WaveShape shape, float centerX, float centerY) {
+        mCanvas = canvas;
+        mRenderer.drawWave(this, shape, centerX, centerY);
+        mCanvas = null;
+    }
+
+    /**
+     * Draw every wave of the GameEngine as arcs between the holes.
+     * @param canvas The canvas to draw on.
+     * @param engine The GameEngine that holds the live waves.
+     * @param centerX X coordinate of the centre.
+     * @param centerY Y coordinate of the centre.
+     * */
+    public void drawWaves(Canvas canvas, GameEngine engine, float centerX, float centerY) {
+        mCanvas = canvas;
+        mRenderer.drawWaves(this, engine, centerX, centerY);
+        mCanvas = null;
+    }
+
+    /**
+     * Draw every wave of a WorldSnapshot as arcs between the holes.
+     * @param canvas The canvas to draw on.
+     * @param snapshot The snapshot of the game.
+     * @param centerX X coordinate of the centre.
+     * @param centerY Y coordinate of the centre.
+     * */
+    public void drawSnapshot(Canvas canvas, WorldSnapshot snapshot, float centerX, float centerY) {
+        mCanvas = canvas;
+        mRenderer.drawSnapshot(this, snapshot, centerX, centerY);
+        mCanvas = null;
+    }
+
+    @Override
+    public void drawRing(float centerX, float centerY, float radius, float strokeWidth) {
+        mPaint.setStrokeWidth(strokeWidth);
+        mCanvas.drawCircle(centerX, centerY, radius, mPaint);
+    }
+
+    @Override
+    public void drawArc(float centerX, float centerY, float radius, float startDegrees, float sweepDegrees,
+                        float strokeWidth) {
+        mPaint.setStrokeWidth(strokeWidth);
+        mOval.set(centerX - radius, centerY - radius, centerX + radius, centerY + radius);
+        mCanvas.drawArc(mOval, startDegrees, sweepDegrees, false, mPaint);
+    }
+
+    /**
+     * Return Paint that uses to draw a ring, not anti-aliased, as the game was always drawn.
+     * @return Paint that uses to draw a ring.
+     * */
+    private static Paint getStrokePaint(){
+        Paint paint = new Paint();
+        paint.setColor(Color.BLACK);
+        paint.setStyle(Paint.Style.STROKE);
+        return paint;
+    }
+}
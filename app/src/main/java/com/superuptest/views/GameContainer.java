@@ -0,0 +1,102 @@
+package com.superuptest.views;
+
+import android.content.Context;
+import android.support.annotation.Nullable;
+import android.util.AttributeSet;
+import android.view.View;
+import android.view.ViewGroup;
+
+/**
+ * This class holds the WaveViews and centres them itself.
+ *
+ * Every wave is a square with the width of the container in its middle.
+ * A new wave is measured and laid out alone, no layout pass of the container
+ * or its parent is requested, so adding a wave costs the same with any number
+ * of live waves.
+ */
+
+public class GameContainer extends ViewGroup {
+
+    /**
+     * The logging tag of this Class
+     * */
+    private static final String TAG = "GameContainer";
+
+    public GameContainer(Context context) {
+        super(context);
+    }
+
+    public GameContainer(Context context, @Nullable AttributeSet attrs) {
+        super(context, attrs);
+    }
+
+    /**
+     * Add a wave on top of the other waves, only the new wave is measured and laid out.
+     * @param wave The view of the wave.
+     * */
+    public void addWave(View wave) {
+        addViewInLayout(wave, -1, generateDefaultLayoutParams(), true);
+
+        //before the first layout the wave is laid out with the container
+        if (getWidth() > 0){
+            measureWave(wave, getWidth());
+            layoutWave(wave);
+        }
+
+        invalidate();
+    }
+
+    /**
+     * Remove a wave, the other waves stay where they are.
+     * @param wave The view of the wave.
+     * */
+    public void removeWave(View wave) {
+        removeViewInLayout(wave);
+        invalidate();
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        int width = getDefaultSize(getSuggestedMinimumWidth(), widthMeasureSpec);
+        int height = getDefaultSize(getSuggestedMinimumHeight(), heightMeasureSpec);
+        setMeasuredDimension(width, height);
+
+        for (int i = 0; i < getChildCount(); i++) {
+            measureWave(getChildAt(i), width);
+        }
+    }
+
+    @Override
+    protected void onLayout(boolean changed, int l, int t, int r, int b) {
+        for (int i = 0; i < getChildCount(); i++) {
+            layoutWave(getChildAt(i));
+        }
+    }
+
+    /**
+     * Measure a wave as a square with the width of the container.
+     * */
+    private void measureWave(View wave, int width) {
+        int spec = MeasureSpec.makeMeasureSpec(width, MeasureSpec.EXACTLY);
+        wave.measure(spec, spec);
+    }
+
+    /**
+     * Place a measured wave in the middle of the container.
+     * */
+    private void layoutWave(View wave) {
+        int left = (getWidth() - wave.getMeasuredWidth()) / 2;
+        int top = (getHeight() - wave.getMeasuredHeight()) / 2;
+        wave.layout(left, top, left + wave.getMeasuredWidth(), top + wave.getMeasuredHeight());
+    }
+
+    @Override
+    protected LayoutParams generateDefaultLayoutParams() {
+        return new LayoutParams(LayoutParams.MATCH_PARENT, LayoutParams.MATCH_PARENT);
+    }
+
+    @Override
+    public boolean shouldDelayChildPressedState() {
+        return false;
+    }
+}
@@ -0,0 +1,178 @@
+package com.superuptest.views;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Typeface;
+import android.support.annotation.Nullable;
+import android.util.AttributeSet;
+import android.util.TypedValue;
+import android.view.View;
+
+/**
+ * This class draws the score of the game.
+ *
+ * The view has a fixed size with room for the label and the biggest score, so a new score
+ * never requests a layout pass of the game layout as a TextView does.
+ * The digits are written into a preallocated char buffer and drawn straight from it,
+ * nothing is allocated for a new score.
+ *
+ * setScore() only keeps the score, the text is formatted when the view is drawn,
+ * so a few points in the same frame are drawn once.
+ */
+
+public class ScoreView extends View {
+
+    /**
+     * The logging tag of this Class
+     * */
+    private static final String TAG = "ScoreView";
+
+    /**
+     * The label before the digits.
+     * */
+    private static final String LABEL = "Points: ";
+
+    /**
+     * Room for the digits of the biggest score.
+     * */
+    private static final int MAX_DIGITS = String.valueOf(Integer.MAX_VALUE).length();
+
+    /**
+     * Text size in sp.
+     * */
+    private static final int TEXT_SIZE = 24;
+
+    /**
+     * The label and the digits of the drawn score.
+     * */
+    private final char[] mText = new char[LABEL.length() + MAX_DIGITS];
+
+    /**
+     * Paint to draw the text.
+     * */
+    private Paint mTextPaint;
+
+    /**
+     * The score to draw.
+     * */
+    private int mScore = 0;
+
+    /**
+     * Flag that tells if a redraw was requested and not drawn yet.
+     * */
+    private boolean isRedrawPending = false;
+
+    public ScoreView(Context context) {
+        super(context);
+        init();
+    }
+
+    public ScoreView(Context context, @Nullable AttributeSet attrs) {
+        super(context, attrs);
+        init();
+    }
+
+    /**
+     * initialize Paint and the label.
+     * */
+    private void init(){
+        mTextPaint = getTextPaint();
+        LABEL.getChars(0, LABEL.length(), mText, 0);
+    }
+
+    /**
+     * Setter for the score, the view is redrawn once on the next frame.
+     * @param score The new score, 0 or more.
+     * */
+    public void setScore(int score) {
+
+        if (score == mScore){
+            return;
+        }
+
+        mScore = score;
+
+        //the scores of the same frame are drawn by one redraw
+        if (!isRedrawPending){
+            isRedrawPending = true;
+            invalidate();
+        }
+    }
+
+    /**
+     * Getter for the score.
+     * @return The score to draw.
+     * */
+    public int getScore() {
+        return mScore;
+    }
+
+    /**
+     * Override onMeasure, the size fits the label and the biggest score.
+     * */
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+
+        //the widest digit for every digit
+        float digitWidth = 0;
+        for (char digit = '0'; digit <= '9'; digit++) {
+            digitWidth = Math.max(digitWidth, mTextPaint.measureText(String.valueOf(digit)));
+        }
+
+        int width = (int) Math.ceil(mTextPaint.measureText(LABEL) + digitWidth * MAX_DIGITS)
+                + getPaddingLeft() + getPaddingRight();
+        int height = (int) Math.ceil(mTextPaint.getFontMetrics(null))
+                + getPaddingTop() + getPaddingBottom();
+
+        setMeasuredDimension(resolveSize(width, widthMeasureSpec), resolveSize(height, heightMeasureSpec));
+    }
+
+    /**
+     * Override onDraw and draw the label and the digits in the middle of the view.
+     * */
+    @Override
+    protected void onDraw(Canvas canvas) {
+        super.onDraw(canvas);
+        isRedrawPending = false;
+
+        int length = formatScore();
+        float textWidth = mTextPaint.measureText(mText, 0, length);
+        float baseline = getPaddingTop() - mTextPaint.ascent();
+
+        canvas.drawText(mText, 0, length, (getWidth() - textWidth) / 2, baseline, mTextPaint);
+    }
+
+    /**
+     * Write the digits of the score after the label.
+     * @return The length of the text.
+     * */
+    private int formatScore() {
+        int digits = 1;
+        for (int rest = mScore / 10; rest > 0; rest /= 10) {
+            digits++;
+        }
+
+        int value = mScore;
+        for (int i = LABEL.length() + digits - 1; i >= LABEL.length(); i--) {
+            mText[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+
+        return LABEL.length() + digits;
+    }
+
+    /**
+     * Return Paint that uses to draw the text.
+     * @return Paint that uses to draw the text.
+     * */
+    private Paint getTextPaint(){
+        Paint paint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        paint.setColor(Color.BLACK);
+        paint.setTypeface(Typeface.DEFAULT_BOLD);
+        paint.setTextSize(TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_SP, TEXT_SIZE,
+                getResources().getDisplayMetrics()));
+        return paint;
+    }
+}
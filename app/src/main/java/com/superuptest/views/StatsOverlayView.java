@@ -0,0 +1,179 @@
+package com.superuptest.views;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.support.annotation.Nullable;
+import android.util.AttributeSet;
+import android.util.TypedValue;
+import android.view.View;
+
+import com.superuptest.engine.FrameStats;
+import com.superuptest.engine.QualityGovernor;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class is a debug overlay that shows the percentiles of the FrameStats
+ * and the level of the QualityGovernor on top of the game.
+ *
+ * The text is redrawn a few times per second from a reused StringBuilder,
+ * so the overlay itself does not allocate on every frame.
+ */
+
+public class StatsOverlayView extends View {
+
+    /**
+     * The logging tag of this Class
+     * */
+    private static final String TAG = "StatsOverlayView";
+
+    /**
+     * Time between two redraws of the overlay in nanoseconds.
+     * */
+    private static final long REFRESH_INTERVAL = TimeUnit.MILLISECONDS.toNanos(500);
+
+    /**
+     * Paint to draw the text.
+     * */
+    private Paint mTextPaint;
+
+    /**
+     * Paint to draw the background of the text.
+     * */
+    private Paint mBackgroundPaint;
+
+    /**
+     * The FrameStats that this view shows.
+     * */
+    private FrameStats mFrameStats;
+
+    /**
+     * The QualityGovernor that this view shows, null when not shown.
+     * */
+    private QualityGovernor mQualityGovernor;
+
+    /**
+     * Text reused on every redraw.
+     * */
+    private final StringBuilder mText = new StringBuilder(512);
+
+    /**
+     * The frame time of the last redraw.
+     * */
+    private long mLastRefresh = 0;
+
+    public StatsOverlayView(Context context) {
+        super(context);
+        init();
+    }
+
+    public StatsOverlayView(Context context, @Nullable AttributeSet attrs) {
+        super(context, attrs);
+        init();
+    }
+
+    /**
+     * initialize Paints.
+     * */
+    private void init(){
+        mTextPaint = getTextPaint();
+        mBackgroundPaint = getBackgroundPaint();
+    }
+
+    /**
+     * Setter for the FrameStats that this view shows.
+     * @param frameStats The FrameStats of the game.
+     * */
+    public void setFrameStats(FrameStats frameStats) {
+        this.mFrameStats = frameStats;
+        invalidate();
+    }
+
+    /**
+     * Setter for the QualityGovernor that this view shows.
+     * @param governor The QualityGovernor of the game.
+     * */
+    public void setQualityGovernor(QualityGovernor governor) {
+        this.mQualityGovernor = governor;
+        invalidate();
+    }
+
+    /**
+     * Called on every frame, redraws the overlay when it is visible and the refresh
+     * interval passed.
+     * @param frameTimeNanos The frame time.
+     * */
+    public void onFrame(long frameTimeNanos) {
+
+        if (getVisibility() != VISIBLE || frameTimeNanos - mLastRefresh < REFRESH_INTERVAL){
+            return;
+        }
+
+        mLastRefresh = frameTimeNanos;
+        invalidate();
+    }
+
+    /**
+     * Override onDraw and draw a line of text for every histogram.
+     * */
+    @Override
+    protected void onDraw(Canvas canvas) {
+        super.onDraw(canvas);
+
+        if (mFrameStats == null){
+            return;
+        }
+
+        mText.setLength(0);
+        mFrameStats.dump(mText);
+
+        if (mQualityGovernor != null){
+            mQualityGovernor.dump(mText);
+        }
+
+        int lines = 0;
+        for (int i = 0; i < mText.length(); i++) {
+            if (mText.charAt(i) == '\n'){
+                lines++;
+            }
+        }
+
+        float lineHeight = mTextPaint.getFontSpacing();
+        float y = lineHeight;
+        int start = 0;
+
+        canvas.drawRect(0, 0, getWidth(), lineHeight * (lines + 0.5f), mBackgroundPaint);
+
+        for (int i = 0; i < mText.length(); i++) {
+            if (mText.charAt(i) == '\n'){
+                canvas.drawText(mText, start, i, lineHeight / 2, y, mTextPaint);
+                start = i + 1;
+                y += lineHeight;
+            }
+        }
+    }
+
+    /**
+     * Return Paint that uses to draw the text.
+     * @return Paint that uses to draw the text.
+     * */
+    private Paint getTextPaint(){
+        Paint paint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        paint.setColor(Color.WHITE);
+        paint.setTextSize(TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_SP, 12,
+                getResources().getDisplayMetrics()));
+        return paint;
+    }
+
+    /**
+     * Return Paint that uses to draw the background of the text.
+     * @return Paint that uses to draw the background of the text.
+     * */
+    private Paint getBackgroundPaint(){
+        Paint paint = new Paint();
+        paint.setColor(Color.argb(160, 0, 0, 0));
+        return paint;
+    }
+}
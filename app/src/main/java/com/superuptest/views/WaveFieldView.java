@@ -0,0 +1,135 @@
+package com.superuptest.views;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.support.annotation.Nullable;
+import android.util.AttributeSet;
+import android.view.View;
+
+import com.superuptest.engine.FrameStats;
+import com.superuptest.engine.GameEngine;
+import com.superuptest.engine.QualityGovernor;
+import com.superuptest.engine.WorldSnapshot;
+
+/**
+ * This class draws the game border and all the live waves in a single pass.
+ *
+ * It is the single view alternative to a WaveView per wave and a GameBorderView,
+ * no layout pass and no offscreen layer is needed when a wave grows,
+ * every wave of the GameEngine is drawn as arcs between its holes.
+ *
+ * When the game runs on a SimulationThread the view draws a WorldSnapshot instead,
+ * the arcs are already computed by the simulation thread.
+ */
+
+public class WaveFieldView extends View {
+
+    /**
+     * The logging tag of this Class
+     * */
+    private static final String TAG = "WaveFieldView";
+
+    /**
+     * FieldPainter that draws the border and the waves.
+     * */
+    private final FieldPainter mPainter = new FieldPainter();
+
+    /**
+     * The GameEngine that holds the live waves.
+     * */
+    private GameEngine mEngine;
+
+    /**
+     * The WorldSnapshot to draw instead of the GameEngine, null when drawing the GameEngine.
+     * */
+    private WorldSnapshot mSnapshot;
+
+    /**
+     * FrameStats that records the draw time, null when not measured.
+     * */
+    private FrameStats mFrameStats;
+
+    public WaveFieldView(Context context) {
+        super(context);
+    }
+
+    public WaveFieldView(Context context, @Nullable AttributeSet attrs) {
+        super(context, attrs);
+    }
+
+    /**
+     * Setter for the GameEngine, the view draws its waves on every invalidate().
+     * @param engine The GameEngine of the game.
+     * */
+    public void setEngine(GameEngine engine) {
+        this.mEngine = engine;
+        invalidate();
+    }
+
+    /**
+     * Setter for the WorldSnapshot to draw, the snapshot must not change until the next call.
+     * @param snapshot The newest snapshot of the game.
+     * */
+    public void setSnapshot(WorldSnapshot snapshot) {
+        this.mSnapshot = snapshot;
+        invalidate();
+    }
+
+    /**
+     * Setter for the FrameStats that records the draw time of this view.
+     * @param frameStats The FrameStats, null to stop measuring.
+     * */
+    public void setFrameStats(FrameStats frameStats) {
+        this.mFrameStats = frameStats;
+    }
+
+    /**
+     * Apply the current level of a QualityGovernor to the drawing of the waves.
+     * @param governor The QualityGovernor of the game.
+     * */
+    public void setQuality(QualityGovernor governor) {
+        mPainter.setQuality(governor);
+        invalidate();
+    }
+
+    /**
+     * Override onDraw and draw the border and every wave.
+     * */
+    @Override
+    protected void onDraw(Canvas canvas) {
+        super.onDraw(canvas);
+
+        if (mFrameStats == null){
+            drawWaves(canvas);
+            return;
+        }
+
+        long start = System.nanoTime();
+        drawWaves(canvas);
+        mFrameStats.recordDraw(System.nanoTime() - start);
+    }
+
+    /**
+     * Draw the border and every wave on the canvas.
+     * */
+    private void drawWaves(Canvas canvas) {
+
+        float centerX = getWidth() * 0.5f;
+        float centerY = getHeight() * 0.5f;
+
+        //Draws the main circle border area of the game
+        mPainter.drawBorder(canvas, centerX, centerY);
+
+        if (mSnapshot != null){
+            mPainter.drawSnapshot(canvas, mSnapshot, centerX, centerY);
+            return;
+        }
+
+        if (mEngine == null){
+            return;
+        }
+
+        //Draw every wave as arcs between the holes
+        mPainter.drawWaves(canvas, mEngine, centerX, centerY);
+    }
+}
@@ -1,22 +1,19 @@
 package com.superuptest.views;
 
-import android.animation.Animator;
-import android.animation.ValueAnimator;
 import android.content.Context;
 import android.graphics.Canvas;
-import android.graphics.Color;
-import android.graphics.Paint;
-import android.graphics.PorterDuff;
-import android.graphics.PorterDuffXfermode;
-import android.support.annotation.NonNull;
 import android.view.View;
-import android.view.animation.LinearInterpolator;
 
-import java.util.Random;
+import com.superuptest.engine.FrameStats;
+import com.superuptest.engine.WaveShape;
 
 
 /**
  * This class represent a wave.
+ * The GameEngine grows the WaveShape, the view only draws it in its middle,
+ * the view has the size of the biggest wave and never changes it.
+ * WaveViewPool reuses the view for the next wave with setShape(), the FieldPainter is shared
+ * by all the views of a pool.
  */
 
 public class WaveView extends View {
@@ -27,379 +24,93 @@ public class WaveView extends View {
     private static final String TAG = "WaveView";
 
     /**
-     *Padding from circle to view edge.
-    * */
-    private static final int PADDING = 10;
-
-
-    /**
-     *Paints stroke width.
-     * */
-    private static final int STROKE_WIDTH = 15;
-
-    /**
-     *The duration of animation in millisecond.
-     * */
-    private static final int ANIM_DURATION = 10000;
-
-    /**
-     *Device screen width used to check when the wave reached the border,
-     *since the outer circle width is match to the screen width.
-     * */
-    private int deviceScreenWidth = -1;
-
-    /**
-     * Flag that help us to start animation only once.
+     * FieldPainter to draw the wave, may be shared with other WaveViews.
      * */
-    private boolean isAnimStarted = false;
-
-    /**
-    * Every item of the array represent a hole angel, angel will used to calculate x,y
-    * coordinates for each hole on the circle.
-    * */
-    private int[] holeAngelsArr;
-
-
-    /**
-     * Every item of the array represent a hole size radius, will used by Paint to draw hole.
-     * */
-    private int[] holesSizeArr;
-
-    /**
-     * Paint to draw main circle.
-     * */
-    private Paint mCirclePaint;
-
-    /**
-     * Paint to draw holes.
-     * */
-    private Paint mHolePaint;
-
-    /**
-     * ValueAnimator instance.
-     * */
-    private ValueAnimator mAnimator;
-
-    /**
-     * Random instance.
-     * */
-    private Random mRand = new Random();
-
+    private final FieldPainter mPainter;
 
     /**
-     * int that represent number of holes in the wave.
+     * Geometry of the wave, grown by the GameEngine.
      * */
-    private final int numOfHoles = generateNumOfHoles();
-
+    private WaveShape mShape;
 
     /**
-     * Interface instance used to send callbacks to Activity.
+     * FrameStats that records the draw time, null when not measured.
      * */
-    private WaveViewCallbacks mCallbacks;
+    private FrameStats mFrameStats;
 
 
     /**
-     * Interface to communicate with the Activity
+     * Default constructor
+     * @param context The Context the view is running in (Activity)
+     * @param shape The geometry of the wave, holds the holes of the wave.
      * */
-    public interface WaveViewCallbacks {
-
-        /**
-         * Called when the wave reached the game border.
-         * @param waveView provide a instance of itself, to let the layout container in the
-         * Activity to remove the View.
-         * */
-        void onWaveReachedBorder(WaveView waveView);
+    public WaveView(Context context, WaveShape shape) {
+        this(context, shape, new FieldPainter());
     }
 
-
-
     /**
-     * Default constructor
+     * Constructor with a shared FieldPainter
      * @param context The Context the view is running in (Activity)
-     * @throws IllegalStateException if the Activity not implement WaveViewCallbacks interface
+     * @param shape The geometry of the wave, holds the holes of the wave.
+     * @param painter FieldPainter to draw the wave, used on the UI thread only.
      * */
-    public WaveView(Context context) {
+    WaveView(Context context, WaveShape shape, FieldPainter painter) {
         super(context);
 
-        if (context instanceof WaveViewCallbacks){
-            mCallbacks = (WaveViewCallbacks) context;
-        }else {
-            throw new IllegalStateException("Must implement WaveViewCallbacks interface");
-        }
-
-        init();
-    }
-
-
-    /**
-     * initialize Paints, holes, angels, hole sizes and sets View characteristics.
-    * */
-    private void init(){
-        //get paints
-        mCirclePaint = getCirclePaint();
-        mHolePaint = getHolePaint();
-
-        setDrawingCacheEnabled(true);
-
-        //this line used to force PorterDuff.Mode.CLEAR work and for smooth animations
-        setLayerType(View.LAYER_TYPE_HARDWARE,null);
-
-        setupHoleAngels();
-        setupHolesSizes();
+        this.mShape = shape;
+        this.mPainter = painter;
     }
 
     /**
-     * Initialize holeAngelsArr that store random non-repeatable angels for each hole
+     * Setter for the wave geometry, used when the view is reused for another wave.
+     * @param shape The geometry of the wave.
      * */
-    private void setupHoleAngels() {
-        holeAngelsArr = new int[numOfHoles];
-
-        for (int i = 0; i < holeAngelsArr.length; i++) {
-            holeAngelsArr[i] = getRandAngel();
-
-            //while loop to generate new number if the number already exist
-            while (i > 0 && holeAngelsArr[i]== holeAngelsArr[i-1]){
-                holeAngelsArr[i] = getRandAngel();
-            }
-        }
+    public void setShape(WaveShape shape) {
+        this.mShape = shape;
+        invalidate();
     }
 
-
     /**
-     * Initialize holesSizeArr that store random hole size radius for each hole.
+     * Setter for the FrameStats that records the draw time of this view.
+     * @param frameStats The FrameStats, null to stop measuring.
      * */
-    private void setupHolesSizes() {
-        holesSizeArr = new int[numOfHoles];
-
-        for (int i = 0; i < holesSizeArr.length; i++) {
-            holesSizeArr[i] = getRandHoleSize();
-        }
+    public void setFrameStats(FrameStats frameStats) {
+        this.mFrameStats = frameStats;
     }
 
-
     /**
-     * Override onMeasure and setup ValueAnimator increase from 10 to screen width
-     * and start animation.
-     * @throws IllegalStateException if the screen width not defined (-1)
-     * */
-    @Override
-    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
-        super.onMeasure(widthMeasureSpec, heightMeasureSpec);
-
-        if (deviceScreenWidth != -1){
-
-            //define animation from 10 to screen width
-            mAnimator = ValueAnimator.ofInt(10,deviceScreenWidth);
-
-            //start animation
-            if (!isAnimStarted){
-                startAnimation();
-            }
-
-        }else {
-            throw new IllegalStateException("Screen width not defined");
-        }
-
-    }
-
-
-    /**
-     * Override onDraw and draw the objects
+     * Override onDraw and draw the objects.
+     * The ring is drawn as arcs between the holes straight on the parent canvas,
+     * no offscreen layer is needed and nothing is allocated here.
      * */
     @Override
     protected void onDraw(Canvas canvas) {
         super.onDraw(canvas);
 
-        //get width and height
-        int width = canvas.getWidth();
-        int height = canvas.getHeight();
-
-
-        //Draw main circle
-        canvas.drawCircle(
-                (float)(width*0.5),
-                (float)(height*0.5)
-                ,(float)(width*0.5)-PADDING,
-                mCirclePaint);
-
-        //Draw holes
-        for (int i = 0; i< holeAngelsArr.length; i++) {
-
-            //compute coordinates on the circle to place a hole
-            float[] floats = getPointOnCircle(width, height, width/2, holeAngelsArr[i]);
-
-            canvas.drawCircle(
-                    floats[0],//x
-                    floats[1],//y
-                    holesSizeArr[i], mHolePaint);
-
-            //because we using animation we must call invalidate in onDraw()
-            //otherwise we won't able to getPixel() correctly
-            invalidate();
+        if (mFrameStats == null){
+            drawWave(canvas);
+            return;
         }
-    }
-
-    /**
-     * Getter for AnimatorUpdateListener.
-     * @return ValueAnimator.AnimatorUpdateListener.
-     * */
-    @NonNull
-    private ValueAnimator.AnimatorUpdateListener getAnimUpdateListener() {
-        return new ValueAnimator.AnimatorUpdateListener() {
-            public void onAnimationUpdate(ValueAnimator animation) {
 
-                    //increase the view width and height
-                    getLayoutParams().width = (int) animation.getAnimatedValue();
-                    getLayoutParams().height = (int) animation.getAnimatedValue();
-
-                    //redraw the view
-                    requestLayout();
-            }
-        };
+        long start = System.nanoTime();
+        drawWave(canvas);
+        mFrameStats.recordDraw(System.nanoTime() - start);
     }
 
     /**
-     * Getter for AnimatorListener.
-     * @return Animator.AnimatorListener.
+     * Draw the wave on the canvas.
      * */
-    @NonNull
-    private Animator.AnimatorListener getAnimListener() {
-        return new Animator.AnimatorListener() {
-            @Override
-            public void onAnimationStart(Animator animation) {
-
-            }
+    private void drawWave(Canvas canvas) {
 
-            @Override
-            public void onAnimationEnd(Animator animation) {
-                //Animation end = wave reached the border, send callback to Activity.
-                mCallbacks.onWaveReachedBorder(WaveView.this);
-            }
-
-            @Override
-            public void onAnimationCancel(Animator animation) {
-
-            }
-
-            @Override
-            public void onAnimationRepeat(Animator animation) {
-
-            }
-        };
+        //the wave is drawn in the middle of the view
+        mPainter.drawWave(canvas, mShape, getWidth() * 0.5f, getHeight() * 0.5f);
     }
 
     /**
-     * This function take height, width and radius of the view and return coordinates
-     * that represent point on the circle.
-     *
-     * @param radius The radius of the our circle.
-     * @param mWidth The width of entire view.
-     * @param mHeight The height of entire view.
-     *
-     * @return float 2-element array where result[0] is 'x' and result[1] is 'y'
-     * that represent point on the circle,
-     * this coordinates uses to place a hole.
+     * Getter for the wave geometry.
+     * @return WaveShape that this view draws.
      * */
-    private float[] getPointOnCircle(int mWidth, int mHeight, final float radius, int angel) {
-        float[] result = new float[2];
-
-        result[0] = (float) ((radius-PADDING) * Math.cos(angel)) + (mWidth / 2);
-        result[1] = (float) ((radius-PADDING) * Math.sin(angel)) + (mHeight / 2);
-
-        return result;
+    public WaveShape getShape() {
+        return mShape;
     }
-
-
-    /**
-    * Return Paint that uses to draw circle.
-    * @return Paint that uses to draw circle.
-    * */
-    private Paint getCirclePaint(){
-       Paint paint =  new Paint();
-       paint.setColor(Color.BLACK);
-       paint.setStrokeWidth(STROKE_WIDTH);
-       paint.setStyle(Paint.Style.STROKE);
-       return paint;
-    }
-
-    /**
-     * Return Paint that uses to draw hole in circle.
-     * @return Paint that uses to draw hole in circle.
-     * */
-    private Paint getHolePaint(){
-
-        //mDuffXfermode to erase part of the circle to create hole
-        PorterDuffXfermode mDuffXfermode = new PorterDuffXfermode(PorterDuff.Mode.CLEAR);
-
-        Paint paint = new Paint();
-        paint.setStrokeWidth(STROKE_WIDTH);
-        paint.setStyle(Paint.Style.FILL);
-        paint.setXfermode(mDuffXfermode);
-
-        return paint;
-    }
-
-
-    /**
-     * Initialize the ValueAnimator and start animation as wave
-     * */
-    void startAnimation(){
-        mAnimator.setDuration(ANIM_DURATION);
-        mAnimator.setInterpolator(new LinearInterpolator());
-        mAnimator.addUpdateListener(getAnimUpdateListener());
-        mAnimator.addListener(getAnimListener());
-        mAnimator.start();
-        isAnimStarted = true;
-    }
-
-    /**
-     * Setter for device screen width.
-     * @param width is screen width.
-     * */
-    public void setDeviceScreenWidth(int width) {
-        this.deviceScreenWidth = width;
-    }
-
-    /**
-     * Return random number from 1 to 3, represent number of holes in WaveView.
-     * @return random number from 1 to 3, represent number of holes in the WaveView.
-     */
-    private int generateNumOfHoles(){
-
-        int low = 1;
-        int high = 4;
-
-        return mRand.nextInt(high-low) + low;
-    }
-
-
-    /**
-    * Return random number from (1 to 36) * 10 that represent angel.
-    * @return random number from (1 to 36) * 10 that represent angel from 10 to 360 degrees,
-    * jumps by 10.
-    */
-    private int getRandAngel(){
-
-        int low = 1;
-        int high = 37;
-        int result = mRand.nextInt(high-low) + low;
-
-        return result*10;
-    }
-
-
-    /**
-     * Return random number from 50 to 100 that represent hole size.
-     * @return random number from 50 to 100 that represent hole size.
-     */
-    private int getRandHoleSize(){
-
-        int low = 5;
-        int high = 11;
-
-        int result = mRand.nextInt(high-low) + low;
-        return result*10;
-    }
-
-
 }
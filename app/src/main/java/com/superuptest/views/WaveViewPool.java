@@ -0,0 +1,130 @@
+package com.superuptest.views;
+
+import android.content.Context;
+import android.view.View;
+
+import com.superuptest.engine.FrameStats;
+import com.superuptest.engine.PoolStats;
+import com.superuptest.engine.QualityGovernor;
+import com.superuptest.engine.WaveShape;
+
+/**
+ * This class holds the removed WaveViews for reuse.
+ *
+ * A removed WaveView is reset with the shape of the next wave instead of building
+ * a new view, all the views of the pool share one FieldPainter.
+ * The pool is bounded, a view recycled into a full pool is left to the garbage collector.
+ * It is used on the UI thread only.
+ */
+
+public class WaveViewPool {
+
+    /**
+     * The logging tag of this Class
+     * */
+    private static final String TAG = "WaveViewPool";
+
+    /**
+     * The Context of the new views.
+     * */
+    private final Context mContext;
+
+    /**
+     * FieldPainter to draw the waves, shared by all the views of the pool.
+     * */
+    private final FieldPainter mPainter = new FieldPainter();
+
+    /**
+     * The free views, the first mFreeCount are used.
+     * */
+    private final WaveView[] mFree;
+
+    /**
+     * The number of free views.
+     * */
+    private int mFreeCount = 0;
+
+    /**
+     * The hits and misses of this pool.
+     * */
+    private final PoolStats mStats = new PoolStats();
+
+    /**
+     * FrameStats that records the draw time of the views, null when not measured.
+     * */
+    private FrameStats mFrameStats;
+
+    /**
+     * Constructor
+     * @param context The Context the views are running in (Activity)
+     * @param capacity The maximum number of free views.
+     * */
+    public WaveViewPool(Context context, int capacity) {
+        this.mContext = context;
+        this.mFree = new WaveView[capacity];
+    }
+
+    /**
+     * Setter for the FrameStats that records the draw time of the views.
+     * @param frameStats The FrameStats, null to stop measuring.
+     * */
+    public void setFrameStats(FrameStats frameStats) {
+        this.mFrameStats = frameStats;
+    }
+
+    /**
+     * Apply the current level of a QualityGovernor to the shared FieldPainter,
+     * the views in use are redrawn by the next frame.
+     * @param governor The QualityGovernor of the game.
+     * */
+    public void setQuality(QualityGovernor governor) {
+        mPainter.setQuality(governor);
+    }
+
+    /**
+     * Get a WaveView that draws a shape, a free view if there is one.
+     * @param shape The geometry of the wave.
+     * @return WaveView without a parent.
+     * */
+    public WaveView obtain(WaveShape shape) {
+        WaveView waveView;
+
+        if (mFreeCount == 0){
+            mStats.recordMiss();
+            waveView = new WaveView(mContext, shape, mPainter);
+        }else {
+            mStats.recordHit();
+            waveView = mFree[--mFreeCount];
+            mFree[mFreeCount] = null;
+            waveView.setShape(shape);
+
+            //the view may have been over the cap of the QualityGovernor
+            waveView.setVisibility(View.VISIBLE);
+        }
+
+        waveView.setFrameStats(mFrameStats);
+        return waveView;
+    }
+
+    /**
+     * Return a WaveView removed from its parent to the pool.
+     * @param waveView The view, it must not be used after this call.
+     * */
+    public void recycle(WaveView waveView) {
+
+        if (mFreeCount == mFree.length){
+            mStats.recordDropped();
+            return;
+        }
+
+        mFree[mFreeCount++] = waveView;
+    }
+
+    /**
+     * Getter for the hits and misses of this pool.
+     * @return The PoolStats of this pool.
+     * */
+    public PoolStats getStats() {
+        return mStats;
+    }
+}
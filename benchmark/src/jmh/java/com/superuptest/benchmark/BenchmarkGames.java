@@ -0,0 +1,64 @@
+package com.superuptest.benchmark;
+
+import com.superuptest.engine.GameEngine;
+import com.superuptest.engine.Wave;
+
+/**
+ * Helper that builds a GameEngine with a steady number of live waves for the benchmarks.
+ */
+
+final class BenchmarkGames {
+
+    /**
+     * Width of the game, a common phone screen width.
+     * */
+    static final int WIDTH = 1080;
+
+    /**
+     * Height of the game, a common phone screen height.
+     * */
+    static final int HEIGHT = 1920;
+
+    private BenchmarkGames() {
+    }
+
+    /**
+     * Create a game that always has the given number of live waves,
+     * the pulse interval is the wave duration divided by the number of waves.
+     * @param waves The number of live waves.
+     * @return GameEngine that already played one wave duration.
+     * */
+    static GameEngine createGame(int waves) {
+        GameEngine engine = new GameEngine(new NoCallbacks());
+        engine.setSize(WIDTH, HEIGHT);
+        engine.setPulseInterval(GameEngine.WAVE_DURATION / waves);
+        engine.step(GameEngine.WAVE_DURATION);
+        return engine;
+    }
+
+    /**
+     * GameEngineCallbacks that ignores all the events.
+     * */
+    static class NoCallbacks implements GameEngine.GameEngineCallbacks {
+
+        @Override
+        public void onWaveSpawned(Wave wave) {
+
+        }
+
+        @Override
+        public void onWaveRemoved(Wave wave) {
+
+        }
+
+        @Override
+        public void onScoreChanged(int score) {
+
+        }
+
+        @Override
+        public void onGameOver() {
+
+        }
+    }
+}
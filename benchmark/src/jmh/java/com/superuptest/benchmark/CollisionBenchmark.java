@@ -0,0 +1,58 @@
+package com.superuptest.benchmark;
+
+import com.superuptest.engine.GameEngine;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures one collision query of a touch sample against N live waves and the border.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CollisionBenchmark {
+
+    /**
+     * Number of precomputed touch samples, a power of two.
+     * */
+    private static final int SAMPLES = 1024;
+
+    @Param({"1", "10", "100"})
+    public int waves;
+
+    private GameEngine mEngine;
+
+    private final float[] mX = new float[SAMPLES];
+
+    private final float[] mY = new float[SAMPLES];
+
+    private int mIndex = 0;
+
+    @Setup
+    public void setUp() {
+        mEngine = BenchmarkGames.createGame(waves);
+
+        //touch samples all over the game, inside and outside of the border
+        Random random = new Random(42);
+        for (int i = 0; i < SAMPLES; i++) {
+            mX[i] = random.nextFloat() * BenchmarkGames.WIDTH;
+            mY[i] = random.nextFloat() * BenchmarkGames.HEIGHT;
+        }
+    }
+
+    @Benchmark
+    public boolean isOnWall() {
+        int i = mIndex = (mIndex + 1) & (SAMPLES - 1);
+        return mEngine.isOnWall(mX[i], mY[i]);
+    }
+}
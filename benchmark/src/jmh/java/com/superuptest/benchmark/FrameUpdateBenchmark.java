@@ -0,0 +1,48 @@
+package com.superuptest.benchmark;
+
+import com.superuptest.engine.GameEngine;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the update of one 60 fps frame: the fixed steps of the frame with spawning,
+ * growing and removing waves and the check of a touch that never ends the game.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class FrameUpdateBenchmark {
+
+    /**
+     * One frame of a 60 Hz display.
+     * */
+    private static final long FRAME_NANOS = TimeUnit.SECONDS.toNanos(1) / 60;
+
+    @Param({"1", "10", "100"})
+    public int waves;
+
+    private GameEngine mEngine;
+
+    @Setup
+    public void setUp() {
+        mEngine = BenchmarkGames.createGame(waves);
+
+        //the middle of the game is never on a wall, small waves are erased by their holes
+        mEngine.touchMove(BenchmarkGames.WIDTH / 2, BenchmarkGames.HEIGHT / 2);
+    }
+
+    @Benchmark
+    public int frame() {
+        mEngine.advance(FRAME_NANOS);
+        return mEngine.getWaveCount();
+    }
+}
@@ -0,0 +1,52 @@
+package com.superuptest.benchmark;
+
+import com.superuptest.engine.FieldRenderer;
+import com.superuptest.engine.GameEngine;
+import com.superuptest.engine.SoftwareRasterizer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the frames per second the FieldRenderer draws with N live waves,
+ * rasterized by the SoftwareRasterizer at the full game size.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class RenderBenchmark {
+
+    @Param({"1", "10", "100"})
+    public int waves;
+
+    private GameEngine mEngine;
+
+    private final FieldRenderer mRenderer = new FieldRenderer();
+
+    private final SoftwareRasterizer mRaster =
+            new SoftwareRasterizer(BenchmarkGames.WIDTH, BenchmarkGames.HEIGHT);
+
+    @Setup
+    public void setUp() {
+        mEngine = BenchmarkGames.createGame(waves);
+    }
+
+    @Benchmark
+    public SoftwareRasterizer drawFrame() {
+        float centerX = BenchmarkGames.WIDTH / 2f;
+        float centerY = BenchmarkGames.HEIGHT / 2f;
+
+        mRaster.clear(0);
+        mRenderer.drawBorder(mRaster, centerX, centerY);
+        mRenderer.drawWaves(mRaster, mEngine, centerX, centerY);
+        return mRaster;
+    }
+}
@@ -0,0 +1,38 @@
+package com.superuptest.benchmark;
+
+import com.superuptest.engine.GameEngine;
+import com.superuptest.engine.WaveShape;
+import com.superuptest.engine.WaveShapeGenerator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the creation of a wave: the number of holes, the hole angels
+ * and the hole sizes with their Random calls, new and reset as the WavePool does.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class WaveCreationBenchmark {
+
+    private final WaveShapeGenerator mGenerator = new WaveShapeGenerator(GameEngine.WAVE_STROKE_WIDTH);
+
+    private final WaveShape mShape = new WaveShape(GameEngine.WAVE_STROKE_WIDTH, WaveShapeGenerator.MAX_HOLES);
+
+    @Benchmark
+    public WaveShape generate() {
+        return mGenerator.generate();
+    }
+
+    @Benchmark
+    public WaveShape reset() {
+        return mGenerator.generate(mShape);
+    }
+}
@@ -0,0 +1,229 @@
+package com.superuptest.engine;
+
+/**
+ * This class answers the question "is (x,y) on a wall?" by geometry only,
+ * it is the default HitTester of the GameEngine.
+ *
+ * It knows the game border ring and the WaveShape of every live wave,
+ * all the waves and the border share the same centre.
+ * No bitmap is allocated and no pixel is read.
+ *
+ * The waves grow at the same speed, so a newer wave is never bigger than an older one.
+ * The waves are kept in spawn order, which is also descending radius order,
+ * so the distance of a point from the centre finds the only waves it can touch
+ * by binary search, and only these waves check their holes.
+ */
+
+public class CollisionEngine implements HitTester {
+
+    /**
+     * X coordinate of the centre of the game.
+     * */
+    private float mCenterX = 0;
+
+    /**
+     * Y coordinate of the centre of the game.
+     * */
+    private float mCenterY = 0;
+
+    /**
+     * Radius of the border ring, measured to the middle of the stroke.
+     * */
+    private float mBorderRadius = 0;
+
+    /**
+     * Half of the border stroke width.
+     * */
+    private float mBorderHalfStroke = 0;
+
+    /**
+     * Shapes of all the live waves from the biggest radius, a ring array
+     * with a power of two length so the oldest wave is removed without shifting.
+     * */
+    private WaveShape[] mWaves = new WaveShape[16];
+
+    /**
+     * Index in mWaves of the oldest wave.
+     * */
+    private int mHead = 0;
+
+    /**
+     * Count of the live waves.
+     * */
+    private int mWaveCount = 0;
+
+    /**
+     * Half of the widest wave stroke, a point can touch only the waves
+     * that are this close to its distance from the centre.
+     * */
+    private float mMaxHalfStroke = 0;
+
+    /**
+     * Setter for the centre of the game.
+     * @param x X coordinate of the centre.
+     * @param y Y coordinate of the centre.
+     * */
+    public void setCenter(float x, float y) {
+        this.mCenterX = x;
+        this.mCenterY = y;
+    }
+
+    /**
+     * Setter for the border ring.
+     * @param radius The radius of the border to the middle of the stroke.
+     * @param strokeWidth The stroke width of the border.
+     * */
+    public void setBorder(float radius, float strokeWidth) {
+        this.mBorderRadius = radius;
+        this.mBorderHalfStroke = strokeWidth / 2;
+    }
+
+    /**
+     * Add a wave to be checked, the wave must not be bigger than any live wave,
+     * which is true for a new wave.
+     * @param wave The WaveShape of the live wave.
+     * */
+    public void addWave(WaveShape wave) {
+
+        if (mWaveCount == mWaves.length){
+            grow();
+        }
+
+        mWaves[(mHead + mWaveCount) & (mWaves.length - 1)] = wave;
+        mWaveCount++;
+        mMaxHalfStroke = Math.max(mMaxHalfStroke, wave.getStrokeWidth() / 2);
+    }
+
+    /**
+     * Remove a wave that should not be checked any more.
+     * @param wave The WaveShape of the removed wave.
+     * */
+    public void removeWave(WaveShape wave) {
+
+        if (mWaveCount == 0){
+            return;
+        }
+
+        //the oldest wave reaches the border first
+        if (mWaves[mHead] == wave){
+            mWaves[mHead] = null;
+            mHead = (mHead + 1) & (mWaves.length - 1);
+            mWaveCount--;
+            return;
+        }
+
+        for (int i = 1; i < mWaveCount; i++) {
+            if (getWave(i) == wave){
+
+                //keep the order, move the newer waves back by one
+                for (int j = i; j < mWaveCount - 1; j++) {
+                    mWaves[(mHead + j) & (mWaves.length - 1)] = getWave(j + 1);
+                }
+
+                mWaves[(mHead + mWaveCount - 1) & (mWaves.length - 1)] = null;
+                mWaveCount--;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Getter for the number of live waves.
+     * @return The number of waves that are checked.
+     * */
+    public int getWaveCount() {
+        return mWaveCount;
+    }
+
+    /**
+     * Return a live wave.
+     * @param index The index of the wave, 0 is the oldest and biggest wave.
+     * @return The WaveShape of the wave.
+     * */
+    private WaveShape getWave(int index) {
+        return mWaves[(mHead + index) & (mWaves.length - 1)];
+    }
+
+    /**
+     * Double the ring array, the oldest wave moves to index 0.
+     * */
+    private void grow() {
+        WaveShape[] waves = new WaveShape[mWaves.length * 2];
+
+        for (int i = 0; i < mWaveCount; i++) {
+            waves[i] = getWave(i);
+        }
+
+        mWaves = waves;
+        mHead = 0;
+    }
+
+    /**
+     * Check if a point touches the border or one of the waves.
+     * @param x X coordinate of the point.
+     * @param y Y coordinate of the point.
+     * @return true if the point is on a wall.
+     * */
+    @Override
+    public boolean isOnWall(float x, float y) {
+        float dx = x - mCenterX;
+        float dy = y - mCenterY;
+
+        if (isOnBorder(dx, dy)){
+            return true;
+        }
+
+        if (mWaveCount == 0){
+            return false;
+        }
+
+        float dist = (float) Math.sqrt(dx * dx + dy * dy);
+
+        //find the oldest wave that is not too big to touch the point
+        int low = 0;
+        int high = mWaveCount;
+        while (low < high){
+            int middle = (low + high) >>> 1;
+
+            if (getWave(middle).getRadius() > dist + mMaxHalfStroke){
+                low = middle + 1;
+            }else {
+                high = middle;
+            }
+        }
+
+        //check the waves until they are too small, usually one wave or none
+        for (int i = low; i < mWaveCount; i++) {
+            WaveShape wave = getWave(i);
+
+            if (wave.getRadius() < dist - mMaxHalfStroke){
+                break;
+            }
+
+            if (wave.isOnWall(dx, dy)){
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Check if a point is on the border ring.
+     * @param dx X coordinate of the point relative to the centre.
+     * @param dy Y coordinate of the point relative to the centre.
+     * @return true if the point is on the border.
+     * */
+    private boolean isOnBorder(float dx, float dy) {
+
+        if (mBorderRadius <= 0){
+            return false;
+        }
+
+        float distSq = dx * dx + dy * dy;
+        float inner = Math.max(0, mBorderRadius - mBorderHalfStroke);
+        float outer = mBorderRadius + mBorderHalfStroke;
+
+        return distSq >= inner * inner && distSq <= outer * outer;
+    }
+}
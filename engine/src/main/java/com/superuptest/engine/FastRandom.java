@@ -0,0 +1,64 @@
+package com.superuptest.engine;
+
+/**
+ * This class is a small seeded random number generator for the game thread.
+ *
+ * It is the SplitMix64 generator: a 64 bit counter mixed into every output,
+ * a few multiplies and shifts per number with no synchronisation, where java.util.Random
+ * pays an atomic compare-and-set on every call. The same seed gives the same numbers
+ * on every device. It is not thread safe.
+ */
+
+class FastRandom {
+
+    /**
+     * The step of the counter, the golden ratio in 64 bits.
+     * */
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    /**
+     * The counter.
+     * */
+    private long mState;
+
+    /**
+     * Constructor
+     * @param seed The seed, the same seed gives the same numbers.
+     * */
+    FastRandom(long seed) {
+        this.mState = seed;
+    }
+
+    /**
+     * Return the next random 64 bits.
+     * @return random long.
+     * */
+    long nextLong() {
+        long z = (mState += GOLDEN_GAMMA);
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Return a random number from 0 to bound - 1, every number has the same chance.
+     * The 32 random bits are scaled by a multiply instead of a division, the rare
+     * biased values are drawn again.
+     * @param bound The number of values, positive.
+     * @return random number from 0 to bound - 1.
+     * */
+    int nextInt(int bound) {
+        long product = (nextLong() >>> 32) * bound;
+
+        //the values below the threshold would be drawn once more than the others
+        if ((product & 0xFFFFFFFFL) < bound){
+            long threshold = (0x100000000L - bound) % bound;
+
+            while ((product & 0xFFFFFFFFL) < threshold){
+                product = (nextLong() >>> 32) * bound;
+            }
+        }
+
+        return (int) (product >>> 32);
+    }
+}
@@ -0,0 +1,269 @@
+package com.superuptest.engine;
+
+/**
+ * This class draws the game border and the waves on a RenderTarget.
+ *
+ * It is the drawing logic of every renderer, the views on the device and
+ * SoftwareRasterizer in the tests and the benchmarks: every wave is drawn as
+ * the arcs between its holes that WaveShape computes, the same geometry
+ * CollisionEngine checks. Nothing is allocated while drawing.
+ *
+ * The QualityGovernor may lower how the waves are drawn: coarse geometry draws a wave
+ * with a whole pixel radius and its arcs grown out to whole degrees, and a cap draws
+ * only the newest waves. The coarse arcs of a wave are kept and drawn again while its
+ * rounded radius does not change, a wave grows about a pixel per frame at 60 Hz and less
+ * at higher rates, so the arcs are computed about every second frame or less, and the
+ * arcs drawn again have the same radius and angles as the frame before, which a Canvas that
+ * caches its arc shapes draws from its cache. The ends of a kept arc may be up to a pixel
+ * shorter than the exact ones. Only the drawing changes, the waves are checked with their
+ * exact geometry.
+ */
+
+public class FieldRenderer {
+
+    /**
+     * The logging tag of this Class.
+     * */
+    private static final String TAG = "FieldRenderer";
+
+    /**
+     * The number of waves whose coarse arcs are kept, more than the live waves of a game.
+     * */
+    private static final int CACHED_WAVES = 8;
+
+    /**
+     * Start of every arc of the wave being drawn.
+     * */
+    private final float[] mArcStart = new float[WaveShapeGenerator.MAX_HOLES];
+
+    /**
+     * Sweep of every arc of the wave being drawn.
+     * */
+    private final float[] mArcSweep = new float[WaveShapeGenerator.MAX_HOLES];
+
+    /**
+     * The shape of every kept wave, null for a free slot.
+     * */
+    private final WaveShape[] mCachedShapes = new WaveShape[CACHED_WAVES];
+
+    /**
+     * The holes version of every kept wave.
+     * */
+    private final int[] mCachedHoles = new int[CACHED_WAVES];
+
+    /**
+     * The rounded radius of every kept wave.
+     * */
+    private final float[] mCachedRadius = new float[CACHED_WAVES];
+
+    /**
+     * The number of coarse arcs of every kept wave.
+     * */
+    private final int[] mCachedArcCount = new int[CACHED_WAVES];
+
+    /**
+     * Start of every coarse arc of every kept wave.
+     * */
+    private final float[][] mCachedStart = new float[CACHED_WAVES][WaveShapeGenerator.MAX_HOLES];
+
+    /**
+     * Sweep of every coarse arc of every kept wave.
+     * */
+    private final float[][] mCachedSweep = new float[CACHED_WAVES][WaveShapeGenerator.MAX_HOLES];
+
+    /**
+     * The slot of the next new kept wave, the slots are reused in turn.
+     * */
+    private int mNextCached = 0;
+
+    /**
+     * Count of the coarse waves drawn from their kept arcs.
+     * */
+    private long mReusedCount = 0;
+
+    /**
+     * Flag that tells if the waves are drawn with coarse geometry.
+     * */
+    private boolean isCoarse = false;
+
+    /**
+     * The number of the newest waves to draw.
+     * */
+    private int mMaxWaves = Integer.MAX_VALUE;
+
+    /**
+     * Setter for the coarse geometry, whole pixel radius and whole degree arcs.
+     * @param coarse true to draw coarse geometry.
+     * */
+    public void setCoarseGeometry(boolean coarse) {
+        this.isCoarse = coarse;
+    }
+
+    /**
+     * Setter for the cap of the drawn waves, the older waves are not drawn.
+     * @param maxWaves The number of the newest waves to draw, Integer.MAX_VALUE for every wave.
+     * */
+    public void setMaxWaves(int maxWaves) {
+        this.mMaxWaves = maxWaves;
+    }
+
+    /**
+     * Draw the border of the game, the border radius is the distance of the centre from the left edge.
+     * @param target The RenderTarget to draw on.
+     * @param centerX X coordinate of the centre.
+     * @param centerY Y coordinate of the centre.
+     * */
+    public void drawBorder(RenderTarget target, float centerX, float centerY) {
+        target.drawRing(centerX, centerY, centerX, GameEngine.BORDER_STROKE_WIDTH);
+    }
+
+    /**
+     * Draw one wave as the arcs between its holes.
+     * @param target The RenderTarget to draw on.
+     * @param shape The geometry of the wave.
+     * @param centerX X coordinate of the centre.
+     * @param centerY Y coordinate of the centre.
+     * */
+    public void drawWave(RenderTarget target, WaveShape shape, float centerX, float centerY) {
+
+        if (isCoarse){
+            drawCoarseWave(target, shape, centerX, centerY);
+            return;
+        }
+
+        int arcs = shape.getArcs(mArcStart, mArcSweep);
+
+        for (int i = 0; i < arcs; i++) {
+            target.drawArc(centerX, centerY, shape.getRadius(), mArcStart[i], mArcSweep[i],
+                    shape.getStrokeWidth());
+        }
+    }
+
+    /**
+     * Draw one wave with coarse geometry, from its kept arcs while its rounded radius
+     * did not change.
+     * */
+    private void drawCoarseWave(RenderTarget target, WaveShape shape, float centerX, float centerY) {
+        float radius = Math.round(shape.getRadius());
+        int slot = getCachedSlot(shape);
+
+        if (mCachedRadius[slot] == radius && mCachedHoles[slot] == shape.getHolesVersion()){
+            mReusedCount++;
+        }else {
+            float[] start = mCachedStart[slot];
+            float[] sweep = mCachedSweep[slot];
+            int arcs = shape.getArcs(start, sweep);
+
+            for (int i = 0; i < arcs; i++) {
+                coarseArc(start, sweep, i);
+            }
+
+            mCachedArcCount[slot] = arcs;
+            mCachedRadius[slot] = radius;
+            mCachedHoles[slot] = shape.getHolesVersion();
+        }
+
+        for (int i = 0; i < mCachedArcCount[slot]; i++) {
+            target.drawArc(centerX, centerY, radius, mCachedStart[slot][i], mCachedSweep[slot][i],
+                    shape.getStrokeWidth());
+        }
+    }
+
+    /**
+     * Get the slot of the kept arcs of a wave, a new wave takes the next slot in turn.
+     * @param shape The geometry of the wave.
+     * @return The index of the slot.
+     * */
+    private int getCachedSlot(WaveShape shape) {
+
+        for (int i = 0; i < CACHED_WAVES; i++) {
+            if (mCachedShapes[i] == shape){
+                return i;
+            }
+        }
+
+        int slot = mNextCached;
+        mNextCached = (mNextCached + 1) % CACHED_WAVES;
+
+        //a radius that is never drawn, the arcs are computed on the first draw
+        mCachedShapes[slot] = shape;
+        mCachedRadius[slot] = -1;
+        return slot;
+    }
+
+    /**
+     * Getter for the count of the coarse waves drawn from their kept arcs.
+     * @return The count of the reused waves.
+     * */
+    public long getReusedCount() {
+        return mReusedCount;
+    }
+
+    /**
+     * Draw every live wave of a GameEngine.
+     * @param target The RenderTarget to draw on.
+     * @param engine The GameEngine that holds the waves.
+     * @param centerX X coordinate of the centre.
+     * @param centerY Y coordinate of the centre.
+     * */
+    public void drawWaves(RenderTarget target, GameEngine engine, float centerX, float centerY) {
+
+        //the waves are oldest first
+        for (int i = firstDrawnWave(engine.getWaveCount()); i < engine.getWaveCount(); i++) {
+            drawWave(target, engine.getWave(i).getShape(), centerX, centerY);
+        }
+    }
+
+    /**
+     * Draw every wave of a WorldSnapshot, the arcs are already computed.
+     * @param target The RenderTarget to draw on.
+     * @param snapshot The snapshot of the game.
+     * @param centerX X coordinate of the centre.
+     * @param centerY Y coordinate of the centre.
+     * */
+    public void drawSnapshot(RenderTarget target, WorldSnapshot snapshot, float centerX, float centerY) {
+
+        for (int i = firstDrawnWave(snapshot.getWaveCount()); i < snapshot.getWaveCount(); i++) {
+            float radius = isCoarse ? Math.round(snapshot.getRadius(i)) : snapshot.getRadius(i);
+
+            //the arcs come computed from the simulation thread, coarse arcs are only rounded
+            for (int j = 0; j < snapshot.getArcCount(i); j++) {
+                mArcStart[0] = snapshot.getArcStart(i, j);
+                mArcSweep[0] = snapshot.getArcSweep(i, j);
+
+                if (isCoarse){
+                    coarseArc(mArcStart, mArcSweep, 0);
+                }
+
+                target.drawArc(centerX, centerY, radius, mArcStart[0], mArcSweep[0],
+                        GameEngine.WAVE_STROKE_WIDTH);
+            }
+        }
+    }
+
+    /**
+     * Get the index of the first drawn wave, the older waves are over the cap.
+     * @param waveCount The number of live waves, oldest first.
+     * @return The index of the oldest drawn wave.
+     * */
+    private int firstDrawnWave(int waveCount) {
+        return Math.max(0, waveCount - mMaxWaves);
+    }
+
+    /**
+     * Grow an arc out to whole degrees, a full ring stays as it is.
+     * @param start The starts of the arcs.
+     * @param sweep The sweeps of the arcs.
+     * @param index The index of the arc.
+     * */
+    private static void coarseArc(float[] start, float[] sweep, int index) {
+
+        if (sweep[index] >= 360){
+            return;
+        }
+
+        float from = (float) Math.floor(start[index]);
+        sweep[index] = (float) Math.ceil(start[index] + sweep[index]) - from;
+        start[index] = from;
+    }
+}
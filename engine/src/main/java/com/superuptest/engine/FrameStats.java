@@ -0,0 +1,210 @@
+package com.superuptest.engine;
+
+/**
+ * This class records the frame timings of a game session in fixed histograms.
+ *
+ * Draw time - time spent in onDraw() of the game views, summed per frame.
+ * Layout time - measure and layout time of every frame, when the platform reports it.
+ * Hit check time - time of every collision check of the touch position.
+ * Frame interval - time between two frames, a frame that took more than one vsync
+ * period dropped the frames in between.
+ *
+ * Nothing is allocated while recording, so measuring does not change the numbers.
+ */
+
+public class FrameStats {
+
+    /**
+     * Default vsync period in nanoseconds, 60 frames per second.
+     * */
+    public static final long DEFAULT_VSYNC_PERIOD = 1000000000L / 60;
+
+    /**
+     * Draw time of every frame in nanoseconds.
+     * */
+    private final Histogram mDrawTimes = new Histogram();
+
+    /**
+     * Layout time of every frame in nanoseconds.
+     * */
+    private final Histogram mLayoutTimes = new Histogram();
+
+    /**
+     * Time of every hit check in nanoseconds.
+     * */
+    private final Histogram mHitCheckTimes = new Histogram();
+
+    /**
+     * Time between two frames in nanoseconds.
+     * */
+    private final Histogram mFrameIntervals = new Histogram();
+
+    /**
+     * Number of dropped frames before every frame.
+     * */
+    private final Histogram mDroppedFrames = new Histogram();
+
+    /**
+     * The vsync period of the display in nanoseconds.
+     * */
+    private long mVsyncPeriod = DEFAULT_VSYNC_PERIOD;
+
+    /**
+     * Draw time of the current frame, recorded when the frame ends.
+     * */
+    private long mFrameDrawTime = 0;
+
+    /**
+     * Count of all the dropped frames.
+     * */
+    private long mDroppedFrameCount = 0;
+
+    /**
+     * Setter for the vsync period of the display, the period of the refresh rate in effect,
+     * not of a requested rate, set it again when the display changes its rate.
+     * @param vsyncPeriodNanos The vsync period in nanoseconds.
+     * */
+    public void setVsyncPeriod(long vsyncPeriodNanos) {
+        this.mVsyncPeriod = vsyncPeriodNanos;
+    }
+
+    /**
+     * Add draw time to the current frame, a frame may be drawn by a few views.
+     * @param nanos The draw time in nanoseconds.
+     * */
+    public void recordDraw(long nanos) {
+        mFrameDrawTime += nanos;
+    }
+
+    /**
+     * Record the layout time of a frame.
+     * @param nanos The layout time in nanoseconds.
+     * */
+    public void recordLayout(long nanos) {
+        mLayoutTimes.record(nanos);
+    }
+
+    /**
+     * Record the time of a hit check.
+     * @param nanos The hit check time in nanoseconds.
+     * */
+    public void recordHitCheck(long nanos) {
+        mHitCheckTimes.record(nanos);
+    }
+
+    /**
+     * End the current frame, record its draw time and the time since the last frame.
+     * @param intervalNanos The time since the last frame in nanoseconds.
+     * */
+    public void recordFrame(long intervalNanos) {
+
+        if (mFrameDrawTime > 0){
+            mDrawTimes.record(mFrameDrawTime);
+            mFrameDrawTime = 0;
+        }
+
+        mFrameIntervals.record(intervalNanos);
+
+        //a frame that came half a period late or more missed a vsync
+        long dropped = (intervalNanos + mVsyncPeriod / 2) / mVsyncPeriod - 1;
+        if (dropped < 0){
+            dropped = 0;
+        }
+
+        mDroppedFrames.record(dropped);
+        mDroppedFrameCount += dropped;
+    }
+
+    /**
+     * Remove all the recorded values.
+     * */
+    public void reset() {
+        mDrawTimes.reset();
+        mLayoutTimes.reset();
+        mHitCheckTimes.reset();
+        mFrameIntervals.reset();
+        mDroppedFrames.reset();
+        mFrameDrawTime = 0;
+        mDroppedFrameCount = 0;
+    }
+
+    /**
+     * Getter for the draw time of every frame.
+     * @return Histogram of the draw time of every frame.
+     * */
+    public Histogram getDrawTimes() {
+        return mDrawTimes;
+    }
+
+    /**
+     * Getter for the layout time of every frame.
+     * @return Histogram of the layout time of every frame.
+     * */
+    public Histogram getLayoutTimes() {
+        return mLayoutTimes;
+    }
+
+    /**
+     * Getter for the time of every hit check.
+     * @return Histogram of the time of every hit check.
+     * */
+    public Histogram getHitCheckTimes() {
+        return mHitCheckTimes;
+    }
+
+    /**
+     * Getter for the time between two frames.
+     * @return Histogram of the time between two frames.
+     * */
+    public Histogram getFrameIntervals() {
+        return mFrameIntervals;
+    }
+
+    /**
+     * Getter for the number of dropped frames before every frame.
+     * @return Histogram of the number of dropped frames before every frame.
+     * */
+    public Histogram getDroppedFrames() {
+        return mDroppedFrames;
+    }
+
+    /**
+     * Getter for the count of all the dropped frames.
+     * @return The count of all the dropped frames.
+     * */
+    public long getDroppedFrameCount() {
+        return mDroppedFrameCount;
+    }
+
+    /**
+     * Append the p50/p95/p99/max of every histogram, one line each.
+     * The times are in microseconds.
+     * @param out The StringBuilder to append to, reuse it to keep the dump allocation free.
+     * */
+    public void dump(StringBuilder out) {
+        dumpTimes(out, "draw", mDrawTimes);
+        dumpTimes(out, "layout", mLayoutTimes);
+        dumpTimes(out, "hit check", mHitCheckTimes);
+        dumpTimes(out, "frame", mFrameIntervals);
+
+        out.append("dropped frames ").append(mDroppedFrameCount)
+                .append(" of ").append(mFrameIntervals.getCount())
+                .append(" p50=").append(mDroppedFrames.getPercentile(50))
+                .append(" p95=").append(mDroppedFrames.getPercentile(95))
+                .append(" p99=").append(mDroppedFrames.getPercentile(99))
+                .append(" max=").append(mDroppedFrames.getMax())
+                .append('\n');
+    }
+
+    /**
+     * Append one line of percentiles of a time histogram.
+     * */
+    private static void dumpTimes(StringBuilder out, String name, Histogram histogram) {
+        out.append(name).append(" us n=").append(histogram.getCount())
+                .append(" p50=").append(histogram.getPercentile(50) / 1000)
+                .append(" p95=").append(histogram.getPercentile(95) / 1000)
+                .append(" p99=").append(histogram.getPercentile(99) / 1000)
+                .append(" max=").append(histogram.getMax() / 1000)
+                .append('\n');
+    }
+}
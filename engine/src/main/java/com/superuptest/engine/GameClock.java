@@ -0,0 +1,413 @@
+package com.superuptest.engine;
+
+import java.util.Arrays;
+
+/**
+ * This class holds the game time and runs the timed events of the game.
+ *
+ * The clock never reads the system time, it only moves when advanceTo() is called,
+ * so the same clock is the real game on a device and virtual time in a test
+ * that plays a long session at once.
+ *
+ * The one-shot and periodic ClockTasks are kept in a binary heap ordered by due time,
+ * tasks with the same due time run in the order they were scheduled.
+ * A periodic task runs once for every period that passed, so a long advance
+ * does not skip events. Nothing is allocated after the heap has grown to the number of tasks.
+ *
+ * toGameNanos() converts real elapsed time to game time, it returns 0 while the clock
+ * is paused and scales the time by the time scale.
+ */
+
+public class GameClock {
+
+    /**
+     * The logging tag of this Class.
+     * */
+    private static final String TAG = "GameClock";
+
+    /**
+     * The first size of the heap arrays.
+     * */
+    private static final int INITIAL_CAPACITY = 4;
+
+    /**
+     * Interface of a timed event.
+     * */
+    public interface ClockTask {
+
+        /**
+         * Called when the clock reached the due time of the task.
+         * @param time The due time of the task in nanoseconds, the clock time while it runs.
+         * */
+        void onTime(long time);
+    }
+
+    /**
+     * The scheduled tasks, a binary heap of the first mSize entries.
+     * */
+    private ClockTask[] mTasks = new ClockTask[INITIAL_CAPACITY];
+
+    /**
+     * The due time of every task, same order as mTasks.
+     * */
+    private long[] mDue = new long[INITIAL_CAPACITY];
+
+    /**
+     * The period of every task, 0 for a one-shot task.
+     * */
+    private long[] mPeriod = new long[INITIAL_CAPACITY];
+
+    /**
+     * The schedule order of every task, breaks the ties of the due time.
+     * */
+    private long[] mOrder = new long[INITIAL_CAPACITY];
+
+    /**
+     * The number of scheduled tasks.
+     * */
+    private int mSize = 0;
+
+    /**
+     * The schedule order of the next scheduled task.
+     * */
+    private long mNextOrder = 0;
+
+    /**
+     * The game time in nanoseconds.
+     * */
+    private long mTime = 0;
+
+    /**
+     * Flag that tells if the clock is paused.
+     * */
+    private boolean isPaused = false;
+
+    /**
+     * Game time per real time, 1 is real time.
+     * */
+    private double mTimeScale = 1;
+
+    /**
+     * Scaled time less than one nanosecond, kept for the next toGameNanos() call.
+     * */
+    private double mRemainder = 0;
+
+    /**
+     * Schedule a one-shot task, a scheduled task is moved to the new time.
+     * @param task The task.
+     * @param time The game time in nanoseconds to run the task at.
+     * */
+    public void schedule(ClockTask task, long time) {
+        schedule(task, time, 0);
+    }
+
+    /**
+     * Schedule a task, a scheduled task is moved to the new time and period.
+     * @param task The task.
+     * @param time The game time in nanoseconds of the first run.
+     * @param periodNanos The time between two runs, 0 for a one-shot task.
+     * */
+    public void schedule(ClockTask task, long time, long periodNanos) {
+
+        if (periodNanos < 0){
+            throw new IllegalArgumentException("negative period " + periodNanos);
+        }
+
+        int index = indexOf(task);
+        if (index < 0){
+            ensureCapacity();
+            index = mSize++;
+            mTasks[index] = task;
+        }
+
+        mDue[index] = time;
+        mPeriod[index] = periodNanos;
+        mOrder[index] = mNextOrder++;
+
+        //the new due time may be earlier or later than before
+        siftDown(siftUp(index));
+    }
+
+    /**
+     * Cancel a scheduled task, nothing happens if it is not scheduled.
+     * @param task The task.
+     * */
+    public void cancel(ClockTask task) {
+        int index = indexOf(task);
+
+        if (index >= 0){
+            removeAt(index);
+        }
+    }
+
+    /**
+     * Check if a task is scheduled.
+     * @param task The task.
+     * @return true if the task will run.
+     * */
+    public boolean isScheduled(ClockTask task) {
+        return indexOf(task) >= 0;
+    }
+
+    /**
+     * Getter for the next due time of a task.
+     * @param task A scheduled task.
+     * @return The game time in nanoseconds of the next run.
+     * */
+    public long getDueTime(ClockTask task) {
+        int index = indexOf(task);
+
+        if (index < 0){
+            throw new IllegalStateException("the task is not scheduled");
+        }
+
+        return mDue[index];
+    }
+
+    /**
+     * Move the game time forward and run every task that is due on the way, in due time order.
+     * The clock time is the due time of the task while it runs.
+     * @param time The new game time in nanoseconds.
+     * */
+    public void advanceTo(long time) {
+
+        if (time < mTime){
+            throw new IllegalArgumentException("the clock can not go back from " + mTime + " to " + time);
+        }
+
+        while (mSize > 0 && mDue[0] <= time){
+            ClockTask task = mTasks[0];
+            long due = mDue[0];
+
+            //a task scheduled in the past runs now
+            mTime = Math.max(mTime, due);
+
+            //update the heap first, the task may schedule or cancel itself
+            if (mPeriod[0] > 0){
+                mDue[0] = due + mPeriod[0];
+                mOrder[0] = mNextOrder++;
+                siftDown(0);
+            }else {
+                removeAt(0);
+            }
+
+            task.onTime(due);
+        }
+
+        mTime = time;
+    }
+
+    /**
+     * Getter for the game time.
+     * @return The game time in nanoseconds.
+     * */
+    public long getTime() {
+        return mTime;
+    }
+
+    /**
+     * Convert real elapsed time to game time, the part of a nanosecond left
+     * by the time scale is kept for the next call.
+     * @param realNanos The real time that passed since the last call.
+     * @return The game time to simulate, 0 while the clock is paused.
+     * */
+    public long toGameNanos(long realNanos) {
+
+        if (isPaused){
+            return 0;
+        }
+
+        if (mTimeScale == 1){
+            return realNanos;
+        }
+
+        double scaled = realNanos * mTimeScale + mRemainder;
+        long whole = (long) scaled;
+        mRemainder = scaled - whole;
+        return whole;
+    }
+
+    /**
+     * Scale a real time span to game time, without the kept remainder of toGameNanos().
+     * @param realNanos The real time span.
+     * @return The game time span, 0 while the clock is paused.
+     * */
+    public long scale(long realNanos) {
+
+        if (isPaused){
+            return 0;
+        }
+
+        return mTimeScale == 1 ? realNanos : (long) (realNanos * mTimeScale);
+    }
+
+    /**
+     * Pause the clock, the game time stops until resume() is called.
+     * */
+    public void pause() {
+        isPaused = true;
+    }
+
+    /**
+     * Resume the clock after pause().
+     * */
+    public void resume() {
+        isPaused = false;
+    }
+
+    /**
+     * Check if the clock is paused.
+     * @return true if the clock is paused.
+     * */
+    public boolean isPaused() {
+        return isPaused;
+    }
+
+    /**
+     * Setter for the time scale.
+     * @param timeScale Game time per real time, 1 is real time, 0.5 is slow motion.
+     * */
+    public void setTimeScale(double timeScale) {
+
+        if (timeScale < 0){
+            throw new IllegalArgumentException("negative time scale " + timeScale);
+        }
+
+        this.mTimeScale = timeScale;
+        this.mRemainder = 0;
+    }
+
+    /**
+     * Getter for the time scale.
+     * @return Game time per real time.
+     * */
+    public double getTimeScale() {
+        return mTimeScale;
+    }
+
+    /**
+     * Find the heap index of a task, there are only few tasks.
+     * @return The index, -1 if the task is not scheduled.
+     * */
+    private int indexOf(ClockTask task) {
+
+        for (int i = 0; i < mSize; i++) {
+            if (mTasks[i] == task){
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Remove the task at a heap index.
+     * */
+    private void removeAt(int index) {
+        mSize--;
+
+        if (index != mSize){
+            move(mSize, index);
+            siftDown(siftUp(index));
+        }
+
+        mTasks[mSize] = null;
+    }
+
+    /**
+     * Move an entry up the heap while it is due before its parent.
+     * @return The new index of the entry.
+     * */
+    private int siftUp(int index) {
+
+        while (index > 0){
+            int parent = (index - 1) / 2;
+
+            if (!isBefore(index, parent)){
+                break;
+            }
+
+            swap(index, parent);
+            index = parent;
+        }
+
+        return index;
+    }
+
+    /**
+     * Move an entry down the heap while a child is due before it.
+     * */
+    private void siftDown(int index) {
+
+        while (true){
+            int first = index;
+            int left = index * 2 + 1;
+            int right = left + 1;
+
+            if (left < mSize && isBefore(left, first)){
+                first = left;
+            }
+            if (right < mSize && isBefore(right, first)){
+                first = right;
+            }
+
+            if (first == index){
+                return;
+            }
+
+            swap(index, first);
+            index = first;
+        }
+    }
+
+    /**
+     * Compare two heap entries by due time, then by schedule order.
+     * @return true if the entry a runs before the entry b.
+     * */
+    private boolean isBefore(int a, int b) {
+        return mDue[a] < mDue[b] || (mDue[a] == mDue[b] && mOrder[a] < mOrder[b]);
+    }
+
+    /**
+     * Swap two heap entries.
+     * */
+    private void swap(int a, int b) {
+        ClockTask task = mTasks[a];
+        long due = mDue[a];
+        long period = mPeriod[a];
+        long order = mOrder[a];
+
+        move(b, a);
+
+        mTasks[b] = task;
+        mDue[b] = due;
+        mPeriod[b] = period;
+        mOrder[b] = order;
+    }
+
+    /**
+     * Copy a heap entry over another.
+     * */
+    private void move(int from, int to) {
+        mTasks[to] = mTasks[from];
+        mDue[to] = mDue[from];
+        mPeriod[to] = mPeriod[from];
+        mOrder[to] = mOrder[from];
+    }
+
+    /**
+     * Grow the heap arrays when they are full.
+     * */
+    private void ensureCapacity() {
+
+        if (mSize < mTasks.length){
+            return;
+        }
+
+        int capacity = mTasks.length * 2;
+        mTasks = Arrays.copyOf(mTasks, capacity);
+        mDue = Arrays.copyOf(mDue, capacity);
+        mPeriod = Arrays.copyOf(mPeriod, capacity);
+        mOrder = Arrays.copyOf(mOrder, capacity);
+    }
+}
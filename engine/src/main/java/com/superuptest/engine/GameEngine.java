@@ -0,0 +1,993 @@
+package com.superuptest.engine;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class holds all the logic of the game, without any Android class.
+ *
+ * The engine spawns a wave every pulse interval, grows every wave from the centre
+ * to the border over the wave duration, checks the touch position against the border
+ * and the waves, and counts a point for every wave that reached the border.
+ *
+ * The game time moves only by step(), so the same inputs always give the same game,
+ * advance() splits real elapsed time into fixed steps. The time is held by a GameClock
+ * that runs the pulses and the wave removals at their due times, and scales or pauses
+ * the real time given to advance().
+ *
+ * Every finger is tracked by its pointer id, the touch mode decides if one finger plays,
+ * every finger must survive or the fingers play together.
+ *
+ * In swept collision mode the finger is checked along its path, not only where it is
+ * at the step: every touch sample is queued with its game time, and every step checks
+ * the segments from the last checked position through the samples it reached,
+ * against the waves grown to the time of every sample.
+ */
+
+public class GameEngine {
+
+    /**
+     * The fixed step of the simulation in nanoseconds.
+     * */
+    public static final long STEP_NANOS = TimeUnit.MILLISECONDS.toNanos(4);
+
+    /**
+     * Default time between two waves in nanoseconds.
+     * */
+    public static final long PULSE_INTERVAL = TimeUnit.MILLISECONDS.toNanos(3000);
+
+    /**
+     * Default time it takes to a wave to reach the border in nanoseconds.
+     * */
+    public static final long WAVE_DURATION = TimeUnit.MILLISECONDS.toNanos(10000);
+
+    /**
+     * Stroke width of the waves.
+     * */
+    public static final int WAVE_STROKE_WIDTH = 15;
+
+    /**
+     * Stroke width of the border.
+     * */
+    public static final int BORDER_STROKE_WIDTH = 15;
+
+    /**
+     * Size of a new wave.
+     * */
+    public static final int WAVE_START_SIZE = 10;
+
+    /**
+     * Padding from the wave circle to the wave size.
+     * */
+    public static final int WAVE_PADDING = 10;
+
+    /**
+     * Touch mode where one finger plays, the game is over when it touches a wall
+     * or is lifted.
+     * */
+    public static final int TOUCH_SINGLE = 0;
+
+    /**
+     * Touch mode where every finger plays and every finger must survive,
+     * the game is over when any finger touches a wall or is lifted.
+     * */
+    public static final int TOUCH_ALL_FINGERS = 1;
+
+    /**
+     * Touch mode where every finger is a player, a finger that touches a wall is out,
+     * the game is over when no finger is left.
+     * */
+    public static final int TOUCH_COOP = 2;
+
+    /**
+     * Longest distance between two checked points of the finger path, half of the
+     * thinner stroke, so the path can not jump over a wall between two points.
+     * */
+    private static final float SWEEP_SPACING = Math.min(WAVE_STROKE_WIDTH, BORDER_STROKE_WIDTH) / 2f;
+
+    /**
+     * The maximum number of removed waves kept for reuse, more than the live waves
+     * of the shortest pulse interval.
+     * */
+    private static final int WAVE_POOL_SIZE = 8;
+
+    /**
+     * CollisionEngine instance, knows the border and all the live waves.
+     * */
+    private final CollisionEngine mCollisionEngine = new CollisionEngine();
+
+    /**
+     * HitTester that checks the finger positions, mCollisionEngine by default.
+     * */
+    private HitTester mHitTester = mCollisionEngine;
+
+    /**
+     * The type of mHitTester chosen by the app, recorded for the replay, 0 for mCollisionEngine.
+     * */
+    private int mHitTesterType = 0;
+
+    /**
+     * WavePool instance, reuses the removed waves and generate the holes of every new wave.
+     * */
+    private final WavePool mWavePool;
+
+    /**
+     * The seed of the holes of the waves.
+     * */
+    private final long mSeed;
+
+    /**
+     * All the live waves, the oldest wave first.
+     * */
+    private final ArrayList<Wave> mWaves = new ArrayList<>();
+
+    /**
+     * Interface instance used to send callbacks.
+     * */
+    private final GameEngineCallbacks mCallbacks;
+
+    /**
+     * Time between two waves in nanoseconds.
+     * */
+    private long mPulseInterval = PULSE_INTERVAL;
+
+    /**
+     * Time it takes to a wave to reach the border in nanoseconds.
+     * */
+    private long mWaveDuration = WAVE_DURATION;
+
+    /**
+     * GameClock instance, holds the game time and runs the pulses and the wave removals.
+     * */
+    private final GameClock mClock = new GameClock();
+
+    /**
+     * ClockTask that spawns a wave every pulse interval.
+     * */
+    private final GameClock.ClockTask mPulseTask = getPulseTask();
+
+    /**
+     * ClockTask that removes the oldest wave when it reaches the border.
+     * */
+    private final GameClock.ClockTask mRemoveTask = getRemoveTask();
+
+    /**
+     * Elapsed time that was not simulated yet by advance(), less than one step.
+     * */
+    private long mAccumulator = 0;
+
+    /**
+     * The game time the waves were grown to last.
+     * */
+    private long mWaveTime = 0;
+
+    /**
+     * Count of the frames, the calls of advance().
+     * */
+    private long mFrameCount = 0;
+
+    /**
+     * Size of the biggest wave, the wave reaches the border at this size.
+     * */
+    private int mMaxSize = 0;
+
+    /**
+     * Height of the game.
+     * */
+    private int mHeight = 0;
+
+    /**
+     * TouchTracker instance, holds every finger that is down by pointer id.
+     * */
+    private final TouchTracker mTouches = new TouchTracker();
+
+    /**
+     * SessionRecorder that records the inputs, null when not recorded.
+     * */
+    private SessionRecorder mRecorder;
+
+    /**
+     * The touch mode, TOUCH_SINGLE, TOUCH_ALL_FINGERS or TOUCH_COOP.
+     * */
+    private int mTouchMode = TOUCH_SINGLE;
+
+    /**
+     * Flag that tells if the user touched the screen, points are counted only after that.
+     * */
+    private boolean isStarted = false;
+
+    /**
+     * Flag that tells if the game is over.
+     * */
+    private boolean isOver = false;
+
+    /**
+     * Count of points - how much waves got outside of the border.
+     * */
+    private int mScore = 0;
+
+    /**
+     * FrameStats that records the hit check times, null when not measured.
+     * */
+    private FrameStats mFrameStats;
+
+    /**
+     * Flag that tells if the finger is checked along its path.
+     * */
+    private boolean isSwept = false;
+
+    /**
+     * LatencyTracer that traces the samples to their checks, null when not traced.
+     * */
+    private LatencyTracer mTracer;
+
+
+    /**
+     * Interface to send callbacks to the renderer.
+     * */
+    public interface GameEngineCallbacks {
+
+        /**
+         * Called when a new wave was spawned.
+         * @param wave The new wave.
+         * */
+        void onWaveSpawned(Wave wave);
+
+        /**
+         * Called when a wave reached the border, the wave is already removed.
+         * @param wave The removed wave.
+         * */
+        void onWaveRemoved(Wave wave);
+
+        /**
+         * Called when the score changed.
+         * @param score The new score.
+         * */
+        void onScoreChanged(int score);
+
+        /**
+         * Called once when the game is over.
+         * */
+        void onGameOver();
+    }
+
+    /**
+     * Constructor
+     * @param callbacks Listener of the game events.
+     * */
+    public GameEngine(GameEngineCallbacks callbacks) {
+        this(callbacks, System.nanoTime());
+    }
+
+    /**
+     * Constructor
+     * @param callbacks Listener of the game events.
+     * @param seed The seed of the holes, the same seed and the same inputs give the same game.
+     * */
+    public GameEngine(GameEngineCallbacks callbacks, long seed) {
+        this.mCallbacks = callbacks;
+        this.mSeed = seed;
+        this.mWavePool = new WavePool(new WaveShapeGenerator(WAVE_STROKE_WIDTH, seed),
+                WAVE_STROKE_WIDTH, WAVE_POOL_SIZE);
+
+        mClock.schedule(mPulseTask, PULSE_INTERVAL, PULSE_INTERVAL);
+    }
+
+    /**
+     * Setter for the SessionRecorder, the seed and the settings are recorded at once
+     * and every input after them, with the game time it was applied at.
+     * Set it before the first step, the game is replayed from the start.
+     * @param recorder The SessionRecorder, it is not closed by the engine.
+     * */
+    public void setRecorder(SessionRecorder recorder) {
+        this.mRecorder = recorder;
+
+        recorder.writeHeader(mSeed);
+        recorder.recordConfig(getTime(), SessionRecorder.CONFIG_PULSE_INTERVAL, mPulseInterval);
+        recorder.recordConfig(getTime(), SessionRecorder.CONFIG_WAVE_DURATION, mWaveDuration);
+        recorder.recordConfig(getTime(), SessionRecorder.CONFIG_TOUCH_MODE, mTouchMode);
+        recorder.recordConfig(getTime(), SessionRecorder.CONFIG_SWEPT, isSwept ? 1 : 0);
+        recorder.recordConfig(getTime(), SessionRecorder.CONFIG_HIT_TESTER, mHitTesterType);
+
+        if (mMaxSize > 0){
+            recorder.recordSize(getTime(), mMaxSize, mHeight);
+        }
+    }
+
+    /**
+     * Setter for the game size, the border and the waves are centred in it.
+     * @param width The width of the game, the border diameter.
+     * @param height The height of the game.
+     * */
+    public void setSize(int width, int height) {
+
+        if (mRecorder != null){
+            mRecorder.recordSize(getTime(), width, height);
+        }
+
+        mMaxSize = width;
+        mHeight = height;
+        mCollisionEngine.setCenter(width / 2, height / 2);
+        mCollisionEngine.setBorder(width / 2, BORDER_STROKE_WIDTH);
+    }
+
+    /**
+     * Setter for the time between two waves.
+     * @param intervalNanos The interval in nanoseconds.
+     * */
+    public void setPulseInterval(long intervalNanos) {
+
+        if (mRecorder != null){
+            mRecorder.recordConfig(getTime(), SessionRecorder.CONFIG_PULSE_INTERVAL, intervalNanos);
+        }
+
+        //the next wave comes the new interval after the last wave
+        long nextPulse = mClock.getDueTime(mPulseTask) + intervalNanos - mPulseInterval;
+        mClock.schedule(mPulseTask, nextPulse, intervalNanos);
+        this.mPulseInterval = intervalNanos;
+    }
+
+    /**
+     * Setter for the time it takes to a wave to reach the border.
+     * @param durationNanos The duration in nanoseconds.
+     * */
+    public void setWaveDuration(long durationNanos) {
+
+        if (mRecorder != null){
+            mRecorder.recordConfig(getTime(), SessionRecorder.CONFIG_WAVE_DURATION, durationNanos);
+        }
+
+        this.mWaveDuration = durationNanos;
+        scheduleRemoval();
+    }
+
+    /**
+     * Setter for the HitTester that checks the finger positions, the type is recorded
+     * so the replay checks the fingers with the same kind of tester.
+     * @param hitTester The HitTester, null for the geometric CollisionEngine.
+     * @param type The type of the tester, chosen by the app, 0 for the geometric CollisionEngine.
+     * */
+    public void setHitTester(HitTester hitTester, int type) {
+
+        if (mRecorder != null){
+            mRecorder.recordConfig(getTime(), SessionRecorder.CONFIG_HIT_TESTER, type);
+        }
+
+        this.mHitTester = hitTester != null ? hitTester : mCollisionEngine;
+        this.mHitTesterType = type;
+    }
+
+    /**
+     * Getter for the geometric HitTester, the default HitTester.
+     * @return The CollisionEngine of the game.
+     * */
+    public HitTester getGeometricHitTester() {
+        return mCollisionEngine;
+    }
+
+    /**
+     * Setter for the LatencyTracer, the feeder of the inputs calls LatencyTracer.onInput()
+     * with the event time of every input before it gives the input to the engine.
+     * @param tracer The LatencyTracer, null to stop tracing.
+     * */
+    public void setLatencyTracer(LatencyTracer tracer) {
+        this.mTracer = tracer;
+    }
+
+    /**
+     * Setter for the FrameStats that records the time of every hit check.
+     * @param frameStats The FrameStats, null to stop measuring.
+     * */
+    public void setFrameStats(FrameStats frameStats) {
+        this.mFrameStats = frameStats;
+    }
+
+    /**
+     * Setter for the swept collision mode.
+     * @param swept true to check the finger along the path of its touch samples.
+     * */
+    public void setSweptCollision(boolean swept) {
+
+        if (mRecorder != null){
+            mRecorder.recordConfig(getTime(), SessionRecorder.CONFIG_SWEPT, swept ? 1 : 0);
+        }
+
+        this.isSwept = swept;
+    }
+
+    /**
+     * Setter for the touch mode.
+     * @param touchMode TOUCH_SINGLE, TOUCH_ALL_FINGERS or TOUCH_COOP.
+     * */
+    public void setTouchMode(int touchMode) {
+
+        if (mRecorder != null){
+            mRecorder.recordConfig(getTime(), SessionRecorder.CONFIG_TOUCH_MODE, touchMode);
+        }
+
+        this.mTouchMode = touchMode;
+    }
+
+    /**
+     * Simulate real elapsed time in fixed steps, the time left is kept for the next call.
+     * The real time is scaled by the GameClock, nothing is simulated while it is paused.
+     * The waves are grown to the time of the frame, the time left included, so they are
+     * drawn at the same size for the same time at any frame rate.
+     * @param elapsedNanos The real time that passed since the last call.
+     * */
+    public void advance(long elapsedNanos) {
+        mFrameCount++;
+        mAccumulator += mClock.toGameNanos(elapsedNanos);
+
+        while (mAccumulator >= STEP_NANOS && !isOver){
+            mAccumulator -= STEP_NANOS;
+            step(STEP_NANOS);
+        }
+
+        if (!isOver){
+            growWaves(getTime() + mAccumulator);
+        }
+    }
+
+    /**
+     * Move the game forward, spawn and grow the waves, count points and check
+     * the touch position.
+     * @param dtNanos The game time to simulate in nanoseconds.
+     * */
+    public void step(long dtNanos) {
+
+        if (isOver){
+            return;
+        }
+
+        //spawn and remove the waves that are due in this step, in time order
+        mClock.advanceTo(getTime() + dtNanos);
+
+        growWaves(getTime());
+
+        if (mTouches.getActiveCount() > 0){
+
+            if (isSwept){
+                checkTouchPaths();
+            }else {
+                checkFingers();
+            }
+        }
+
+        //the holes of the next waves are generated here, a spawn only copies them
+        mWavePool.prefetch();
+    }
+
+    /**
+     * Create new wave with random holes.
+     * @param spawnTime The game time of the new wave.
+     * */
+    private void spawnWave(long spawnTime) {
+
+        if (mRecorder != null){
+            mRecorder.recordPulse(spawnTime);
+        }
+
+        Wave wave = mWavePool.obtain(spawnTime);
+        mWaves.add(wave);
+        mCollisionEngine.addWave(wave.getShape());
+        mCallbacks.onWaveSpawned(wave);
+
+        if (mWaves.size() == 1){
+            scheduleRemoval();
+        }
+    }
+
+    /**
+     * Remove the oldest wave, it reached the border.
+     * */
+    private void removeWave() {
+        Wave oldest = mWaves.remove(0);
+        mCollisionEngine.removeWave(oldest.getShape());
+        mCallbacks.onWaveRemoved(oldest);
+        mWavePool.recycle(oldest);
+
+        //no points before the user touched the screen
+        if (isStarted){
+            mScore++;
+            mCallbacks.onScoreChanged(mScore);
+        }
+
+        scheduleRemoval();
+    }
+
+    /**
+     * Schedule the removal of the oldest wave, the oldest wave is the first to reach the border.
+     * */
+    private void scheduleRemoval() {
+
+        if (mWaves.isEmpty()){
+            mClock.cancel(mRemoveTask);
+        }else {
+            mClock.schedule(mRemoveTask, mWaves.get(0).getSpawnTime() + mWaveDuration);
+        }
+    }
+
+    /**
+     * Grow every wave to its size at a time, the size is a continuous function of the time
+     * since the wave was spawned, with sub-pixel radius.
+     * @param time The game time in nanoseconds, the game time, a frame time
+     * up to one step after it or the time of a touch sample.
+     * */
+    void growWaves(long time) {
+        mWaveTime = time;
+
+        for (int i = 0; i < mWaves.size(); i++) {
+            Wave wave = mWaves.get(i);
+
+            //a frame time may pass the removal of the oldest wave by less than a step,
+            //a touch sample may be before the spawn of a wave of the same step
+            double fraction = Math.min(1, (double) (time - wave.getSpawnTime()) / mWaveDuration);
+            fraction = Math.max(0, fraction);
+            double size = WAVE_START_SIZE + fraction * (mMaxSize - WAVE_START_SIZE);
+
+            wave.getShape().setRadius((float) (size * 0.5 - WAVE_PADDING));
+        }
+    }
+
+    /**
+     * Check every finger at its position now, between two steps.
+     * A finger on a wall is out.
+     * @return true if a finger is on a wall.
+     * */
+    public boolean checkTouch() {
+
+        if (mRecorder != null && !isOver){
+            mRecorder.recordCheck(getTime());
+        }
+
+        //the waves may be grown to the frame time, check them at the game time
+        growWaves(getTime());
+        return checkFingers();
+    }
+
+    /**
+     * Check every finger at its position now, a finger on a wall is out.
+     * @return true if a finger is on a wall.
+     * */
+    private boolean checkFingers() {
+        boolean hit = false;
+
+        //from the last finger, a finger that is out leaves the list
+        for (int i = mTouches.getActiveCount() - 1; i >= 0 && !isOver; i--) {
+            int pointerId = mTouches.getActiveId(i);
+
+            if (mTracer != null){
+                mTracer.onChecked(pointerId, getTime());
+            }
+
+            if (isHit(mTouches.getX(pointerId), mTouches.getY(pointerId))){
+                fingerOut(pointerId, getTime());
+                hit = true;
+            }
+        }
+
+        return hit;
+    }
+
+    /**
+     * Check every finger along the segments from its last checked position to every
+     * touch sample the game time reached, a finger that passes a wall is out.
+     * Every segment is checked against the waves grown to the time of its sample,
+     * the waves are grown back to the game time after the checks.
+     * */
+    private void checkTouchPaths() {
+
+        for (int i = mTouches.getActiveCount() - 1; i >= 0 && !isOver; i--) {
+            int pointerId = mTouches.getActiveId(i);
+            TouchPath path = mTouches.getPath(pointerId);
+
+            //the position is checked now, the samples of the path when their segment is checked
+            long positionTime = path.hasSampleAt(getTime()) ? path.getFirstTime() - 1 : getTime();
+            if (mTracer != null){
+                mTracer.onChecked(pointerId, positionTime);
+            }
+
+            if (isHit(mTouches.getX(pointerId), mTouches.getY(pointerId))){
+                fingerOut(pointerId, positionTime);
+                continue;
+            }
+
+            while (path.hasSampleAt(getTime())){
+                float x = path.getFirstX();
+                float y = path.getFirstY();
+                long sampleTime = path.getFirstTime();
+
+                //the points between two samples are checked at the time of the later sample,
+                //between two samples of a frame a wave grows less than a pixel
+                growWaves(sampleTime);
+                path.removeFirst();
+
+                if (mTracer != null){
+                    mTracer.onChecked(pointerId, sampleTime);
+                }
+
+                if (checkSegment(pointerId, x, y)){
+                    fingerOut(pointerId, sampleTime);
+                    break;
+                }
+            }
+        }
+
+        if (mWaveTime != getTime()){
+            growWaves(getTime());
+        }
+    }
+
+    /**
+     * Check points along a segment of a finger path, the start point is already checked.
+     * The finger stays at the last checked point.
+     * @param pointerId The pointer id of the finger.
+     * @param toX X coordinate of the end of the segment.
+     * @param toY Y coordinate of the end of the segment.
+     * @return true if the segment passes a wall.
+     * */
+    private boolean checkSegment(int pointerId, float toX, float toY) {
+        float fromX = mTouches.getX(pointerId);
+        float fromY = mTouches.getY(pointerId);
+        float dx = toX - fromX;
+        float dy = toY - fromY;
+        int points = (int) Math.ceil(Math.sqrt(dx * dx + dy * dy) / SWEEP_SPACING);
+
+        for (int i = 1; i <= points; i++) {
+            float fraction = (float) i / points;
+            float x = fromX + dx * fraction;
+            float y = fromY + dy * fraction;
+
+            mTouches.setPosition(pointerId, x, y);
+            if (isHit(x, y)){
+                return true;
+            }
+        }
+
+        mTouches.setPosition(pointerId, toX, toY);
+        return false;
+    }
+
+    /**
+     * Check if a finger position is on a wall, the check is timed when measured.
+     * @return true if the position is on a wall.
+     * */
+    private boolean isHit(float x, float y) {
+
+        if (mFrameStats == null){
+            return mHitTester.isOnWall(x, y);
+        }
+
+        long start = System.nanoTime();
+        boolean onWall = mHitTester.isOnWall(x, y);
+        mFrameStats.recordHitCheck(System.nanoTime() - start);
+        return onWall;
+    }
+
+    /**
+     * A finger touched a wall, in TOUCH_COOP the finger is out until it is lifted and
+     * the game is over when no finger is left, in the other modes the game is over.
+     * @param pointerId The pointer id of the finger.
+     * @param sampleTime The game time of the sample that hit the wall.
+     * */
+    private void fingerOut(int pointerId, long sampleTime) {
+
+        if (mTracer != null){
+            mTracer.onHit(pointerId, sampleTime, mFrameCount);
+        }
+
+        if (mTouchMode == TOUCH_COOP){
+            mTouches.block(pointerId);
+
+            if (mTouches.getActiveCount() == 0){
+                gameOver();
+            }
+        }else {
+            gameOver();
+        }
+    }
+
+    /**
+     * A finger touched the screen or moved, the finger is checked from the next step.
+     * @param pointerId The pointer id of the finger, from 0 to 9.
+     * @param x X coordinate of the finger.
+     * @param y Y coordinate of the finger.
+     * */
+    public void pointerMove(int pointerId, float x, float y) {
+
+        if (isOver || !mTouches.canTrack(pointerId)){
+            return;
+        }
+
+        if (mRecorder != null){
+            mRecorder.recordMove(getTime(), pointerId, x, y);
+        }
+
+        //in TOUCH_SINGLE only the first finger plays
+        if (!mTouches.isDown(pointerId) && mTouchMode == TOUCH_SINGLE && mTouches.getActiveCount() > 0){
+            return;
+        }
+
+        if (mTouches.isDown(pointerId)){
+            mTouches.setPosition(pointerId, x, y);
+        }else {
+            mTouches.down(pointerId, x, y);
+            isStarted = true;
+        }
+
+        //the position is checked by the next check
+        if (mTracer != null){
+            mTracer.onApplied(pointerId, getTime());
+        }
+    }
+
+    /**
+     * A touch sample of a finger, the first sample of a touch or a sample in normal
+     * collision mode moves the finger at once, in swept collision mode the next samples
+     * are queued and checked along the path when the game time reaches them.
+     * @param pointerId The pointer id of the finger, from 0 to 9.
+     * @param x X coordinate of the finger.
+     * @param y Y coordinate of the finger.
+     * @param timeNanos The game time of the sample, it may be after the current game time.
+     * */
+    public void pointerMove(int pointerId, float x, float y, long timeNanos) {
+
+        if (!isSwept || !mTouches.isDown(pointerId)){
+            pointerMove(pointerId, x, y);
+            return;
+        }
+
+        if (mRecorder != null && !isOver){
+            mRecorder.recordSample(getTime(), pointerId, x, y, timeNanos);
+        }
+
+        mTouches.getPath(pointerId).add(x, y, timeNanos);
+
+        if (mTracer != null){
+            mTracer.onApplied(pointerId, timeNanos);
+        }
+    }
+
+    /**
+     * A finger was lifted, in TOUCH_COOP the game is over when it was the last finger,
+     * in the other modes the game is over when a playing finger is lifted.
+     * @param pointerId The pointer id of the finger.
+     * */
+    public void pointerUp(int pointerId) {
+
+        if (mRecorder != null && !isOver){
+            mRecorder.recordPointerUp(getTime(), pointerId);
+        }
+
+        //a finger that does not play or is out can touch again
+        if (!mTouches.isDown(pointerId)){
+            mTouches.up(pointerId);
+            return;
+        }
+
+        mTouches.up(pointerId);
+
+        if (mTouchMode != TOUCH_COOP || mTouches.getActiveCount() == 0){
+            gameOver();
+        }
+    }
+
+    /**
+     * The user touched the screen or moved the finger, the first finger.
+     * @param x X coordinate of the finger.
+     * @param y Y coordinate of the finger.
+     * */
+    public void touchMove(float x, float y) {
+        pointerMove(0, x, y);
+    }
+
+    /**
+     * A touch sample of the first finger.
+     * @param x X coordinate of the finger.
+     * @param y Y coordinate of the finger.
+     * @param timeNanos The game time of the sample.
+     * */
+    public void touchMove(float x, float y, long timeNanos) {
+        pointerMove(0, x, y, timeNanos);
+    }
+
+    /**
+     * The user untouched the screen with all the fingers, the game is over.
+     * */
+    public void touchUp() {
+
+        if (mRecorder != null && !isOver){
+            mRecorder.recordTouchUp(getTime());
+        }
+
+        mTouches.clear();
+        gameOver();
+    }
+
+    /**
+     * Getter for ClockTask that spawns a wave.
+     * @return ClockTask of the pulses.
+     * */
+    private GameClock.ClockTask getPulseTask() {
+        return new GameClock.ClockTask() {
+            @Override
+            public void onTime(long time) {
+                spawnWave(time);
+            }
+        };
+    }
+
+    /**
+     * Getter for ClockTask that removes the oldest wave.
+     * @return ClockTask of the wave removals.
+     * */
+    private GameClock.ClockTask getRemoveTask() {
+        return new GameClock.ClockTask() {
+            @Override
+            public void onTime(long time) {
+                removeWave();
+            }
+        };
+    }
+
+    /**
+     * End the game, the callback is sent only once.
+     * */
+    private void gameOver() {
+
+        if (!isOver){
+            isOver = true;
+
+            if (mTracer != null){
+                mTracer.onDetected(mFrameCount);
+            }
+
+            if (mRecorder != null){
+                mRecorder.recordEnd(getTime(), mScore);
+            }
+
+            mCallbacks.onGameOver();
+        }
+    }
+
+    /**
+     * Getter for the number of live waves.
+     * @return The number of live waves.
+     * */
+    public int getWaveCount() {
+        return mWaves.size();
+    }
+
+    /**
+     * Getter for a live wave.
+     * @param index The index of the wave, 0 is the oldest and biggest wave.
+     * @return The live wave.
+     * */
+    public Wave getWave(int index) {
+        return mWaves.get(index);
+    }
+
+    /**
+     * Getter for the hits and misses of the wave pool, in steady play every new wave
+     * is a hit.
+     * @return The PoolStats of the waves.
+     * */
+    public PoolStats getWavePoolStats() {
+        return mWavePool.getStats();
+    }
+
+    /**
+     * Getter for the width of the game, the size of the biggest wave.
+     * @return The width in pixels.
+     * */
+    public int getWidth() {
+        return mMaxSize;
+    }
+
+    /**
+     * Getter for the height of the game.
+     * @return The height in pixels.
+     * */
+    public int getHeight() {
+        return mHeight;
+    }
+
+    /**
+     * Getter for the count of fingers that play now.
+     * @return The count of fingers that are down and not out.
+     * */
+    public int getTouchCount() {
+        return mTouches.getActiveCount();
+    }
+
+    /**
+     * Copy what the renderer needs to a WorldSnapshot, the radius and the arcs of every
+     * wave, the score and the game over flag.
+     * @param snapshot The snapshot to write.
+     * */
+    public void writeSnapshot(WorldSnapshot snapshot) {
+        snapshot.write(getTime(), mScore, isOver);
+
+        for (int i = 0; i < mWaves.size(); i++) {
+            snapshot.addWave(mWaves.get(i).getShape());
+        }
+    }
+
+    /**
+     * Getter for the seed of the holes.
+     * @return The seed of the holes.
+     * */
+    public long getSeed() {
+        return mSeed;
+    }
+
+    /**
+     * Getter for the game time.
+     * @return The game time in nanoseconds.
+     * */
+    public long getTime() {
+        return mClock.getTime();
+    }
+
+    /**
+     * Getter for the game time the last advance() reached, the game time and the time
+     * that is left for the next step, the time the waves were grown to for the frame.
+     * Touch samples of the frame are converted to game time from it.
+     * @return The game time of the frame in nanoseconds.
+     * */
+    public long getAdvancedTime() {
+        return getTime() + mAccumulator;
+    }
+
+    /**
+     * Getter for the game time the waves are grown to, the game time, the time of a frame
+     * or the time of a touch sample that is checked.
+     * @return The game time of the wave radius in nanoseconds.
+     * */
+    public long getWaveTime() {
+        return mWaveTime;
+    }
+
+    /**
+     * Getter for the count of the frames, the calls of advance().
+     * @return The count of the frames.
+     * */
+    public long getFrameCount() {
+        return mFrameCount;
+    }
+
+    /**
+     * Getter for the GameClock, it can pause the game and change the time scale.
+     * @return The GameClock of the game.
+     * */
+    public GameClock getClock() {
+        return mClock;
+    }
+
+    /**
+     * Getter for the score.
+     * @return Count of waves that reached the border after the user touched the screen.
+     * */
+    public int getScore() {
+        return mScore;
+    }
+
+    /**
+     * Getter for the game over flag.
+     * @return true if the game is over.
+     * */
+    public boolean isOver() {
+        return isOver;
+    }
+
+    /**
+     * Check if a point is on the border or one of the waves with the HitTester of the game.
+     * @param x X coordinate of the point.
+     * @param y Y coordinate of the point.
+     * @return true if the point is on a wall.
+     * */
+    public boolean isOnWall(float x, float y) {
+        return mHitTester.isOnWall(x, y);
+    }
+}
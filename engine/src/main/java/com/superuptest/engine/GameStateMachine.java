@@ -0,0 +1,149 @@
+package com.superuptest.engine;
+
+/**
+ * This class holds the state of a game session on the screen.
+ *
+ * STATE_WAITING - the game is shown but the user did not touch the screen yet.
+ * STATE_PLAYING - the game moves on every frame.
+ * STATE_PAUSED - the game was paused, the game time stands still.
+ * STATE_OVER - the game ended, no state follows.
+ *
+ * Only STATE_PLAYING needs frames, the idle states keep the last drawn frame and the
+ * renderer stops all its periodic work when the listener is told about them.
+ * The first touch moves a waiting or paused game to STATE_PLAYING at once.
+ */
+
+public class GameStateMachine {
+
+    /**
+     * The logging tag of this Class.
+     * */
+    private static final String TAG = "GameStateMachine";
+
+    /**
+     * Waiting for the first touch.
+     * */
+    public static final int STATE_WAITING = 0;
+
+    /**
+     * The game is played.
+     * */
+    public static final int STATE_PLAYING = 1;
+
+    /**
+     * The game is paused.
+     * */
+    public static final int STATE_PAUSED = 2;
+
+    /**
+     * The game is over.
+     * */
+    public static final int STATE_OVER = 3;
+
+    /**
+     * Interface of the state changes.
+     * */
+    public interface GameStateMachineCallbacks {
+
+        /**
+         * Called when the state changed.
+         * @param from The old state.
+         * @param to The new state.
+         * */
+        void onStateChanged(int from, int to);
+    }
+
+    /**
+     * Listener of the state changes.
+     * */
+    private final GameStateMachineCallbacks mCallbacks;
+
+    /**
+     * The current state.
+     * */
+    private int mState = STATE_WAITING;
+
+    /**
+     * Constructor
+     * @param callbacks Listener of the state changes.
+     * */
+    public GameStateMachine(GameStateMachineCallbacks callbacks) {
+        this.mCallbacks = callbacks;
+    }
+
+    /**
+     * Play a waiting or a paused game.
+     * @return true if the state changed, false if the game is played or over.
+     * */
+    public boolean play() {
+        return (mState == STATE_WAITING || mState == STATE_PAUSED) && moveTo(STATE_PLAYING);
+    }
+
+    /**
+     * Pause a played game.
+     * @return true if the state changed, false if the game is not played.
+     * */
+    public boolean pause() {
+        return mState == STATE_PLAYING && moveTo(STATE_PAUSED);
+    }
+
+    /**
+     * End the game from any state.
+     * @return true if the state changed, false if the game is already over.
+     * */
+    public boolean over() {
+        return mState != STATE_OVER && moveTo(STATE_OVER);
+    }
+
+    /**
+     * Getter for the current state.
+     * @return STATE_WAITING, STATE_PLAYING, STATE_PAUSED or STATE_OVER.
+     * */
+    public int getState() {
+        return mState;
+    }
+
+    /**
+     * Check if the game needs frames.
+     * @return true in every state except STATE_PLAYING.
+     * */
+    public boolean isIdle() {
+        return mState != STATE_PLAYING;
+    }
+
+    /**
+     * Get the name of a state for the logs.
+     * @param state One of the STATE constants.
+     * @return The name of the state.
+     * */
+    public static String getStateName(int state) {
+        switch (state){
+
+            case STATE_WAITING:
+                return "waiting";
+
+            case STATE_PLAYING:
+                return "playing";
+
+            case STATE_PAUSED:
+                return "paused";
+
+            case STATE_OVER:
+                return "over";
+
+            default:
+                throw new IllegalArgumentException("unknown state " + state);
+        }
+    }
+
+    /**
+     * Set the new state and notify the listener.
+     * @return true.
+     * */
+    private boolean moveTo(int state) {
+        int from = mState;
+        mState = state;
+        mCallbacks.onStateChanged(from, state);
+        return true;
+    }
+}
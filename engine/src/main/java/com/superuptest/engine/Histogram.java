@@ -0,0 +1,167 @@
+package com.superuptest.engine;
+
+/**
+ * This class counts values in fixed buckets, it is used to record durations.
+ *
+ * Values below 16 have a bucket each, bigger values share 16 buckets per power of two,
+ * so a percentile is at most 1/16 bigger than the real value.
+ * The buckets are allocated once, record() never allocates.
+ */
+
+public class Histogram {
+
+    /**
+     * Number of bits of the sub buckets of every power of two.
+     * */
+    private static final int SUB_BITS = 4;
+
+    /**
+     * Number of sub buckets of every power of two.
+     * */
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+
+    /**
+     * Number of buckets, enough for every positive long.
+     * */
+    private static final int BUCKETS = SUB_COUNT + (63 - SUB_BITS) * SUB_COUNT;
+
+    /**
+     * Count of values of every bucket.
+     * */
+    private final long[] mCounts = new long[BUCKETS];
+
+    /**
+     * Count of all the values.
+     * */
+    private long mTotal = 0;
+
+    /**
+     * The biggest value.
+     * */
+    private long mMax = 0;
+
+    /**
+     * Sum of all the values.
+     * */
+    private long mSum = 0;
+
+    /**
+     * Record a value.
+     * @param value The value, negative values are recorded as 0.
+     * */
+    public void record(long value) {
+
+        if (value < 0){
+            value = 0;
+        }
+
+        mCounts[getBucket(value)]++;
+        mTotal++;
+        mSum += value;
+
+        if (value > mMax){
+            mMax = value;
+        }
+    }
+
+    /**
+     * Remove all the values.
+     * */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            mCounts[i] = 0;
+        }
+        mTotal = 0;
+        mMax = 0;
+        mSum = 0;
+    }
+
+    /**
+     * Getter for the number of recorded values.
+     * @return The number of recorded values.
+     * */
+    public long getCount() {
+        return mTotal;
+    }
+
+    /**
+     * Getter for the biggest value.
+     * @return The biggest value, 0 if nothing was recorded.
+     * */
+    public long getMax() {
+        return mMax;
+    }
+
+    /**
+     * Getter for the mean value.
+     * @return The mean value, 0 if nothing was recorded.
+     * */
+    public long getMean() {
+        return mTotal == 0 ? 0 : mSum / mTotal;
+    }
+
+    /**
+     * Return the value that the given percent of the values are equal or below.
+     * @param percentile The percentile from 0 to 100.
+     * @return The highest value of the bucket that holds the percentile, never above
+     * the biggest value, 0 if nothing was recorded.
+     * */
+    public long getPercentile(double percentile) {
+
+        if (mTotal == 0){
+            return 0;
+        }
+
+        long rank = (long) Math.ceil(percentile / 100 * mTotal);
+        if (rank < 1){
+            rank = 1;
+        }
+
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += mCounts[i];
+
+            if (seen >= rank){
+                return Math.min(getBucketEnd(i), mMax);
+            }
+        }
+
+        return mMax;
+    }
+
+    /**
+     * Return the bucket of a value.
+     * @param value The value, 0 or more.
+     * @return The index of the bucket.
+     * */
+    private static int getBucket(long value) {
+
+        if (value < SUB_COUNT){
+            return (int) value;
+        }
+
+        //the power of two of the value and its position inside that power
+        int power = 63 - Long.numberOfLeadingZeros(value);
+        int shift = power - SUB_BITS;
+        int sub = (int) (value >>> shift) - SUB_COUNT;
+
+        return SUB_COUNT + shift * SUB_COUNT + sub;
+    }
+
+    /**
+     * Return the highest value of a bucket.
+     * @param bucket The index of the bucket.
+     * @return The highest value that is counted in the bucket.
+     * */
+    private static long getBucketEnd(int bucket) {
+
+        if (bucket < SUB_COUNT){
+            return bucket;
+        }
+
+        int shift = (bucket - SUB_COUNT) / SUB_COUNT;
+        int sub = (bucket - SUB_COUNT) % SUB_COUNT;
+
+        return ((long) (SUB_COUNT + sub + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,21 @@
+package com.superuptest.engine;
+
+/**
+ * Interface of a strategy that answers the question "is (x,y) on a wall?".
+ *
+ * The GameEngine checks every finger position with its HitTester, CollisionEngine
+ * is the default geometric tester. The app has testers that read the pixels of
+ * the drawn game, VerifyingHitTester runs two testers side by side to prove they agree.
+ * A tester is called on the thread of its GameEngine, after the waves are grown to the game time.
+ */
+
+public interface HitTester {
+
+    /**
+     * Check if a point touches the border or one of the waves.
+     * @param x X coordinate of the point in the coordinates of the game.
+     * @param y Y coordinate of the point in the coordinates of the game.
+     * @return true if the point is on a wall.
+     * */
+    boolean isOnWall(float x, float y);
+}
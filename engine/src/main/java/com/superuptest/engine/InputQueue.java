@@ -0,0 +1,201 @@
+package com.superuptest.engine;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This class is a single producer single consumer ring buffer of touch inputs.
+ *
+ * The UI thread offers the inputs, the simulation thread polls them.
+ * Every input is kept in preallocated primitive arrays and the two indexes are
+ * atomic, so neither thread waits for the other and nothing is allocated.
+ */
+
+public class InputQueue {
+
+    /**
+     * Input of a finger move - pointer id, x, y.
+     * */
+    public static final int TYPE_MOVE = 1;
+
+    /**
+     * Input of a finger touch sample - pointer id, x, y, event time.
+     * */
+    public static final int TYPE_SAMPLE = 2;
+
+    /**
+     * Input of a lifted finger - pointer id.
+     * */
+    public static final int TYPE_POINTER_UP = 3;
+
+    /**
+     * Input of all the fingers lifted.
+     * */
+    public static final int TYPE_TOUCH_UP = 4;
+
+    /**
+     * Input of a touch check.
+     * */
+    public static final int TYPE_CHECK = 5;
+
+    /**
+     * Input of the game size - x is the width, y is the height.
+     * */
+    public static final int TYPE_SIZE = 6;
+
+    /**
+     * Capacity of the queue, a power of two.
+     * */
+    private final int mCapacity;
+
+    /**
+     * Type of every input.
+     * */
+    private final int[] mType;
+
+    /**
+     * Pointer id of every input.
+     * */
+    private final int[] mPointerId;
+
+    /**
+     * X value of every input.
+     * */
+    private final float[] mX;
+
+    /**
+     * Y value of every input.
+     * */
+    private final float[] mY;
+
+    /**
+     * Event time of every input in the System.nanoTime() time base.
+     * */
+    private final long[] mTime;
+
+    /**
+     * Count of the inputs that were offered, written only by the producer.
+     * */
+    private final AtomicLong mTail = new AtomicLong();
+
+    /**
+     * Count of the inputs that were polled, written only by the consumer.
+     * */
+    private final AtomicLong mHead = new AtomicLong();
+
+    /**
+     * Pointer id of the polled input.
+     * */
+    private int mPolledPointerId;
+
+    /**
+     * X value of the polled input.
+     * */
+    private float mPolledX;
+
+    /**
+     * Y value of the polled input.
+     * */
+    private float mPolledY;
+
+    /**
+     * Event time of the polled input.
+     * */
+    private long mPolledTime;
+
+    /**
+     * Constructor
+     * @param capacity The capacity of the queue, rounded up to a power of two.
+     * */
+    public InputQueue(int capacity) {
+        mCapacity = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        mType = new int[mCapacity];
+        mPointerId = new int[mCapacity];
+        mX = new float[mCapacity];
+        mY = new float[mCapacity];
+        mTime = new long[mCapacity];
+    }
+
+    /**
+     * Offer an input, producer thread only.
+     * @param type One of the TYPE constants.
+     * @param pointerId The pointer id of the finger.
+     * @param x The X value.
+     * @param y The Y value.
+     * @param timeNanos The event time in the System.nanoTime() time base.
+     * @return false if the queue is full and the input was dropped.
+     * */
+    public boolean offer(int type, int pointerId, float x, float y, long timeNanos) {
+        long tail = mTail.get();
+
+        if (tail - mHead.get() == mCapacity){
+            return false;
+        }
+
+        int index = (int) tail & (mCapacity - 1);
+        mType[index] = type;
+        mPointerId[index] = pointerId;
+        mX[index] = x;
+        mY[index] = y;
+        mTime[index] = timeNanos;
+
+        //publish the input after its fields
+        mTail.lazySet(tail + 1);
+        return true;
+    }
+
+    /**
+     * Move to the next input, consumer thread only.
+     * The getters read this input until the next call.
+     * @return The type of the input, 0 if the queue is empty.
+     * */
+    public int poll() {
+        long head = mHead.get();
+
+        if (head == mTail.get()){
+            return 0;
+        }
+
+        int index = (int) head & (mCapacity - 1);
+        int type = mType[index];
+        mPolledPointerId = mPointerId[index];
+        mPolledX = mX[index];
+        mPolledY = mY[index];
+        mPolledTime = mTime[index];
+
+        //the producer may reuse the place after this, the fields are copied before
+        mHead.lazySet(head + 1);
+        return type;
+    }
+
+    /**
+     * Getter for the pointer id of the polled input.
+     * @return The pointer id.
+     * */
+    public int getPointerId() {
+        return mPolledPointerId;
+    }
+
+    /**
+     * Getter for the X value of the polled input.
+     * @return The X coordinate, or the width of TYPE_SIZE.
+     * */
+    public float getX() {
+        return mPolledX;
+    }
+
+    /**
+     * Getter for the Y value of the polled input.
+     * @return The Y coordinate, or the height of TYPE_SIZE.
+     * */
+    public float getY() {
+        return mPolledY;
+    }
+
+    /**
+     * Getter for the event time of the polled input.
+     * @return The event time in the System.nanoTime() time base.
+     * */
+    public long getTime() {
+        return mPolledTime;
+    }
+}
@@ -0,0 +1,301 @@
+package com.superuptest.engine;
+
+/**
+ * This class traces the latency from a touch sample to the collision check of its
+ * position and from the sample that ended the game to the game over.
+ *
+ * The feeder of the inputs calls onInput() with the event time of every sample before
+ * it gives the sample to the GameEngine, the GameEngine tells the tracer when the sample
+ * was applied, when the finger was checked up to its game time and which check ended
+ * the game, the renderer calls onGameOver() when it handles the end of the game.
+ *
+ * Input to engine - from the event time to the GameEngine, the delivery of the MotionEvent
+ * and the queue of the SimulationThread.
+ * Input to check - from the event time to the first collision check of the position.
+ * Deciding sample - the sample whose check hit a wall, in swept collision mode the sample
+ * of the segment that hit and not the newest sample of the finger, or the lift of the finger,
+ * with the frame and the time the check detected it and the time the game over ran.
+ *
+ * Every time is in the System.nanoTime() time base, as the MotionEvent times.
+ * Nothing is allocated while tracing. The inputs and the checks are traced on the thread
+ * of the GameEngine, onGameOver() may be called on another thread, read the tracer
+ * after the game is over.
+ */
+
+public class LatencyTracer {
+
+    /**
+     * The logging tag of this Class.
+     * */
+    private static final String TAG = "LatencyTracer";
+
+    /**
+     * The number of pending samples kept for every finger.
+     * */
+    private static final int PENDING_CAPACITY = 64;
+
+    /**
+     * Time from the event time of every sample to the GameEngine.
+     * */
+    private final Histogram mInputToEngine = new Histogram();
+
+    /**
+     * Time from the event time of every sample to the check of its position.
+     * */
+    private final Histogram mInputToCheck = new Histogram();
+
+    /**
+     * Event time of the samples of every finger that were not checked yet, a ring per finger.
+     * */
+    private final long[][] mPendingEvent = new long[TouchTracker.MAX_POINTERS][PENDING_CAPACITY];
+
+    /**
+     * Game time at which every pending sample is checked, same order as mPendingEvent.
+     * */
+    private final long[][] mPendingCheck = new long[TouchTracker.MAX_POINTERS][PENDING_CAPACITY];
+
+    /**
+     * Index of the oldest pending sample of every finger.
+     * */
+    private final int[] mPendingFirst = new int[TouchTracker.MAX_POINTERS];
+
+    /**
+     * The number of pending samples of every finger.
+     * */
+    private final int[] mPendingCount = new int[TouchTracker.MAX_POINTERS];
+
+    /**
+     * Event time of the newest checked sample of every finger, 0 before the first.
+     * */
+    private final long[] mCheckedEvent = new long[TouchTracker.MAX_POINTERS];
+
+    /**
+     * Game time at which the newest checked sample of every finger is checked.
+     * */
+    private final long[] mCheckedTime = new long[TouchTracker.MAX_POINTERS];
+
+    /**
+     * Count of the samples that were not traced because a finger had too many pending samples.
+     * */
+    private long mDroppedCount = 0;
+
+    /**
+     * Event time of the input given to the GameEngine now.
+     * */
+    private long mInputEvent = 0;
+
+    /**
+     * Event time of the sample that ended the game, 0 before the end.
+     * */
+    private long mDecidingEvent = 0;
+
+    /**
+     * The frame of the GameEngine that detected the end of the game, -1 before the end.
+     * */
+    private long mDecidingFrame = -1;
+
+    /**
+     * Flag that tells if a finger hit a wall after the last input.
+     * */
+    private boolean isHit = false;
+
+    /**
+     * Time the GameEngine detected the end of the game, 0 before the end.
+     * */
+    private long mDetectedAt = 0;
+
+    /**
+     * Time the renderer handled the end of the game, 0 before it.
+     * */
+    private volatile long mGameOverAt = 0;
+
+    /**
+     * Called by the feeder of the inputs before it gives an input to the GameEngine.
+     * @param eventNanos The event time of the input.
+     * */
+    public void onInput(long eventNanos) {
+        mInputEvent = eventNanos;
+        isHit = false;
+    }
+
+    /**
+     * Called by the GameEngine when it applied a sample of a finger.
+     * @param pointerId The pointer id of the finger.
+     * @param checkTime The game time from which the sample is checked.
+     * */
+    void onApplied(int pointerId, long checkTime) {
+
+        if (mInputEvent == 0){
+            return;
+        }
+
+        mInputToEngine.record(now() - mInputEvent);
+
+        if (mPendingCount[pointerId] == PENDING_CAPACITY){
+            mPendingFirst[pointerId] = (mPendingFirst[pointerId] + 1) % PENDING_CAPACITY;
+            mPendingCount[pointerId]--;
+            mDroppedCount++;
+        }
+
+        int index = (mPendingFirst[pointerId] + mPendingCount[pointerId]) % PENDING_CAPACITY;
+        mPendingEvent[pointerId][index] = mInputEvent;
+        mPendingCheck[pointerId][index] = checkTime;
+        mPendingCount[pointerId]++;
+    }
+
+    /**
+     * Called by the GameEngine when it checks a finger up to a game time,
+     * every pending sample of the finger until that time is checked now.
+     * @param pointerId The pointer id of the finger.
+     * @param time The game time the finger is checked up to.
+     * */
+    void onChecked(int pointerId, long time) {
+        long now = now();
+
+        while (mPendingCount[pointerId] > 0){
+            int first = mPendingFirst[pointerId];
+
+            if (mPendingCheck[pointerId][first] > time){
+                return;
+            }
+
+            mInputToCheck.record(now - mPendingEvent[pointerId][first]);
+            mCheckedEvent[pointerId] = mPendingEvent[pointerId][first];
+            mCheckedTime[pointerId] = mPendingCheck[pointerId][first];
+            mPendingFirst[pointerId] = (first + 1) % PENDING_CAPACITY;
+            mPendingCount[pointerId]--;
+        }
+    }
+
+    /**
+     * Called by the GameEngine when a finger hit a wall, the sample checked at the time
+     * of the hit decided. The GameEngine checks the samples up to that time first.
+     * @param pointerId The pointer id of the finger.
+     * @param sampleTime The game time of the hitting sample, the time of the swept sample
+     *                   whose segment hit or the game time of a check of the position.
+     * @param frame The frame of the GameEngine, GameEngine.getFrameCount().
+     * */
+    void onHit(int pointerId, long sampleTime, long frame) {
+
+        //the samples checked after the hitting one did not decide, an untraced one is unknown
+        mDecidingEvent = mCheckedTime[pointerId] <= sampleTime ? mCheckedEvent[pointerId] : 0;
+        mDecidingFrame = frame;
+        isHit = true;
+    }
+
+    /**
+     * Called by the GameEngine when the game is over, a game that did not end by a hit
+     * after the last input was ended by the last input, the lift of a finger.
+     * @param frame The frame of the GameEngine, GameEngine.getFrameCount().
+     * */
+    void onDetected(long frame) {
+
+        if (!isHit){
+            mDecidingEvent = mInputEvent;
+            mDecidingFrame = frame;
+        }
+
+        mDetectedAt = now();
+    }
+
+    /**
+     * Called by the renderer when it handles the end of the game.
+     * */
+    public void onGameOver() {
+
+        if (mGameOverAt == 0){
+            mGameOverAt = now();
+        }
+    }
+
+    /**
+     * Getter for the time from the event time of every sample to the GameEngine.
+     * @return Histogram of the times in nanoseconds.
+     * */
+    public Histogram getInputToEngine() {
+        return mInputToEngine;
+    }
+
+    /**
+     * Getter for the time from the event time of every sample to the check of its position.
+     * @return Histogram of the times in nanoseconds.
+     * */
+    public Histogram getInputToCheck() {
+        return mInputToCheck;
+    }
+
+    /**
+     * Getter for the time from the deciding sample to the detection of the end of the game.
+     * @return The time in nanoseconds, -1 before the end or when the sample was not traced.
+     * */
+    public long getDetectionLatency() {
+        return mDetectedAt == 0 || mDecidingEvent == 0 ? -1 : mDetectedAt - mDecidingEvent;
+    }
+
+    /**
+     * Getter for the time from the deciding sample to the game over of the renderer.
+     * @return The time in nanoseconds, -1 before the game over or when the sample was not traced.
+     * */
+    public long getGameOverLatency() {
+        return mGameOverAt == 0 || mDecidingEvent == 0 ? -1 : mGameOverAt - mDecidingEvent;
+    }
+
+    /**
+     * Getter for the frame of the GameEngine that detected the end of the game.
+     * @return The frame, GameEngine.getFrameCount() at the hit or the lift, -1 before the end.
+     * */
+    public long getDecidingFrame() {
+        return mDecidingFrame;
+    }
+
+    /**
+     * Getter for the count of the samples that were not traced.
+     * @return The count of dropped samples.
+     * */
+    public long getDroppedCount() {
+        return mDroppedCount;
+    }
+
+    /**
+     * Append the p50/p95/p99/max of the sample latencies and the latencies of the
+     * deciding sample. The times are in microseconds.
+     * @param out The StringBuilder to append to.
+     * */
+    public void dump(StringBuilder out) {
+        dumpTimes(out, "input to engine", mInputToEngine);
+        dumpTimes(out, "input to check", mInputToCheck);
+
+        out.append("deciding input us detection=").append(toMicros(getDetectionLatency()))
+                .append(" game over=").append(toMicros(getGameOverLatency()))
+                .append(" frame=").append(mDecidingFrame)
+                .append(" dropped=").append(mDroppedCount)
+                .append('\n');
+    }
+
+    /**
+     * Getter for the current time, the System.nanoTime() time base.
+     * @return The time in nanoseconds.
+     * */
+    protected long now() {
+        return System.nanoTime();
+    }
+
+    /**
+     * Append one line of percentiles of a time histogram.
+     * */
+    private static void dumpTimes(StringBuilder out, String name, Histogram histogram) {
+        out.append(name).append(" us n=").append(histogram.getCount())
+                .append(" p50=").append(histogram.getPercentile(50) / 1000)
+                .append(" p95=").append(histogram.getPercentile(95) / 1000)
+                .append(" p99=").append(histogram.getPercentile(99) / 1000)
+                .append(" max=").append(histogram.getMax() / 1000)
+                .append('\n');
+    }
+
+    /**
+     * Convert a latency to microseconds, -1 stays -1.
+     * */
+    private static long toMicros(long nanos) {
+        return nanos < 0 ? -1 : nanos / 1000;
+    }
+}
@@ -0,0 +1,90 @@
+package com.superuptest.engine;
+
+/**
+ * This class counts the hits and misses of an object pool.
+ *
+ * A hit is an object reused from the pool, a miss is an object allocated because
+ * the pool was empty, in steady play the misses stop growing after the first waves.
+ * It is not thread safe, it is used by the thread of its pool.
+ */
+
+public class PoolStats {
+
+    /**
+     * The logging tag of this Class.
+     * */
+    private static final String TAG = "PoolStats";
+
+    /**
+     * The number of objects reused from the pool.
+     * */
+    private long mHits = 0;
+
+    /**
+     * The number of objects allocated because the pool was empty.
+     * */
+    private long mMisses = 0;
+
+    /**
+     * The number of recycled objects dropped because the pool was full.
+     * */
+    private long mDropped = 0;
+
+    /**
+     * Record an object reused from the pool.
+     * */
+    public void recordHit() {
+        mHits++;
+    }
+
+    /**
+     * Record an object allocated because the pool was empty.
+     * */
+    public void recordMiss() {
+        mMisses++;
+    }
+
+    /**
+     * Record a recycled object dropped because the pool was full.
+     * */
+    public void recordDropped() {
+        mDropped++;
+    }
+
+    /**
+     * Getter for the hits.
+     * @return The number of objects reused from the pool.
+     * */
+    public long getHits() {
+        return mHits;
+    }
+
+    /**
+     * Getter for the misses.
+     * @return The number of objects allocated because the pool was empty.
+     * */
+    public long getMisses() {
+        return mMisses;
+    }
+
+    /**
+     * Getter for the dropped objects.
+     * @return The number of recycled objects dropped because the pool was full.
+     * */
+    public long getDropped() {
+        return mDropped;
+    }
+
+    /**
+     * Write the counts as one line, nothing is allocated but the builder growth.
+     * @param out The builder to append to.
+     * @param name The name of the pool.
+     * */
+    public void dump(StringBuilder out, String name) {
+        out.append(name)
+                .append(" pool hits ").append(mHits)
+                .append(" misses ").append(mMisses)
+                .append(" dropped ").append(mDropped)
+                .append('\n');
+    }
+}
@@ -0,0 +1,376 @@
+package com.superuptest.engine;
+
+/**
+ * This class watches the recent frame intervals and steps the rendering quality down
+ * when frames overrun the vsync period and back up when they are on time again.
+ *
+ * Every level keeps the cuts of the levels above it:
+ * QUALITY_FULL - strokes without anti-aliasing as the game always drew them,
+ * exact geometry, every wave drawn.
+ * QUALITY_COARSE - the waves are drawn with whole pixel radius and whole degree arcs,
+ * the FieldRenderer keeps the arcs of every wave and draws them again without computing them
+ * while the rounded radius does not change, about every second frame at 60 Hz.
+ * QUALITY_CAPPED - only the newest waves are drawn, as fewer views in RENDER_VIEWS mode.
+ *
+ * The level only changes how the waves are drawn, CollisionEngine always checks
+ * the exact geometry of every wave.
+ *
+ * A window of frames is counted before every decision, a level is stepped down when
+ * too many frames of the window overran and stepped up only after a long run of frames
+ * without an overrun, so the level does not flip between two frames.
+ *
+ * The budget comes from the vsync period of the refresh rate in effect. A display that
+ * supports several rates may run slower than the game asked for, or than it reported,
+ * so when the frames of the current and the last window all came at least as late as
+ * the period of a slower supported rate, the frames are paced by that rate and measured
+ * against its period. A steady cadence of a supported rate is never an overrun,
+ * a frame that missed the vsync of the slowest matching rate is.
+ * The reason of the last changes is kept for diagnostics. Nothing is allocated
+ * while counting, only when the level changes.
+ */
+
+public class QualityGovernor {
+
+    /**
+     * The logging tag of this Class.
+     * */
+    private static final String TAG = "QualityGovernor";
+
+    /**
+     * Full quality level.
+     * */
+    public static final int QUALITY_FULL = 0;
+
+    /**
+     * Level with coarse geometry.
+     * */
+    public static final int QUALITY_COARSE = 1;
+
+    /**
+     * Level with a cap on the drawn waves, the lowest level.
+     * */
+    public static final int QUALITY_CAPPED = 2;
+
+    /**
+     * The number of waves drawn at QUALITY_CAPPED.
+     * */
+    public static final int CAPPED_WAVES = 6;
+
+    /**
+     * The number of frames of a window.
+     * */
+    static final int WINDOW_FRAMES = 30;
+
+    /**
+     * Overrun frames in a window that step the level down.
+     * */
+    static final int OVERRUN_LIMIT = 5;
+
+    /**
+     * Frames in a row without an overrun that step the level up, about 3 seconds at 60 fps.
+     * */
+    static final int RECOVERY_FRAMES = 180;
+
+    /**
+     * The part of a vsync period a paced frame may come early, the vsync times jitter.
+     * */
+    private static final int PACING_TOLERANCE = 8;
+
+    /**
+     * The number of kept changes.
+     * */
+    private static final int HISTORY_SIZE = 8;
+
+    /**
+     * Interface of the level changes.
+     * */
+    public interface QualityGovernorCallbacks {
+
+        /**
+         * Called when the level changed.
+         * @param level The new level.
+         * @param reason What changed the level.
+         * */
+        void onQualityChanged(int level, String reason);
+    }
+
+    /**
+     * Listener of the level changes.
+     * */
+    private final QualityGovernorCallbacks mCallbacks;
+
+    /**
+     * The current level, volatile as the pixel HitTesters read it on the simulation thread.
+     * */
+    private volatile int mLevel = QUALITY_FULL;
+
+    /**
+     * The vsync period of the refresh rate in effect in nanoseconds.
+     * */
+    private long mVsyncPeriod = FrameStats.DEFAULT_VSYNC_PERIOD;
+
+    /**
+     * The vsync periods of every refresh rate the display supports, null for mVsyncPeriod only.
+     * */
+    private long[] mSupportedPeriods;
+
+    /**
+     * The shortest frame interval of the last window, Long.MAX_VALUE before the first window.
+     * */
+    private long mLastShortest = Long.MAX_VALUE;
+
+    /**
+     * The shortest frame interval of the current window.
+     * */
+    private long mShortestInterval = Long.MAX_VALUE;
+
+    /**
+     * Flag that tells if the level follows the frames, false when it is fixed.
+     * */
+    private boolean isAdaptive = true;
+
+    /**
+     * Frames counted in the current window.
+     * */
+    private int mWindowFrames = 0;
+
+    /**
+     * Overrun frames in the current window.
+     * */
+    private int mWindowOverruns = 0;
+
+    /**
+     * Frames in a row without an overrun.
+     * */
+    private int mOnTimeFrames = 0;
+
+    /**
+     * The longest frame interval of the current window.
+     * */
+    private long mWorstInterval = 0;
+
+    /**
+     * Count of all the level changes.
+     * */
+    private int mChangeCount = 0;
+
+    /**
+     * The level after every kept change, a ring of the last HISTORY_SIZE changes.
+     * */
+    private final int[] mHistoryLevels = new int[HISTORY_SIZE];
+
+    /**
+     * The reason of every kept change, same order as mHistoryLevels.
+     * */
+    private final String[] mHistoryReasons = new String[HISTORY_SIZE];
+
+    /**
+     * Constructor
+     * @param callbacks Listener of the level changes, may be null.
+     * */
+    public QualityGovernor(QualityGovernorCallbacks callbacks) {
+        this.mCallbacks = callbacks;
+    }
+
+    /**
+     * Setter for the vsync period of the refresh rate in effect, a frame that came half
+     * a period late missed a vsync and overran. The frames counted with the old period
+     * are forgotten, the level stays.
+     * @param vsyncPeriodNanos The vsync period in nanoseconds.
+     * */
+    public void setVsyncPeriod(long vsyncPeriodNanos) {
+
+        if (vsyncPeriodNanos != mVsyncPeriod){
+            mVsyncPeriod = vsyncPeriodNanos;
+            reset();
+        }
+    }
+
+    /**
+     * Setter for the vsync periods of every refresh rate the display supports,
+     * frames paced by a slower rate than the rate in effect are measured against its period.
+     * @param vsyncPeriodsNanos The vsync periods in nanoseconds, null for the period in effect only.
+     * */
+    public void setSupportedVsyncPeriods(long[] vsyncPeriodsNanos) {
+        this.mSupportedPeriods = vsyncPeriodsNanos;
+    }
+
+    /**
+     * Fix the level, the frames do not change it any more.
+     * @param level The level, QUALITY_FULL to QUALITY_CAPPED.
+     * */
+    public void setFixedLevel(int level) {
+
+        if (level < QUALITY_FULL || level > QUALITY_CAPPED){
+            throw new IllegalArgumentException("unknown quality level " + level);
+        }
+
+        isAdaptive = false;
+        changeLevel(level, "fixed");
+    }
+
+    /**
+     * Count a frame and change the level when a window or a recovery run ended.
+     * @param intervalNanos The time since the last frame in nanoseconds.
+     * */
+    public void onFrame(long intervalNanos) {
+
+        if (!isAdaptive){
+            return;
+        }
+
+        mShortestInterval = Math.min(mShortestInterval, intervalNanos);
+        boolean overrun = intervalNanos > getPacedPeriod() * 3 / 2;
+
+        mWindowFrames++;
+        mWorstInterval = Math.max(mWorstInterval, intervalNanos);
+
+        if (overrun){
+            mWindowOverruns++;
+            mOnTimeFrames = 0;
+        }else {
+            mOnTimeFrames++;
+        }
+
+        if (mWindowOverruns >= OVERRUN_LIMIT && mLevel < QUALITY_CAPPED){
+            changeLevel(mLevel + 1, mWindowOverruns + " of " + mWindowFrames
+                    + " frames overran, worst " + mWorstInterval / 100000 / 10f + " ms");
+            resetWindow();
+            return;
+        }
+
+        if (mOnTimeFrames >= RECOVERY_FRAMES && mLevel > QUALITY_FULL){
+            changeLevel(mLevel - 1, mOnTimeFrames + " frames on time");
+            mOnTimeFrames = 0;
+            resetWindow();
+            return;
+        }
+
+        if (mWindowFrames == WINDOW_FRAMES){
+            resetWindow();
+        }
+    }
+
+    /**
+     * Forget the counted frames, for example after the game was paused,
+     * the level stays.
+     * */
+    public void reset() {
+        mOnTimeFrames = 0;
+        mLastShortest = Long.MAX_VALUE;
+        mShortestInterval = Long.MAX_VALUE;
+        resetWindow();
+    }
+
+    /**
+     * Getter for the vsync period the frames are paced by, the period in effect or the
+     * longest supported period that the frames of the current and the last window
+     * did not beat.
+     * @return The vsync period in nanoseconds.
+     * */
+    long getPacedPeriod() {
+        long shortest = Math.min(mShortestInterval, mLastShortest);
+        long paced = mVsyncPeriod;
+
+        if (mSupportedPeriods == null){
+            return paced;
+        }
+
+        for (long period : mSupportedPeriods) {
+            if (period > paced && shortest >= period - period / PACING_TOLERANCE){
+                paced = period;
+            }
+        }
+
+        return paced;
+    }
+
+    /**
+     * Getter for the current level.
+     * @return The level, QUALITY_FULL to QUALITY_CAPPED.
+     * */
+    public int getLevel() {
+        return mLevel;
+    }
+
+    /**
+     * Check if the waves are drawn with coarse geometry at the current level.
+     * @return true from QUALITY_COARSE.
+     * */
+    public boolean isCoarseGeometry() {
+        return mLevel >= QUALITY_COARSE;
+    }
+
+    /**
+     * Getter for the number of waves drawn at the current level.
+     * @return The number of the newest waves to draw, Integer.MAX_VALUE for every wave.
+     * */
+    public int getMaxDrawnWaves() {
+        return mLevel >= QUALITY_CAPPED ? CAPPED_WAVES : Integer.MAX_VALUE;
+    }
+
+    /**
+     * Getter for the count of all the level changes.
+     * @return The number of changes since the start.
+     * */
+    public int getChangeCount() {
+        return mChangeCount;
+    }
+
+    /**
+     * Getter for the reason of the last change.
+     * @return The reason, null before the first change.
+     * */
+    public String getLastReason() {
+        return mChangeCount == 0 ? null : mHistoryReasons[(mChangeCount - 1) % HISTORY_SIZE];
+    }
+
+    /**
+     * Append the current level and the last changes, oldest first.
+     * @param out The StringBuilder to append to.
+     * */
+    public void dump(StringBuilder out) {
+        out.append("quality level ").append(mLevel)
+                .append(isAdaptive ? " adaptive" : " fixed")
+                .append(", ").append(mChangeCount).append(" changes\n");
+
+        for (int i = Math.max(0, mChangeCount - HISTORY_SIZE); i < mChangeCount; i++) {
+            out.append("  -> ").append(mHistoryLevels[i % HISTORY_SIZE])
+                    .append(": ").append(mHistoryReasons[i % HISTORY_SIZE]).append('\n');
+        }
+    }
+
+    /**
+     * Set a new level, keep the reason and notify the listener.
+     * */
+    private void changeLevel(int level, String reason) {
+
+        if (level == mLevel){
+            return;
+        }
+
+        mLevel = level;
+        mHistoryLevels[mChangeCount % HISTORY_SIZE] = level;
+        mHistoryReasons[mChangeCount % HISTORY_SIZE] = reason;
+        mChangeCount++;
+
+        if (mCallbacks != null){
+            mCallbacks.onQualityChanged(level, reason);
+        }
+    }
+
+    /**
+     * Start a new window of frames.
+     * */
+    private void resetWindow() {
+
+        if (mWindowFrames > 0){
+            mLastShortest = mShortestInterval;
+        }
+
+        mShortestInterval = Long.MAX_VALUE;
+        mWindowFrames = 0;
+        mWindowOverruns = 0;
+        mWorstInterval = 0;
+    }
+}
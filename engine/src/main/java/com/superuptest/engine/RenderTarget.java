@@ -0,0 +1,34 @@
+package com.superuptest.engine;
+
+/**
+ * Interface of a surface the game is drawn on.
+ *
+ * FieldRenderer turns the border and the waves into rings and arcs, a RenderTarget
+ * only draws them. The app draws on an Android Canvas, SoftwareRasterizer draws
+ * into a pixel buffer on the JVM, both get the same rings and arcs.
+ * All the strokes are black with butt ends, the angles are in degrees clockwise from 3 o'clock.
+ */
+
+public interface RenderTarget {
+
+    /**
+     * Draw a full ring.
+     * @param centerX X coordinate of the centre.
+     * @param centerY Y coordinate of the centre.
+     * @param radius The radius to the middle of the stroke.
+     * @param strokeWidth The stroke width.
+     * */
+    void drawRing(float centerX, float centerY, float radius, float strokeWidth);
+
+    /**
+     * Draw a part of a ring.
+     * @param centerX X coordinate of the centre.
+     * @param centerY Y coordinate of the centre.
+     * @param radius The radius to the middle of the stroke.
+     * @param startDegrees The start of the arc.
+     * @param sweepDegrees The sweep of the arc.
+     * @param strokeWidth The stroke width.
+     * */
+    void drawArc(float centerX, float centerY, float radius, float startDegrees, float sweepDegrees,
+                 float strokeWidth);
+}
@@ -0,0 +1,449 @@
+package com.superuptest.engine;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayDeque;
+
+/**
+ * This class records a game session to a compact append-only binary log.
+ *
+ * The GameEngine writes the seed of its waves, every wave spawn and every input
+ * with the game time it was applied at, so the SessionReplayer can play the same game again.
+ *
+ * Records are written to a direct buffer on the game thread, a full buffer is queued
+ * for a writer thread that writes it to a FileChannel and gives it back, so the game thread
+ * never touches the file and never waits for it. When the writer is behind, a new buffer
+ * is allocated, up to MAX_BUFFERS, after that the full buffer is dropped and a TYPE_DROPPED
+ * record marks the gap, a log with a gap can not be replayed.
+ *
+ * The log is big endian:
+ * header - int MAGIC, short VERSION, long seed.
+ * record - byte type, long game time, then the fields of the type.
+ */
+
+public class SessionRecorder {
+
+    /**
+     * The logging tag of this Class
+     * */
+    private static final String TAG = "SessionRecorder";
+
+    /**
+     * First bytes of every log, "SUPT".
+     * */
+    static final int MAGIC = 0x53555054;
+
+    /**
+     * Version of the log format, 2 since the seed generates the holes by FastRandom,
+     * a log of version 1 would not spawn the recorded holes.
+     * */
+    static final short VERSION = 2;
+
+    /**
+     * Record of the game size - int width, int height.
+     * */
+    static final byte TYPE_SIZE = 1;
+
+    /**
+     * Record of a finger move - byte pointer id, float x, float y.
+     * */
+    static final byte TYPE_MOVE = 2;
+
+    /**
+     * Record of a finger touch sample - byte pointer id, float x, float y, long sample time.
+     * */
+    static final byte TYPE_SAMPLE = 3;
+
+    /**
+     * Record of a lifted finger - byte pointer id.
+     * */
+    static final byte TYPE_POINTER_UP = 4;
+
+    /**
+     * Record of all the fingers lifted.
+     * */
+    static final byte TYPE_TOUCH_UP = 5;
+
+    /**
+     * Record of a touch check between steps.
+     * */
+    static final byte TYPE_CHECK = 6;
+
+    /**
+     * Record of a setting - byte key, long value.
+     * */
+    static final byte TYPE_CONFIG = 7;
+
+    /**
+     * Record of a wave spawn, the game time is the spawn time.
+     * */
+    static final byte TYPE_PULSE = 8;
+
+    /**
+     * Record of the end of the game - int score.
+     * */
+    static final byte TYPE_END = 9;
+
+    /**
+     * Record of the records dropped before it - int count of the dropped buffers.
+     * */
+    static final byte TYPE_DROPPED = 10;
+
+    /**
+     * Setting key of the pulse interval.
+     * */
+    static final byte CONFIG_PULSE_INTERVAL = 1;
+
+    /**
+     * Setting key of the wave duration.
+     * */
+    static final byte CONFIG_WAVE_DURATION = 2;
+
+    /**
+     * Setting key of the touch mode.
+     * */
+    static final byte CONFIG_TOUCH_MODE = 3;
+
+    /**
+     * Setting key of the swept collision, 1 or 0.
+     * */
+    static final byte CONFIG_SWEPT = 4;
+
+    /**
+     * Setting key of the HitTester type of the app.
+     * */
+    static final byte CONFIG_HIT_TESTER = 5;
+
+    /**
+     * Size of every buffer.
+     * */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * The maximum number of buffers, minutes of records while the writer thread is stuck.
+     * */
+    private static final int MAX_BUFFERS = 64;
+
+    /**
+     * Size of the biggest record.
+     * */
+    private static final int MAX_RECORD_SIZE = 32;
+
+    /**
+     * The file of the log, opened by the writer thread.
+     * */
+    private final File mFile;
+
+    /**
+     * Lock of the buffers that are handed between the threads, never held while writing.
+     * */
+    private final Object mLock = new Object();
+
+    /**
+     * The buffer that records are written to, used only by the game thread.
+     * */
+    private ByteBuffer mActive = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+    /**
+     * The free buffers the writer thread gave back.
+     * */
+    private final ArrayDeque<ByteBuffer> mFree = new ArrayDeque<>();
+
+    /**
+     * The full buffers that wait for the writer thread, oldest first.
+     * */
+    private final ArrayDeque<ByteBuffer> mPending = new ArrayDeque<>();
+
+    /**
+     * The number of allocated buffers.
+     * */
+    private int mBufferCount = 1;
+
+    /**
+     * Count of the dropped buffers, used only by the game thread.
+     * */
+    private int mDroppedCount = 0;
+
+    /**
+     * Flag that tells if the log is closed, the writer thread ends after the last buffer.
+     * */
+    private boolean isClosed = false;
+
+    /**
+     * Flag that tells if the writer thread closed the file.
+     * */
+    private boolean isFinished = false;
+
+    /**
+     * The error of the writer thread, the rest of the log is dropped.
+     * */
+    private IOException mError;
+
+    /**
+     * Constructor, starts the writer thread.
+     * @param file The file of the log, it is replaced.
+     * */
+    public SessionRecorder(File file) {
+        this.mFile = file;
+
+        Thread writer = new Thread(getWriter(), TAG);
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Write the header of the log.
+     * @param seed The seed of the waves.
+     * */
+    void writeHeader(long seed) {
+        reserve(0);
+        mActive.putInt(MAGIC).putShort(VERSION).putLong(seed);
+    }
+
+    /**
+     * Record the game size.
+     * */
+    void recordSize(long time, int width, int height) {
+        start(TYPE_SIZE, time).putInt(width).putInt(height);
+    }
+
+    /**
+     * Record a finger move.
+     * */
+    void recordMove(long time, int pointerId, float x, float y) {
+        start(TYPE_MOVE, time).put((byte) pointerId).putFloat(x).putFloat(y);
+    }
+
+    /**
+     * Record a finger touch sample.
+     * */
+    void recordSample(long time, int pointerId, float x, float y, long sampleTime) {
+        start(TYPE_SAMPLE, time).put((byte) pointerId).putFloat(x).putFloat(y).putLong(sampleTime);
+    }
+
+    /**
+     * Record a lifted finger.
+     * */
+    void recordPointerUp(long time, int pointerId) {
+        start(TYPE_POINTER_UP, time).put((byte) pointerId);
+    }
+
+    /**
+     * Record that all the fingers were lifted.
+     * */
+    void recordTouchUp(long time) {
+        start(TYPE_TOUCH_UP, time);
+    }
+
+    /**
+     * Record a touch check between steps.
+     * */
+    void recordCheck(long time) {
+        start(TYPE_CHECK, time);
+    }
+
+    /**
+     * Record a setting.
+     * */
+    void recordConfig(long time, byte key, long value) {
+        start(TYPE_CONFIG, time).put(key).putLong(value);
+    }
+
+    /**
+     * Record a wave spawn.
+     * */
+    void recordPulse(long time) {
+        start(TYPE_PULSE, time);
+    }
+
+    /**
+     * Record the end of the game.
+     * */
+    void recordEnd(long time, int score) {
+        start(TYPE_END, time).putInt(score);
+    }
+
+    /**
+     * Hand the last records to the writer thread, the writer thread closes the file.
+     * Nothing is recorded after this call, it does not wait for the file.
+     * */
+    public void close() {
+        synchronized (mLock){
+
+            if (isClosed){
+                return;
+            }
+
+            if (mActive.position() > 0 && !handOver()){
+                mDroppedCount++;
+            }
+
+            isClosed = true;
+            mLock.notifyAll();
+        }
+    }
+
+    /**
+     * Getter for the count of the buffers that were dropped because the writer thread
+     * was behind, call it on the game thread.
+     * @return The count of dropped buffers, 0 when the log is complete.
+     * */
+    public int getDroppedCount() {
+        return mDroppedCount;
+    }
+
+    /**
+     * Wait until the writer thread wrote every record and closed the file,
+     * never call it on the UI thread.
+     * @throws IOException The error of the writer thread.
+     * @throws InterruptedException The waiting thread was interrupted.
+     * */
+    public void awaitClosed() throws IOException, InterruptedException {
+        synchronized (mLock){
+
+            while (!isFinished){
+                mLock.wait();
+            }
+
+            if (mError != null){
+                throw mError;
+            }
+        }
+    }
+
+    /**
+     * Start a record, a full buffer is handed to the writer thread first.
+     * @return The buffer to write the fields of the record to.
+     * */
+    private ByteBuffer start(byte type, long time) {
+        reserve(time);
+        return mActive.put(type).putLong(time);
+    }
+
+    /**
+     * Make sure the active buffer has room for the biggest record.
+     * @param time The game time of the next record, the time of a TYPE_DROPPED record.
+     * */
+    private void reserve(long time) {
+
+        if (mActive.remaining() >= MAX_RECORD_SIZE){
+            return;
+        }
+
+        //nothing is written after close()
+        if (isClosed){
+            mActive.clear();
+            return;
+        }
+
+        boolean queued;
+        synchronized (mLock){
+            queued = handOver();
+        }
+
+        //the replay stops at the gap instead of playing another game
+        if (!queued){
+            mDroppedCount++;
+            mActive.put(TYPE_DROPPED).putLong(time).putInt(mDroppedCount);
+        }
+    }
+
+    /**
+     * Queue the active buffer for the writer thread and take a free buffer, a new buffer
+     * when the writer thread is behind. Never waits, when every buffer is queued
+     * or the writer thread failed the active buffer is cleared and its records are dropped.
+     * Hold mLock.
+     * @return true if the records were queued.
+     * */
+    private boolean handOver() {
+
+        if (isFinished || (mFree.isEmpty() && mBufferCount == MAX_BUFFERS)){
+            mActive.clear();
+            return false;
+        }
+
+        mActive.flip();
+        mPending.addLast(mActive);
+
+        if (mFree.isEmpty()){
+            mActive = ByteBuffer.allocateDirect(BUFFER_SIZE);
+            mBufferCount++;
+        }else {
+            mActive = mFree.removeFirst();
+        }
+
+        mLock.notifyAll();
+        return true;
+    }
+
+    /**
+     * Getter for Runnable that writes the full buffers to the file.
+     * @return Runnable of the writer thread.
+     * */
+    private Runnable getWriter() {
+        return new Runnable() {
+            @Override
+            public void run() {
+                FileChannel channel = null;
+
+                try {
+                    channel = new FileOutputStream(mFile).getChannel();
+
+                    while (true){
+                        ByteBuffer buffer;
+
+                        synchronized (mLock){
+                            while (mPending.isEmpty() && !isClosed){
+                                mLock.wait();
+                            }
+
+                            if (mPending.isEmpty()){
+                                break;
+                            }
+                            buffer = mPending.removeFirst();
+                        }
+
+                        while (buffer.hasRemaining()){
+                            channel.write(buffer);
+                        }
+                        buffer.clear();
+
+                        synchronized (mLock){
+                            mFree.addLast(buffer);
+                        }
+                    }
+                } catch (IOException e) {
+                    mError = e;
+                } catch (InterruptedException e) {
+                    mError = new IOException(e);
+                } finally {
+                    closeChannel(channel);
+                }
+            }
+        };
+    }
+
+    /**
+     * Close the file and wake up the threads that wait for it.
+     * */
+    private void closeChannel(FileChannel channel) {
+
+        if (channel != null){
+            try {
+                channel.close();
+            } catch (IOException e) {
+                if (mError == null){
+                    mError = e;
+                }
+            }
+        }
+
+        synchronized (mLock){
+            isFinished = true;
+            mLock.notifyAll();
+        }
+    }
+}
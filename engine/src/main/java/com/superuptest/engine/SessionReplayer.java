@@ -0,0 +1,271 @@
+package com.superuptest.engine;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * This class plays a session that was recorded by the SessionRecorder.
+ *
+ * The GameEngine is created with the recorded seed, and every recorded input is applied
+ * at the same game time it was applied when it was recorded, between the same fixed steps,
+ * so the waves, the collisions, the score and the end of the game are the same.
+ *
+ * advance() plays the session at any frame rate, for example from the frames of a device,
+ * playToEnd() plays it at once without a device.
+ *
+ * The HitTester is not created by the replayer, the app creates the recorded type,
+ * getHitTesterType(). A log with dropped records ends the game at the gap.
+ */
+
+public class SessionReplayer {
+
+    /**
+     * The log, positioned at the next record.
+     * */
+    private final ByteBuffer mLog;
+
+    /**
+     * The seed of the recorded game.
+     * */
+    private final long mSeed;
+
+    /**
+     * The GameEngine that plays the session.
+     * */
+    private GameEngine mEngine;
+
+    /**
+     * Elapsed time that was not played yet by advance(), less than one step.
+     * */
+    private long mAccumulator = 0;
+
+    /**
+     * The recorded HitTester type of the app, 0 when it was not recorded.
+     * */
+    private int mHitTesterType = 0;
+
+    /**
+     * Flag that tells if the game was ended at dropped records.
+     * */
+    private boolean hasGap = false;
+
+    /**
+     * Constructor
+     * @param log The recorded log from its start.
+     * @throws IOException The log is not a session log.
+     * */
+    public SessionReplayer(ByteBuffer log) throws IOException {
+        this.mLog = log;
+
+        if (log.remaining() < 14 || log.getInt() != SessionRecorder.MAGIC
+                || log.getShort() != SessionRecorder.VERSION){
+            throw new IOException("not a session log");
+        }
+
+        mSeed = log.getLong();
+    }
+
+    /**
+     * Read a log file, never call it on the UI thread.
+     * @param file The log file.
+     * @return SessionReplayer of the log.
+     * @throws IOException The file can not be read or is not a session log.
+     * */
+    public static SessionReplayer load(File file) throws IOException {
+        FileChannel channel = new FileInputStream(file).getChannel();
+
+        try {
+            ByteBuffer log = ByteBuffer.allocate((int) channel.size());
+            while (log.hasRemaining() && channel.read(log) >= 0){
+                //read the whole log
+            }
+            log.flip();
+
+            return new SessionReplayer(log);
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Create the GameEngine that plays the session, with the recorded seed.
+     * @param callbacks Listener of the game events.
+     * @return The GameEngine, it must be moved only by this SessionReplayer.
+     * */
+    public GameEngine createEngine(GameEngine.GameEngineCallbacks callbacks) {
+        mEngine = new GameEngine(callbacks, mSeed);
+
+        //the settings and the size before the first step
+        applyRecords();
+        return mEngine;
+    }
+
+    /**
+     * Play real elapsed time in fixed steps, the recorded inputs are applied between
+     * the steps they were applied between, the time left is kept for the next call.
+     * @param elapsedNanos The real time that passed since the last call.
+     * */
+    public void advance(long elapsedNanos) {
+        mAccumulator += mEngine.getClock().toGameNanos(elapsedNanos);
+
+        while (mAccumulator >= GameEngine.STEP_NANOS && !mEngine.isOver()){
+            mAccumulator -= GameEngine.STEP_NANOS;
+            mEngine.step(GameEngine.STEP_NANOS);
+            applyRecords();
+        }
+
+        //the waves are drawn at the frame time, as GameEngine.advance() does
+        if (!mEngine.isOver()){
+            mEngine.growWaves(mEngine.getTime() + mAccumulator);
+        }
+    }
+
+    /**
+     * Play the whole session at once, until the game is over or the last record,
+     * the recorded wave spawns keep it going as long as the recorded game.
+     * */
+    public void playToEnd() {
+
+        while (!mEngine.isOver() && mLog.hasRemaining()){
+            mEngine.step(GameEngine.STEP_NANOS);
+            applyRecords();
+        }
+    }
+
+    /**
+     * Check if every record was played.
+     * @return true if the log has no more records.
+     * */
+    public boolean isFinished() {
+        return !mLog.hasRemaining();
+    }
+
+    /**
+     * Getter for the HitTester type the game was recorded with, set by createEngine(),
+     * the app sets a tester of this type to the engine.
+     * @return The type the app recorded, 0 for the geometric tester.
+     * */
+    public int getHitTesterType() {
+        return mHitTesterType;
+    }
+
+    /**
+     * Check if the game was ended where the SessionRecorder dropped records.
+     * @return true if the rest of the recorded game is missing.
+     * */
+    public boolean hasGap() {
+        return hasGap;
+    }
+
+    /**
+     * Getter for the seed of the recorded game.
+     * @return The seed of the holes.
+     * */
+    public long getSeed() {
+        return mSeed;
+    }
+
+    /**
+     * Apply every record until the current game time.
+     * */
+    private void applyRecords() {
+
+        while (mLog.hasRemaining()){
+            int position = mLog.position();
+            byte type = mLog.get();
+            long time = mLog.getLong();
+
+            if (time > mEngine.getTime()){
+                mLog.position(position);
+                return;
+            }
+
+            applyRecord(type, time);
+        }
+    }
+
+    /**
+     * Apply a record, the log is positioned at the fields of the record.
+     * */
+    private void applyRecord(byte type, long time) {
+        switch (type){
+
+            case SessionRecorder.TYPE_SIZE:
+                mEngine.setSize(mLog.getInt(), mLog.getInt());
+                break;
+
+            case SessionRecorder.TYPE_MOVE:
+                mEngine.pointerMove(mLog.get(), mLog.getFloat(), mLog.getFloat());
+                break;
+
+            case SessionRecorder.TYPE_SAMPLE:
+                mEngine.pointerMove(mLog.get(), mLog.getFloat(), mLog.getFloat(), mLog.getLong());
+                break;
+
+            case SessionRecorder.TYPE_POINTER_UP:
+                mEngine.pointerUp(mLog.get());
+                break;
+
+            case SessionRecorder.TYPE_TOUCH_UP:
+                mEngine.touchUp();
+                break;
+
+            case SessionRecorder.TYPE_CHECK:
+                mEngine.checkTouch();
+                break;
+
+            case SessionRecorder.TYPE_CONFIG:
+                applyConfig(mLog.get(), mLog.getLong());
+                break;
+
+            case SessionRecorder.TYPE_PULSE:
+                //the engine spawns the same waves by itself
+                break;
+
+            case SessionRecorder.TYPE_END:
+                mLog.getInt();
+                break;
+
+            case SessionRecorder.TYPE_DROPPED:
+                //the inputs after the gap belong to another game
+                hasGap = true;
+                mLog.position(mLog.limit());
+                mEngine.touchUp();
+                break;
+
+            default:
+                throw new IllegalStateException("unknown record " + type + " at " + time);
+        }
+    }
+
+    /**
+     * Apply a recorded setting.
+     * */
+    private void applyConfig(byte key, long value) {
+        switch (key){
+
+            case SessionRecorder.CONFIG_PULSE_INTERVAL:
+                mEngine.setPulseInterval(value);
+                break;
+
+            case SessionRecorder.CONFIG_WAVE_DURATION:
+                mEngine.setWaveDuration(value);
+                break;
+
+            case SessionRecorder.CONFIG_TOUCH_MODE:
+                mEngine.setTouchMode((int) value);
+                break;
+
+            case SessionRecorder.CONFIG_SWEPT:
+                mEngine.setSweptCollision(value != 0);
+                break;
+
+            case SessionRecorder.CONFIG_HIT_TESTER:
+                mHitTesterType = (int) value;
+                break;
+        }
+    }
+}
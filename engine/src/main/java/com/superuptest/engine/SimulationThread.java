@@ -0,0 +1,267 @@
+package com.superuptest.engine;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * This class runs a GameEngine on its own thread.
+ *
+ * The thread moves the game by the real elapsed time every fixed step, the inputs come
+ * from the UI thread through an InputQueue and every step publishes a WorldSnapshot
+ * through a SnapshotBuffer, so the UI thread only draws the newest snapshot and
+ * the game and the UI never wait for each other.
+ */
+
+public class SimulationThread implements GameEngine.GameEngineCallbacks {
+
+    /**
+     * The logging tag of this Class
+     * */
+    private static final String TAG = "SimulationThread";
+
+    /**
+     * Capacity of the input queue.
+     * */
+    private static final int INPUT_CAPACITY = 1024;
+
+    /**
+     * The GameEngine of the game, used only by the simulation thread after start().
+     * */
+    private final GameEngine mEngine;
+
+    /**
+     * Inputs from the UI thread.
+     * */
+    private final InputQueue mInput = new InputQueue(INPUT_CAPACITY);
+
+    /**
+     * Snapshots to the UI thread.
+     * */
+    private final SnapshotBuffer mSnapshots = new SnapshotBuffer();
+
+    /**
+     * The simulation thread.
+     * */
+    private final Thread mThread;
+
+    /**
+     * Flag that tells if the simulation should keep running.
+     * */
+    private volatile boolean isRunning = false;
+
+    /**
+     * SessionRecorder of the game, closed by the simulation thread when it ends.
+     * */
+    private SessionRecorder mRecorder;
+
+    /**
+     * LatencyTracer of the inputs, null when not traced.
+     * */
+    private LatencyTracer mTracer;
+
+    /**
+     * The System.nanoTime() of the game time of the engine.
+     * */
+    private long mLastTime;
+
+    /**
+     * Constructor
+     * @param seed The seed of the holes of the game.
+     * */
+    public SimulationThread(long seed) {
+        mEngine = new GameEngine(this, seed);
+        mThread = new Thread(getLoop(), TAG);
+    }
+
+    /**
+     * Getter for the GameEngine, to set it up before start().
+     * @return The GameEngine of the game.
+     * */
+    public GameEngine getEngine() {
+        return mEngine;
+    }
+
+    /**
+     * Setter for the SessionRecorder, before start().
+     * The simulation thread records to it and closes it when it ends.
+     * @param recorder The SessionRecorder of the game.
+     * */
+    public void setRecorder(SessionRecorder recorder) {
+        this.mRecorder = recorder;
+        mEngine.setRecorder(recorder);
+    }
+
+    /**
+     * Setter for the LatencyTracer, before start().
+     * The simulation thread traces the event time of every input it applies.
+     * @param tracer The LatencyTracer of the game.
+     * */
+    public void setLatencyTracer(LatencyTracer tracer) {
+        this.mTracer = tracer;
+        mEngine.setLatencyTracer(tracer);
+    }
+
+    /**
+     * Getter for the snapshots of the game, read by one thread only.
+     * @return SnapshotBuffer of the game.
+     * */
+    public SnapshotBuffer getSnapshots() {
+        return mSnapshots;
+    }
+
+    /**
+     * Start the simulation thread.
+     * */
+    public void start() {
+        isRunning = true;
+        mThread.start();
+    }
+
+    /**
+     * Stop the simulation thread, it ends after the current step, does not wait for it.
+     * */
+    public void stop() {
+        isRunning = false;
+        LockSupport.unpark(mThread);
+    }
+
+    /**
+     * Wait until the simulation thread ended, after it the GameEngine, the LatencyTracer
+     * and the SessionRecorder can be read on the waiting thread.
+     * A thread that was never started is ended.
+     * @param timeoutMillis The longest wait in milliseconds.
+     * @return true if the thread ended, false if it is still running and nothing it writes
+     * may be read.
+     * */
+    public boolean join(long timeoutMillis) {
+
+        try {
+            mThread.join(timeoutMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        return !mThread.isAlive();
+    }
+
+    /**
+     * Send an input to the simulation thread, from one thread only.
+     * @param type One of the InputQueue TYPE constants.
+     * @param pointerId The pointer id of the finger.
+     * @param x The X value.
+     * @param y The Y value.
+     * @param timeNanos The event time in the System.nanoTime() time base.
+     * @return false if the queue is full and the input was dropped.
+     * */
+    public boolean post(int type, int pointerId, float x, float y, long timeNanos) {
+        boolean offered = mInput.offer(type, pointerId, x, y, timeNanos);
+
+        //apply the input now instead of after the current wait
+        LockSupport.unpark(mThread);
+        return offered;
+    }
+
+    /**
+     * Getter for Runnable of the simulation thread.
+     * @return Runnable of the simulation thread.
+     * */
+    private Runnable getLoop() {
+        return new Runnable() {
+            @Override
+            public void run() {
+                mLastTime = System.nanoTime();
+                publish();
+
+                try {
+                    while (isRunning && !mEngine.isOver()){
+                        applyInputs();
+
+                        long now = System.nanoTime();
+                        mEngine.advance(now - mLastTime);
+                        mLastTime = now;
+                        publish();
+
+                        LockSupport.parkNanos(GameEngine.STEP_NANOS);
+                    }
+                } finally {
+                    publish();
+
+                    if (mRecorder != null){
+                        mRecorder.close();
+                    }
+                }
+            }
+        };
+    }
+
+    /**
+     * Apply every input that is in the queue.
+     * */
+    private void applyInputs() {
+        int type;
+
+        while ((type = mInput.poll()) != 0){
+
+            //the event time of the touch inputs, a check is not an input
+            if (mTracer != null && type != InputQueue.TYPE_CHECK && type != InputQueue.TYPE_SIZE){
+                mTracer.onInput(mInput.getTime());
+            }
+
+            switch (type){
+
+                case InputQueue.TYPE_MOVE:
+                    mEngine.pointerMove(mInput.getPointerId(), mInput.getX(), mInput.getY());
+                    break;
+
+                case InputQueue.TYPE_SAMPLE:
+                    //the advanced time of the engine is at mLastTime, the time left of the steps included
+                    mEngine.pointerMove(mInput.getPointerId(), mInput.getX(), mInput.getY(),
+                            mEngine.getAdvancedTime() + mEngine.getClock().scale(mInput.getTime() - mLastTime));
+                    break;
+
+                case InputQueue.TYPE_POINTER_UP:
+                    mEngine.pointerUp(mInput.getPointerId());
+                    break;
+
+                case InputQueue.TYPE_TOUCH_UP:
+                    mEngine.touchUp();
+                    break;
+
+                case InputQueue.TYPE_CHECK:
+                    mEngine.checkTouch();
+                    break;
+
+                case InputQueue.TYPE_SIZE:
+                    mEngine.setSize((int) mInput.getX(), (int) mInput.getY());
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Write the game to the back snapshot and publish it.
+     * */
+    private void publish() {
+        mEngine.writeSnapshot(mSnapshots.getBack());
+        mSnapshots.publish();
+    }
+
+    @Override
+    public void onWaveSpawned(Wave wave) {
+        //the snapshots carry the waves
+    }
+
+    @Override
+    public void onWaveRemoved(Wave wave) {
+
+    }
+
+    @Override
+    public void onScoreChanged(int score) {
+        //the snapshots carry the score
+    }
+
+    @Override
+    public void onGameOver() {
+        //the snapshots carry the game over flag, the loop ends after this step
+    }
+}
@@ -0,0 +1,72 @@
+package com.superuptest.engine;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * This class hands WorldSnapshots from one writer thread to one reader thread without locks.
+ *
+ * There are three snapshots: the writer writes the back snapshot, the reader reads the
+ * front snapshot, and the middle snapshot is the last one published. Publishing and
+ * acquiring swap a snapshot with the middle one atomically, so the writer never waits
+ * for the reader, the reader always gets the newest published snapshot and
+ * a snapshot is never written while it is read.
+ */
+
+public class SnapshotBuffer {
+
+    /**
+     * Flag in mMiddle that tells the middle snapshot was not acquired yet.
+     * */
+    private static final int FRESH = 4;
+
+    /**
+     * The three snapshots.
+     * */
+    private final WorldSnapshot[] mSnapshots = {
+            new WorldSnapshot(), new WorldSnapshot(), new WorldSnapshot()};
+
+    /**
+     * Index of the middle snapshot and the FRESH flag.
+     * */
+    private final AtomicInteger mMiddle = new AtomicInteger(1);
+
+    /**
+     * Index of the back snapshot, used only by the writer.
+     * */
+    private int mBack = 0;
+
+    /**
+     * Index of the front snapshot, used only by the reader.
+     * */
+    private int mFront = 2;
+
+    /**
+     * Getter for the snapshot to write, writer thread only.
+     * @return The back snapshot.
+     * */
+    public WorldSnapshot getBack() {
+        return mSnapshots[mBack];
+    }
+
+    /**
+     * Publish the back snapshot, writer thread only.
+     * The writer gets the old middle snapshot as its new back snapshot.
+     * */
+    public void publish() {
+        mBack = mMiddle.getAndSet(mBack | FRESH) & ~FRESH;
+    }
+
+    /**
+     * Get the newest published snapshot, reader thread only.
+     * The snapshot is not written until the next call.
+     * @return The front snapshot.
+     * */
+    public WorldSnapshot acquire() {
+
+        if ((mMiddle.get() & FRESH) != 0){
+            mFront = mMiddle.getAndSet(mFront) & ~FRESH;
+        }
+
+        return mSnapshots[mFront];
+    }
+}
@@ -0,0 +1,209 @@
+package com.superuptest.engine;
+
+import java.util.Arrays;
+
+/**
+ * This class is a RenderTarget that draws into an ARGB pixel buffer on the JVM.
+ *
+ * It needs no device, so the drawing of FieldRenderer can be compared with golden images
+ * and measured on a build machine. A pixel is drawn when its centre is on the stroke,
+ * as the not anti aliased Paints of the views draw it, and as CollisionEngine checks a point.
+ * Every row of a ring is filled as the spans between the inner and the outer circle,
+ * a pixel of an arc is compared with the start and the end directions of the arc
+ * by cross products, no angle is computed for a pixel.
+ */
+
+public class SoftwareRasterizer implements RenderTarget {
+
+    /**
+     * The logging tag of this Class.
+     * */
+    private static final String TAG = "SoftwareRasterizer";
+
+    /**
+     * The colour of the strokes, opaque black.
+     * */
+    public static final int STROKE_COLOR = 0xFF000000;
+
+    /**
+     * Full circle in degrees.
+     * */
+    private static final float FULL_CIRCLE = 360;
+
+    /**
+     * The width of the buffer in pixels.
+     * */
+    private final int mWidth;
+
+    /**
+     * The height of the buffer in pixels.
+     * */
+    private final int mHeight;
+
+    /**
+     * The pixels, row after row, ARGB.
+     * */
+    private final int[] mPixels;
+
+    /**
+     * Direction of the start of the arc being drawn.
+     * */
+    private float mStartX, mStartY;
+
+    /**
+     * Direction of the end of the arc being drawn.
+     * */
+    private float mEndX, mEndY;
+
+    /**
+     * Flag that tells if the arc being drawn is wider than half a circle.
+     * */
+    private boolean isWide;
+
+    /**
+     * Constructor
+     * @param width The width in pixels.
+     * @param height The height in pixels.
+     * */
+    public SoftwareRasterizer(int width, int height) {
+        this.mWidth = width;
+        this.mHeight = height;
+        this.mPixels = new int[width * height];
+    }
+
+    /**
+     * Fill the whole buffer with one colour.
+     * @param color The ARGB colour, 0 is transparent.
+     * */
+    public void clear(int color) {
+        Arrays.fill(mPixels, color);
+    }
+
+    @Override
+    public void drawRing(float centerX, float centerY, float radius, float strokeWidth) {
+        fillRing(centerX, centerY, radius, strokeWidth, 0, FULL_CIRCLE);
+    }
+
+    @Override
+    public void drawArc(float centerX, float centerY, float radius, float startDegrees, float sweepDegrees,
+                        float strokeWidth) {
+        fillRing(centerX, centerY, radius, strokeWidth, startDegrees, sweepDegrees);
+    }
+
+    /**
+     * Fill the pixels of a ring whose centre is on the stroke and inside the arc.
+     * */
+    private void fillRing(float centerX, float centerY, float radius, float strokeWidth,
+                          float startDegrees, float sweepDegrees) {
+
+        if (sweepDegrees <= 0 || radius <= 0){
+            return;
+        }
+
+        float outer = radius + strokeWidth / 2;
+        float inner = Math.max(0, radius - strokeWidth / 2);
+        float outerSq = outer * outer;
+        float innerSq = inner * inner;
+        boolean isFull = sweepDegrees >= FULL_CIRCLE;
+
+        if (!isFull){
+            double start = Math.toRadians(startDegrees);
+            double end = Math.toRadians(startDegrees + sweepDegrees);
+            mStartX = (float) Math.cos(start);
+            mStartY = (float) Math.sin(start);
+            mEndX = (float) Math.cos(end);
+            mEndY = (float) Math.sin(end);
+            isWide = sweepDegrees > FULL_CIRCLE / 2;
+        }
+
+        int top = Math.max(0, (int) Math.floor(centerY - outer));
+        int bottom = Math.min(mHeight - 1, (int) Math.ceil(centerY + outer));
+
+        for (int y = top; y <= bottom; y++) {
+            float dy = y + 0.5f - centerY;
+            float dySq = dy * dy;
+
+            if (dySq > outerSq){
+                continue;
+            }
+
+            //the pixel centres between the outer circle edges
+            float outerX = (float) Math.sqrt(outerSq - dySq);
+            int left = Math.max(0, (int) Math.ceil(centerX - outerX - 0.5f));
+            int right = Math.min(mWidth - 1, (int) Math.floor(centerX + outerX - 0.5f));
+
+            if (dySq >= innerSq){
+                fillSpan(y, left, right, dy, centerX, isFull);
+                continue;
+            }
+
+            //the row crosses the inner circle, two spans
+            float innerX = (float) Math.sqrt(innerSq - dySq);
+            fillSpan(y, left, Math.min(right, (int) Math.floor(centerX - innerX - 0.5f)),
+                    dy, centerX, isFull);
+            fillSpan(y, Math.max(left, (int) Math.ceil(centerX + innerX - 0.5f)), right,
+                    dy, centerX, isFull);
+        }
+    }
+
+    /**
+     * Fill the pixels of a row span that are inside the arc.
+     * */
+    private void fillSpan(int y, int from, int to, float dy, float centerX, boolean isFull) {
+        int row = y * mWidth;
+
+        for (int x = from; x <= to; x++) {
+
+            if (isFull || isInArc(x + 0.5f - centerX, dy)){
+                mPixels[row + x] = STROKE_COLOR;
+            }
+        }
+    }
+
+    /**
+     * Check if a direction from the centre is inside the arc being drawn.
+     * @return true if the direction is clockwise from the start and counterclockwise from the end.
+     * */
+    private boolean isInArc(float dx, float dy) {
+
+        //clockwise on the screen, where y goes down, is a positive cross product
+        boolean afterStart = mStartX * dy - mStartY * dx >= 0;
+        boolean beforeEnd = dx * mEndY - dy * mEndX >= 0;
+
+        return isWide ? afterStart || beforeEnd : afterStart && beforeEnd;
+    }
+
+    /**
+     * Getter for a pixel.
+     * @param x X coordinate of the pixel.
+     * @param y Y coordinate of the pixel.
+     * @return The ARGB colour of the pixel.
+     * */
+    public int getPixel(int x, int y) {
+        return mPixels[y * mWidth + x];
+    }
+
+    /**
+     * Getter for the pixel buffer, row after row.
+     * @return The ARGB pixels, not a copy.
+     * */
+    public int[] getPixels() {
+        return mPixels;
+    }
+
+    /**
+     * Getter for the width.
+     * @return The width in pixels.
+     * */
+    public int getWidth() {
+        return mWidth;
+    }
+
+    /**
+     * Getter for the height.
+     * @return The height in pixels.
+     * */
+    public int getHeight() {
+        return mHeight;
+    }
+}
@@ -0,0 +1,128 @@
+package com.superuptest.engine;
+
+/**
+ * This class queues the touch samples of a finger in game time order.
+ *
+ * A MotionEvent holds a batch of historical samples, every sample is queued here
+ * and the GameEngine consumes them when the game time reaches them.
+ * The samples are kept in primitive ring arrays, nothing is allocated unless
+ * the queue is full.
+ */
+
+class TouchPath {
+
+    /**
+     * X coordinates of the samples.
+     * */
+    private float[] mX = new float[32];
+
+    /**
+     * Y coordinates of the samples.
+     * */
+    private float[] mY = new float[32];
+
+    /**
+     * Game times of the samples in nanoseconds.
+     * */
+    private long[] mTime = new long[32];
+
+    /**
+     * Index of the oldest sample.
+     * */
+    private int mHead = 0;
+
+    /**
+     * Count of the queued samples.
+     * */
+    private int mCount = 0;
+
+    /**
+     * Queue a sample after all the queued samples.
+     * @param x X coordinate of the finger.
+     * @param y Y coordinate of the finger.
+     * @param timeNanos The game time of the sample.
+     * */
+    void add(float x, float y, long timeNanos) {
+
+        if (mCount == mTime.length){
+            grow();
+        }
+
+        int index = (mHead + mCount) & (mTime.length - 1);
+        mX[index] = x;
+        mY[index] = y;
+        mTime[index] = timeNanos;
+        mCount++;
+    }
+
+    /**
+     * Check if there is a sample that the game time reached.
+     * @param timeNanos The game time.
+     * @return true if the oldest sample is at this time or before.
+     * */
+    boolean hasSampleAt(long timeNanos) {
+        return mCount > 0 && mTime[mHead] <= timeNanos;
+    }
+
+    /**
+     * Getter for the X coordinate of the oldest sample.
+     * @return X coordinate of the oldest sample.
+     * */
+    float getFirstX() {
+        return mX[mHead];
+    }
+
+    /**
+     * Getter for the Y coordinate of the oldest sample.
+     * @return Y coordinate of the oldest sample.
+     * */
+    float getFirstY() {
+        return mY[mHead];
+    }
+
+    /**
+     * Getter for the game time of the oldest sample.
+     * @return The game time of the oldest sample in nanoseconds.
+     * */
+    long getFirstTime() {
+        return mTime[mHead];
+    }
+
+    /**
+     * Remove the oldest sample.
+     * */
+    void removeFirst() {
+        mHead = (mHead + 1) & (mTime.length - 1);
+        mCount--;
+    }
+
+    /**
+     * Remove all the samples.
+     * */
+    void clear() {
+        mHead = 0;
+        mCount = 0;
+    }
+
+    /**
+     * Double the ring arrays, the oldest sample moves to index 0.
+     * */
+    private void grow() {
+        int length = mTime.length;
+        float[] x = new float[length * 2];
+        float[] y = new float[length * 2];
+        long[] time = new long[length * 2];
+
+        for (int i = 0; i < mCount; i++) {
+            int index = (mHead + i) & (length - 1);
+            x[i] = mX[index];
+            y[i] = mY[index];
+            time[i] = mTime[index];
+        }
+
+        mX = x;
+        mY = y;
+        mTime = time;
+        mHead = 0;
+    }
+}
@@ -0,0 +1,206 @@
+package com.superuptest.engine;
+
+/**
+ * This class tracks the fingers on the screen by pointer id.
+ *
+ * Every pointer id has its slot in preallocated primitive arrays, the ids of the
+ * fingers that are down are kept in a compact list so all of them are checked
+ * in one pass, nothing is allocated however many fingers are down.
+ */
+
+class TouchTracker {
+
+    /**
+     * Count of the pointer ids that are tracked, pointer ids from 0 to 9.
+     * */
+    static final int MAX_POINTERS = 10;
+
+    /**
+     * X coordinate of every finger, the last checked position.
+     * */
+    private final float[] mX = new float[MAX_POINTERS];
+
+    /**
+     * Y coordinate of every finger, the last checked position.
+     * */
+    private final float[] mY = new float[MAX_POINTERS];
+
+    /**
+     * Flags that tell which fingers are down and tracked.
+     * */
+    private final boolean[] isDown = new boolean[MAX_POINTERS];
+
+    /**
+     * Flags of the fingers that are out of the game until they are lifted.
+     * */
+    private final boolean[] isBlocked = new boolean[MAX_POINTERS];
+
+    /**
+     * Touch samples of every finger that the game time did not reach yet.
+     * */
+    private final TouchPath[] mPaths = new TouchPath[MAX_POINTERS];
+
+    /**
+     * Pointer ids of the fingers that are down, in the order they touched.
+     * */
+    private final int[] mActive = new int[MAX_POINTERS];
+
+    /**
+     * Count of the fingers that are down.
+     * */
+    private int mActiveCount = 0;
+
+    /**
+     * Constructor
+     * */
+    TouchTracker() {
+        for (int i = 0; i < MAX_POINTERS; i++) {
+            mPaths[i] = new TouchPath();
+        }
+    }
+
+    /**
+     * Check if a pointer id can be tracked.
+     * @param pointerId The pointer id.
+     * @return true if the id is in range and the finger is not out of the game.
+     * */
+    boolean canTrack(int pointerId) {
+        return pointerId >= 0 && pointerId < MAX_POINTERS && !isBlocked[pointerId];
+    }
+
+    /**
+     * Check if a finger is down and tracked.
+     * @param pointerId The pointer id.
+     * @return true if the finger is down.
+     * */
+    boolean isDown(int pointerId) {
+        return pointerId >= 0 && pointerId < MAX_POINTERS && isDown[pointerId];
+    }
+
+    /**
+     * Start tracking a finger.
+     * @param pointerId The pointer id, canTrack() must be true.
+     * @param x X coordinate of the finger.
+     * @param y Y coordinate of the finger.
+     * */
+    void down(int pointerId, float x, float y) {
+
+        if (!isDown[pointerId]){
+            isDown[pointerId] = true;
+            mActive[mActiveCount++] = pointerId;
+        }
+
+        setPosition(pointerId, x, y);
+    }
+
+    /**
+     * Stop tracking a lifted finger, the pointer id can be tracked again.
+     * @param pointerId The pointer id.
+     * */
+    void up(int pointerId) {
+
+        if (pointerId < 0 || pointerId >= MAX_POINTERS){
+            return;
+        }
+
+        remove(pointerId);
+        isBlocked[pointerId] = false;
+    }
+
+    /**
+     * Stop tracking a finger that is out of the game, the finger is ignored until it is lifted.
+     * @param pointerId The pointer id.
+     * */
+    void block(int pointerId) {
+        remove(pointerId);
+        isBlocked[pointerId] = true;
+    }
+
+    /**
+     * Stop tracking all the fingers.
+     * */
+    void clear() {
+        for (int i = 0; i < MAX_POINTERS; i++) {
+            isDown[i] = false;
+            isBlocked[i] = false;
+            mPaths[i].clear();
+        }
+        mActiveCount = 0;
+    }
+
+    /**
+     * Setter for the last checked position of a finger.
+     * @param pointerId The pointer id.
+     * @param x X coordinate of the finger.
+     * @param y Y coordinate of the finger.
+     * */
+    void setPosition(int pointerId, float x, float y) {
+        mX[pointerId] = x;
+        mY[pointerId] = y;
+    }
+
+    /**
+     * Getter for the X coordinate of a finger.
+     * @param pointerId The pointer id.
+     * @return The last checked X coordinate of the finger.
+     * */
+    float getX(int pointerId) {
+        return mX[pointerId];
+    }
+
+    /**
+     * Getter for the Y coordinate of a finger.
+     * @param pointerId The pointer id.
+     * @return The last checked Y coordinate of the finger.
+     * */
+    float getY(int pointerId) {
+        return mY[pointerId];
+    }
+
+    /**
+     * Getter for the queued touch samples of a finger.
+     * @param pointerId The pointer id.
+     * @return The TouchPath of the finger.
+     * */
+    TouchPath getPath(int pointerId) {
+        return mPaths[pointerId];
+    }
+
+    /**
+     * Getter for the count of fingers that are down.
+     * @return The count of fingers that are down.
+     * */
+    int getActiveCount() {
+        return mActiveCount;
+    }
+
+    /**
+     * Getter for the pointer id of a finger that is down.
+     * @param index The index from 0 to getActiveCount() - 1.
+     * @return The pointer id.
+     * */
+    int getActiveId(int index) {
+        return mActive[index];
+    }
+
+    /**
+     * Remove a finger from the compact list and clear its samples.
+     * */
+    private void remove(int pointerId) {
+
+        if (!isDown[pointerId]){
+            return;
+        }
+
+        isDown[pointerId] = false;
+        mPaths[pointerId].clear();
+
+        for (int i = 0; i < mActiveCount; i++) {
+            if (mActive[i] == pointerId){
+                mActiveCount--;
+                System.arraycopy(mActive, i + 1, mActive, i, mActiveCount - i);
+                break;
+            }
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.superuptest.engine;
+
+/**
+ * This class runs two HitTesters side by side and counts where they disagree.
+ *
+ * The answer of the primary tester is used by the game, the reference tester is only
+ * compared with it, so a fast tester can be played with evidence that it matches
+ * the tester it replaces. Every disagreement is sent to the callbacks with its position.
+ */
+
+public class VerifyingHitTester implements HitTester {
+
+    /**
+     * The logging tag of this Class.
+     * */
+    private static final String TAG = "VerifyingHitTester";
+
+    /**
+     * The tester that answers.
+     * */
+    private final HitTester mPrimary;
+
+    /**
+     * The tester that the answers are compared with.
+     * */
+    private final HitTester mReference;
+
+    /**
+     * Interface instance used to send the disagreements, may be null.
+     * */
+    private final VerifyingHitTesterCallbacks mCallbacks;
+
+    /**
+     * The number of checked points.
+     * */
+    private long mCheckCount = 0;
+
+    /**
+     * The number of points the testers disagreed on.
+     * */
+    private long mMismatchCount = 0;
+
+    /**
+     * Interface to send the disagreements.
+     * */
+    public interface VerifyingHitTesterCallbacks {
+
+        /**
+         * Called when the testers disagreed on a point.
+         * @param x X coordinate of the point.
+         * @param y Y coordinate of the point.
+         * @param primary The answer of the primary tester, used by the game.
+         * @param reference The answer of the reference tester.
+         * */
+        void onHitMismatch(float x, float y, boolean primary, boolean reference);
+    }
+
+    /**
+     * Constructor
+     * @param primary The tester that answers.
+     * @param reference The tester that the answers are compared with.
+     * @param callbacks Listener of the disagreements, may be null.
+     * */
+    public VerifyingHitTester(HitTester primary, HitTester reference, VerifyingHitTesterCallbacks callbacks) {
+        this.mPrimary = primary;
+        this.mReference = reference;
+        this.mCallbacks = callbacks;
+    }
+
+    /**
+     * Check a point with both testers.
+     * @return The answer of the primary tester.
+     * */
+    @Override
+    public boolean isOnWall(float x, float y) {
+        boolean primary = mPrimary.isOnWall(x, y);
+        boolean reference = mReference.isOnWall(x, y);
+
+        mCheckCount++;
+
+        if (primary != reference){
+            mMismatchCount++;
+
+            if (mCallbacks != null){
+                mCallbacks.onHitMismatch(x, y, primary, reference);
+            }
+        }
+
+        return primary;
+    }
+
+    /**
+     * Getter for the number of checked points.
+     * @return The number of checked points.
+     * */
+    public long getCheckCount() {
+        return mCheckCount;
+    }
+
+    /**
+     * Getter for the number of disagreements.
+     * @return The number of points the testers disagreed on.
+     * */
+    public long getMismatchCount() {
+        return mMismatchCount;
+    }
+
+    /**
+     * Write the counts as one line.
+     * @param out The builder to append to.
+     * */
+    public void dump(StringBuilder out) {
+        out.append("hit test checks ").append(mCheckCount)
+                .append(" mismatches ").append(mMismatchCount)
+                .append('\n');
+    }
+}
@@ -0,0 +1,57 @@
+package com.superuptest.engine;
+
+/**
+ * This class represent a live wave of the game.
+ *
+ * The wave holds its WaveShape and the game time it was spawned at,
+ * the GameEngine grows the shape from that time.
+ * A removed wave is reset and reused by WavePool, so it must not be kept after
+ * GameEngineCallbacks.onWaveRemoved().
+ */
+
+public class Wave {
+
+    /**
+     * The geometry of the wave.
+     * */
+    private final WaveShape mShape;
+
+    /**
+     * The game time in nanoseconds the wave was spawned at.
+     * */
+    private long mSpawnTime;
+
+    /**
+     * Constructor
+     * @param shape The geometry of the wave.
+     * @param spawnTime The game time in nanoseconds the wave was spawned at.
+     * */
+    public Wave(WaveShape shape, long spawnTime) {
+        this.mShape = shape;
+        this.mSpawnTime = spawnTime;
+    }
+
+    /**
+     * Reset the wave for a new spawn, the shape is reset separately.
+     * @param spawnTime The game time in nanoseconds the wave was spawned at.
+     * */
+    void reset(long spawnTime) {
+        this.mSpawnTime = spawnTime;
+    }
+
+    /**
+     * Getter for the wave geometry.
+     * @return The WaveShape of the wave.
+     * */
+    public WaveShape getShape() {
+        return mShape;
+    }
+
+    /**
+     * Getter for the spawn time.
+     * @return The game time in nanoseconds the wave was spawned at.
+     * */
+    public long getSpawnTime() {
+        return mSpawnTime;
+    }
+}
@@ -0,0 +1,105 @@
+package com.superuptest.engine;
+
+/**
+ * This class holds the removed waves of a GameEngine for reuse.
+ *
+ * A reused wave gets new random holes from the WaveShapeGenerator, the same holes
+ * a new wave would get, so a seeded game spawns the same waves with or without the pool.
+ * The pool is bounded, a wave recycled into a full pool is left to the garbage collector.
+ */
+
+class WavePool {
+
+    /**
+     * The logging tag of this Class.
+     * */
+    private static final String TAG = "WavePool";
+
+    /**
+     * The generator of the wave holes.
+     * */
+    private final WaveShapeGenerator mGenerator;
+
+    /**
+     * The stroke width of the new waves.
+     * */
+    private final float mStrokeWidth;
+
+    /**
+     * The free waves, the first mFreeCount are used.
+     * */
+    private final Wave[] mFree;
+
+    /**
+     * The number of free waves.
+     * */
+    private int mFreeCount = 0;
+
+    /**
+     * The hits and misses of this pool.
+     * */
+    private final PoolStats mStats = new PoolStats();
+
+    /**
+     * Constructor
+     * @param generator The generator of the wave holes.
+     * @param strokeWidth The stroke width of the new waves.
+     * @param capacity The maximum number of free waves.
+     * */
+    WavePool(WaveShapeGenerator generator, float strokeWidth, int capacity) {
+        this.mGenerator = generator;
+        this.mStrokeWidth = strokeWidth;
+        this.mFree = new Wave[capacity];
+    }
+
+    /**
+     * Get a wave with new random holes, a free wave if there is one.
+     * @param spawnTime The game time in nanoseconds the wave is spawned at.
+     * @return The wave, its radius is 0.
+     * */
+    Wave obtain(long spawnTime) {
+
+        if (mFreeCount == 0){
+            mStats.recordMiss();
+            return new Wave(mGenerator.generate(new WaveShape(mStrokeWidth, WaveShapeGenerator.MAX_HOLES)),
+                    spawnTime);
+        }
+
+        mStats.recordHit();
+        Wave wave = mFree[--mFreeCount];
+        mFree[mFreeCount] = null;
+
+        mGenerator.generate(wave.getShape());
+        wave.reset(spawnTime);
+        return wave;
+    }
+
+    /**
+     * Prefetch the holes of the next waves, call it between the spawns.
+     * */
+    void prefetch() {
+        mGenerator.prefetch();
+    }
+
+    /**
+     * Return a removed wave to the pool.
+     * @param wave The wave, it must not be used after this call.
+     * */
+    void recycle(Wave wave) {
+
+        if (mFreeCount == mFree.length){
+            mStats.recordDropped();
+            return;
+        }
+
+        mFree[mFreeCount++] = wave;
+    }
+
+    /**
+     * Getter for the hits and misses of this pool.
+     * @return The PoolStats of this pool.
+     * */
+    PoolStats getStats() {
+        return mStats;
+    }
+}
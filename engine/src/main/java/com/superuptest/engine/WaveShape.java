@@ -0,0 +1,340 @@
+package com.superuptest.engine;
+
+/**
+ * This class holds the geometry of a single wave, relative to the centre of the game.
+ *
+ * The wave is a ring with a given radius and stroke width, every hole cuts an angular
+ * gap in the ring around the hole angel. The gap ends where the hole edge, a disc with
+ * the hole size radius, crosses the middle of the stroke.
+ *
+ * The same gaps are used by the renderers to draw the ring as arcs and by
+ * CollisionEngine to check if a point is on the wave, so what is drawn and what
+ * is hit can not disagree.
+ *
+ * A shape can be reset with new holes by setHoles(), so the shape of a removed wave
+ * is reused by the next wave without allocating.
+ */
+
+public class WaveShape {
+
+    /**
+     * Full circle in radians.
+     * */
+    private static final double TWO_PI = Math.PI * 2;
+
+    /**
+     * The ring stroke width.
+     * */
+    private final float mStrokeWidth;
+
+    /**
+     * Half of the ring stroke width.
+     * */
+    private final float mHalfStroke;
+
+    /**
+     * Angel of every hole in degrees, only the first mHoleCount are used.
+     * */
+    private final int[] mHoleAngels;
+
+    /**
+     * Radius of every hole, same order as the hole angels.
+     * */
+    private final int[] mHolesSizes;
+
+    /**
+     * The number of holes of the wave.
+     * */
+    private int mHoleCount;
+
+    /**
+     * Start angel in radians of every gap, from 0 to 2PI, sorted.
+     * */
+    private final double[] mGapStart;
+
+    /**
+     * End angel in radians of every gap, same order as mGapStart, may pass 2PI.
+     * */
+    private final double[] mGapEnd;
+
+    /**
+     * The biggest end angel of the gaps.
+     * */
+    private double mMaxGapEnd = 0;
+
+    /**
+     * Flag that tells if a hole erase the whole ring at the current radius.
+     * */
+    private boolean isErased = false;
+
+    /**
+     * Current radius of the ring, measured to the middle of the stroke.
+     * */
+    private float mRadius = 0;
+
+    /**
+     * Count of the setHoles() calls, a new count is a new wave in the reused shape.
+     * */
+    private int mHolesVersion = 0;
+
+    /**
+     * Constructor
+     * @param strokeWidth The stroke width of the ring.
+     * @param holeAngels The angel of every hole in degrees, clockwise from 3 o'clock
+     * as the arcs are drawn.
+     * @param holesSizes The radius of every hole.
+     * */
+    public WaveShape(float strokeWidth, int[] holeAngels, int[] holesSizes) {
+        this.mStrokeWidth = strokeWidth;
+        this.mHalfStroke = strokeWidth / 2;
+        this.mHoleAngels = holeAngels;
+        this.mHolesSizes = holesSizes;
+        this.mHoleCount = holeAngels.length;
+
+        mGapStart = new double[holeAngels.length];
+        mGapEnd = new double[holeAngels.length];
+    }
+
+    /**
+     * Constructor of a shape without holes that has room for holes set later.
+     * @param strokeWidth The stroke width of the ring.
+     * @param maxHoles The maximum number of holes setHoles() can set.
+     * */
+    public WaveShape(float strokeWidth, int maxHoles) {
+        this(strokeWidth, new int[maxHoles], new int[maxHoles]);
+        this.mHoleCount = 0;
+    }
+
+    /**
+     * Reset the shape with new holes, the radius is 0 until it is set.
+     * Nothing is allocated, the holes are copied.
+     * @param holeAngels The angel of every hole in degrees.
+     * @param holesSizes The radius of every hole.
+     * @param holeCount The number of holes to copy from the arrays.
+     * */
+    public void setHoles(int[] holeAngels, int[] holesSizes, int holeCount) {
+
+        if (holeCount > mHoleAngels.length){
+            throw new IllegalArgumentException("the shape has room for " + mHoleAngels.length
+                    + " holes, not " + holeCount);
+        }
+
+        System.arraycopy(holeAngels, 0, mHoleAngels, 0, holeCount);
+        System.arraycopy(holesSizes, 0, mHolesSizes, 0, holeCount);
+        mHoleCount = holeCount;
+        mHolesVersion++;
+
+        mRadius = 0;
+        setupGaps();
+    }
+
+    /**
+     * Setter for the current radius of the ring, computes the gaps for the new radius.
+     * @param radius The radius to the middle of the stroke, 0 or less means nothing drawn.
+     * */
+    public void setRadius(float radius) {
+
+        if (radius == mRadius){
+            return;
+        }
+
+        this.mRadius = radius;
+        setupGaps();
+    }
+
+    /**
+     * Getter for the current radius of the ring.
+     * @return The radius to the middle of the stroke.
+     * */
+    public float getRadius() {
+        return mRadius;
+    }
+
+    /**
+     * Getter for the stroke width of the ring.
+     * @return The stroke width.
+     * */
+    public float getStrokeWidth() {
+        return mStrokeWidth;
+    }
+
+    /**
+     * Getter for the number of holes.
+     * @return The number of holes, the used part of the hole arrays.
+     * */
+    public int getHoleCount() {
+        return mHoleCount;
+    }
+
+    /**
+     * Getter for the version of the holes, it changes when the shape is reused for a new wave.
+     * @return The count of the setHoles() calls.
+     * */
+    int getHolesVersion() {
+        return mHolesVersion;
+    }
+
+    /**
+     * Getter for the hole angels.
+     * @return The angel of every hole in degrees, only the first getHoleCount() are used.
+     * */
+    public int[] getHoleAngels() {
+        return mHoleAngels;
+    }
+
+    /**
+     * Getter for the hole sizes.
+     * @return The radius of every hole, only the first getHoleCount() are used.
+     * */
+    public int[] getHolesSizes() {
+        return mHolesSizes;
+    }
+
+    /**
+     * Compute the gap of every hole at the current radius and sort them by start angel.
+     * */
+    private void setupGaps() {
+        isErased = false;
+        mMaxGapEnd = 0;
+
+        if (mRadius <= 0){
+            return;
+        }
+
+        for (int i = 0; i < mHoleCount; i++) {
+
+            //the hole erase the whole ring when it is wider than the ring
+            if (mHolesSizes[i] >= 2 * mRadius){
+                isErased = true;
+                return;
+            }
+
+            //half of the gap, the angel where the hole edge crosses the ring
+            double half = 2 * Math.asin(mHolesSizes[i] / (2 * mRadius));
+            double start = (Math.toRadians(mHoleAngels[i]) - half) % TWO_PI;
+            if (start < 0){
+                start += TWO_PI;
+            }
+
+            //insertion sort by start angel, there are only few holes
+            int j = i;
+            while (j > 0 && mGapStart[j - 1] > start){
+                mGapStart[j] = mGapStart[j - 1];
+                mGapEnd[j] = mGapEnd[j - 1];
+                j--;
+            }
+            mGapStart[j] = start;
+            mGapEnd[j] = start + 2 * half;
+
+            mMaxGapEnd = Math.max(mMaxGapEnd, mGapEnd[j]);
+        }
+    }
+
+    /**
+     * Compute the visible arcs of the ring at the current radius,
+     * the arcs are the parts of the ring between the gaps.
+     * Nothing is allocated, the arrays must have room for one arc per hole.
+     *
+     * @param startDegrees Filled with the start of every arc in degrees, clockwise from 3 o'clock
+     * as Canvas.drawArc() expects.
+     * @param sweepDegrees Filled with the sweep of every arc in degrees.
+     * @return The number of arcs, 0 if nothing is visible.
+     * */
+    public int getArcs(float[] startDegrees, float[] sweepDegrees) {
+        return getArcs(startDegrees, sweepDegrees, 0);
+    }
+
+    /**
+     * Compute the visible arcs of the ring at the current radius into a part of the arrays.
+     * @param startDegrees Filled with the start of every arc in degrees from the offset.
+     * @param sweepDegrees Filled with the sweep of every arc in degrees from the offset.
+     * @param offset The index of the first arc in the arrays.
+     * @return The number of arcs, 0 if nothing is visible.
+     * */
+    public int getArcs(float[] startDegrees, float[] sweepDegrees, int offset) {
+
+        if (mRadius <= 0 || isErased){
+            return 0;
+        }
+
+        int gaps = mHoleCount;
+
+        if (gaps == 0){
+            startDegrees[offset] = 0;
+            sweepDegrees[offset] = 360;
+            return 1;
+        }
+
+        //a gap that passes 360 degrees also covers the beginning of the circle
+        double wrap = mMaxGapEnd - TWO_PI;
+
+        int count = 0;
+        double cursor = mGapEnd[0];
+
+        for (int i = 1; i < gaps; i++) {
+            double from = Math.max(cursor, wrap);
+
+            if (mGapStart[i] > from){
+                count = addArc(startDegrees, sweepDegrees, offset, count, from, mGapStart[i]);
+            }
+            cursor = Math.max(cursor, mGapEnd[i]);
+        }
+
+        //the last arc closes the circle back to the first gap
+        if (mGapStart[0] + TWO_PI > cursor){
+            count = addArc(startDegrees, sweepDegrees, offset, count, cursor, mGapStart[0] + TWO_PI);
+        }
+
+        return count;
+    }
+
+    /**
+     * Write one arc to the output arrays.
+     * @return The new number of arcs.
+     * */
+    private static int addArc(float[] startDegrees, float[] sweepDegrees, int offset, int count,
+                              double from, double to) {
+        startDegrees[offset + count] = (float) Math.toDegrees(from);
+        sweepDegrees[offset + count] = (float) Math.toDegrees(to - from);
+        return count + 1;
+    }
+
+    /**
+     * Check if a point is on the ring and not inside one of the gaps.
+     * @param dx X coordinate of the point relative to the centre of the wave.
+     * @param dy Y coordinate of the point relative to the centre of the wave.
+     * @return true if the point is on the wall of the wave.
+     * */
+    public boolean isOnWall(float dx, float dy) {
+
+        if (mRadius <= 0 || isErased){
+            return false;
+        }
+
+        //compare squared distances to avoid Math.sqrt()
+        float distSq = dx * dx + dy * dy;
+        float inner = Math.max(0, mRadius - mHalfStroke);
+        float outer = mRadius + mHalfStroke;
+
+        if (distSq < inner * inner || distSq > outer * outer){
+            return false;
+        }
+
+        //the point is on the ring, check that it is not in a gap
+        double angel = Math.atan2(dy, dx);
+        if (angel < 0){
+            angel += TWO_PI;
+        }
+
+        for (int i = 0; i < mHoleCount; i++) {
+
+            //a gap that passes 2PI is checked again one circle later
+            if ((angel >= mGapStart[i] && angel <= mGapEnd[i])
+                    || angel + TWO_PI <= mGapEnd[i]){
+                return false;
+            }
+        }
+
+        return true;
+    }
+}
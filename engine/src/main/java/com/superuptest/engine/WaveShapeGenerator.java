@@ -0,0 +1,270 @@
+package com.superuptest.engine;
+
+/**
+ * This class generate WaveShapes with random holes.
+ *
+ * Every wave has 1 to 3 holes, each hole has a random angel and a random size.
+ * The angels are on a grid of SLOT_DEGREES and two holes are always MIN_HOLE_SPACING
+ * apart, the holes are placed in constant time: the holes are drawn as distinct slots
+ * of a circle without the spacing, sorted, spread by the spacing and rotated by
+ * a random angel, no angel is drawn again.
+ *
+ * The patterns come from a FastRandom and are kept in a small ring buffer,
+ * prefetch() fills it between the spawns so generate() only copies the next pattern.
+ * The patterns are the same whenever they are prefetched, the same seed generates
+ * the same waves.
+ */
+
+public class WaveShapeGenerator {
+
+    /**
+     * The maximum number of holes in a wave.
+     * */
+    public static final int MAX_HOLES = 3;
+
+    /**
+     * The smallest angel between two holes in degrees, the gaps of the biggest holes
+     * stay apart from a ring radius of about 200.
+     * */
+    public static final int MIN_HOLE_SPACING = 60;
+
+    /**
+     * The grid of the hole angels in degrees.
+     * */
+    static final int SLOT_DEGREES = 10;
+
+    /**
+     * The number of patterns kept ahead of the spawns.
+     * */
+    static final int PREFETCH_SIZE = 4;
+
+    /**
+     * The number of angels of the grid.
+     * */
+    private static final int SLOTS = 360 / SLOT_DEGREES;
+
+    /**
+     * The spacing in slots.
+     * */
+    private static final int SPACING_SLOTS = MIN_HOLE_SPACING / SLOT_DEGREES;
+
+    /**
+     * FastRandom instance.
+     * */
+    private final FastRandom mRand;
+
+    /**
+     * The stroke width of the generated waves.
+     * */
+    private final float mStrokeWidth;
+
+    /**
+     * The number of holes of every prefetched pattern, a ring of PREFETCH_SIZE patterns.
+     * */
+    private final int[] mPatternHoles = new int[PREFETCH_SIZE];
+
+    /**
+     * The hole angels of every prefetched pattern, MAX_HOLES per pattern.
+     * */
+    private final int[] mPatternAngels = new int[PREFETCH_SIZE * MAX_HOLES];
+
+    /**
+     * The hole sizes of every prefetched pattern, MAX_HOLES per pattern.
+     * */
+    private final int[] mPatternSizes = new int[PREFETCH_SIZE * MAX_HOLES];
+
+    /**
+     * Index of the next pattern.
+     * */
+    private int mFirst = 0;
+
+    /**
+     * The number of prefetched patterns.
+     * */
+    private int mCount = 0;
+
+    /**
+     * Hole angels of the wave being generated, reused for every wave.
+     * */
+    private final int[] mHoleAngels = new int[MAX_HOLES];
+
+    /**
+     * Hole sizes of the wave being generated, reused for every wave.
+     * */
+    private final int[] mHolesSizes = new int[MAX_HOLES];
+
+    /**
+     * Slots of the pattern being generated, reused for every pattern.
+     * */
+    private final int[] mSlots = new int[MAX_HOLES];
+
+    /**
+     * Constructor
+     * @param strokeWidth The stroke width of the generated waves.
+     * */
+    public WaveShapeGenerator(float strokeWidth) {
+        this(strokeWidth, System.nanoTime());
+    }
+
+    /**
+     * Constructor
+     * @param strokeWidth The stroke width of the generated waves.
+     * @param seed The seed of the random holes, the same seed generates the same waves.
+     * */
+    public WaveShapeGenerator(float strokeWidth, long seed) {
+        this.mStrokeWidth = strokeWidth;
+        this.mRand = new FastRandom(seed);
+    }
+
+    /**
+     * Generate new WaveShape with random holes.
+     * @return new WaveShape, the radius is 0 until it is set.
+     * */
+    public WaveShape generate() {
+        return generate(new WaveShape(mStrokeWidth, MAX_HOLES));
+    }
+
+    /**
+     * Reset a WaveShape with the next random holes, the same random holes generate() would create.
+     * Nothing is allocated, the pattern is generated now when none was prefetched.
+     * @param shape The shape to reset, with room for MAX_HOLES holes.
+     * @return The same shape, the radius is 0 until it is set.
+     * */
+    public WaveShape generate(WaveShape shape) {
+
+        if (mCount == 0){
+            prefetchPattern();
+        }
+
+        int holes = mPatternHoles[mFirst];
+        System.arraycopy(mPatternAngels, mFirst * MAX_HOLES, mHoleAngels, 0, holes);
+        System.arraycopy(mPatternSizes, mFirst * MAX_HOLES, mHolesSizes, 0, holes);
+        mFirst = (mFirst + 1) % PREFETCH_SIZE;
+        mCount--;
+
+        shape.setHoles(mHoleAngels, mHolesSizes, holes);
+        return shape;
+    }
+
+    /**
+     * Fill the ring buffer of patterns, call it between the spawns.
+     * */
+    public void prefetch() {
+
+        while (mCount < PREFETCH_SIZE){
+            prefetchPattern();
+        }
+    }
+
+    /**
+     * Getter for the number of prefetched patterns.
+     * @return The patterns generate() can use without generating.
+     * */
+    int getPrefetchedCount() {
+        return mCount;
+    }
+
+    /**
+     * Generate the next pattern at the end of the ring buffer.
+     * */
+    private void prefetchPattern() {
+        int index = (mFirst + mCount) % PREFETCH_SIZE;
+        int holes = generateNumOfHoles();
+
+        mPatternHoles[index] = holes;
+        setupHoleAngels(mPatternAngels, index * MAX_HOLES, holes);
+        setupHolesSizes(mPatternSizes, index * MAX_HOLES, holes);
+        mCount++;
+    }
+
+    /**
+     * Fill array with random angels for each hole, MIN_HOLE_SPACING apart.
+     * @param holeAngelsArr The array of hole angels to fill.
+     * @param offset The index of the first hole in the array.
+     * @param numOfHoles The number of holes.
+     * */
+    private void setupHoleAngels(int[] holeAngelsArr, int offset, int numOfHoles) {
+
+        //the slots left when every hole takes its spacing
+        int free = SLOTS - numOfHoles * (SPACING_SLOTS - 1);
+
+        //distinct slots, a drawn slot that was taken is replaced by the last possible slot
+        for (int i = 0; i < numOfHoles; i++) {
+            int last = free - numOfHoles + i;
+            int slot = mRand.nextInt(last + 1);
+
+            mSlots[i] = isTaken(slot, i) ? last : slot;
+        }
+
+        //insertion sort, there are only few holes
+        for (int i = 1; i < numOfHoles; i++) {
+            int slot = mSlots[i];
+            int j = i;
+            while (j > 0 && mSlots[j - 1] > slot){
+                mSlots[j] = mSlots[j - 1];
+                j--;
+            }
+            mSlots[j] = slot;
+        }
+
+        //spread by the spacing, the last hole is a spacing before the first one around the circle
+        int rotation = mRand.nextInt(SLOTS);
+        for (int i = 0; i < numOfHoles; i++) {
+            int slot = mSlots[i] + i * (SPACING_SLOTS - 1) + rotation;
+            holeAngelsArr[offset + i] = slot % SLOTS * SLOT_DEGREES;
+        }
+    }
+
+    /**
+     * Check if a slot was already drawn for the pattern being generated.
+     * @param slot The slot.
+     * @param count The number of drawn slots.
+     * @return true if the slot is taken.
+     * */
+    private boolean isTaken(int slot, int count) {
+
+        for (int i = 0; i < count; i++) {
+            if (mSlots[i] == slot){
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+
+    /**
+     * Fill array with random hole size radius for each hole.
+     * @param holesSizeArr The array of hole sizes to fill.
+     * @param offset The index of the first hole in the array.
+     * @param numOfHoles The number of holes.
+     * */
+    private void setupHolesSizes(int[] holesSizeArr, int offset, int numOfHoles) {
+
+        for (int i = 0; i < numOfHoles; i++) {
+            holesSizeArr[offset + i] = getRandHoleSize();
+        }
+    }
+
+    /**
+     * Return random number from 1 to 3, represent number of holes in a wave.
+     * @return random number from 1 to 3, represent number of holes in a wave.
+     */
+    private int generateNumOfHoles(){
+        return mRand.nextInt(MAX_HOLES) + 1;
+    }
+
+
+    /**
+     * Return random number from 50 to 100 that represent hole size.
+     * @return random number from 50 to 100 that represent hole size.
+     */
+    private int getRandHoleSize(){
+
+        int low = 5;
+        int high = 11;
+
+        int result = mRand.nextInt(high-low) + low;
+        return result*10;
+    }
+}
@@ -0,0 +1,173 @@
+package com.superuptest.engine;
+
+/**
+ * This class is a copy of what the renderer needs from the GameEngine at one game time:
+ * the radius and the visible arcs of every wave, the score and the game over flag.
+ *
+ * The GameEngine writes it, a renderer on another thread reads it,
+ * SnapshotBuffer makes sure they never use the same snapshot at the same time.
+ */
+
+public class WorldSnapshot {
+
+    /**
+     * The game time of the snapshot.
+     * */
+    private long mTime = 0;
+
+    /**
+     * The score at the snapshot time.
+     * */
+    private int mScore = 0;
+
+    /**
+     * Flag that tells if the game was over at the snapshot time.
+     * */
+    private boolean isOver = false;
+
+    /**
+     * Count of the waves, the oldest wave first.
+     * */
+    private int mWaveCount = 0;
+
+    /**
+     * Radius of every wave.
+     * */
+    private float[] mRadius = new float[16];
+
+    /**
+     * Count of the arcs of every wave.
+     * */
+    private int[] mArcCount = new int[16];
+
+    /**
+     * Start of every arc in degrees, MAX_HOLES places for every wave.
+     * */
+    private float[] mArcStart = new float[16 * WaveShapeGenerator.MAX_HOLES];
+
+    /**
+     * Sweep of every arc in degrees, MAX_HOLES places for every wave.
+     * */
+    private float[] mArcSweep = new float[16 * WaveShapeGenerator.MAX_HOLES];
+
+    /**
+     * Start writing the game state to this snapshot, the waves are added after it.
+     * The arrays grow only when there are more waves than ever before.
+     * @param time The game time.
+     * @param score The score.
+     * @param over The game over flag.
+     * */
+    void write(long time, int score, boolean over) {
+        this.mTime = time;
+        this.mScore = score;
+        this.isOver = over;
+        this.mWaveCount = 0;
+    }
+
+    /**
+     * Add the next wave to this snapshot.
+     * @param shape The WaveShape of the wave at the snapshot time.
+     * */
+    void addWave(WaveShape shape) {
+
+        if (mWaveCount == mRadius.length){
+            grow();
+        }
+
+        mRadius[mWaveCount] = shape.getRadius();
+        mArcCount[mWaveCount] = shape.getArcs(mArcStart, mArcSweep,
+                mWaveCount * WaveShapeGenerator.MAX_HOLES);
+        mWaveCount++;
+    }
+
+    /**
+     * Getter for the game time of the snapshot.
+     * @return The game time in nanoseconds.
+     * */
+    public long getTime() {
+        return mTime;
+    }
+
+    /**
+     * Getter for the score.
+     * @return The score at the snapshot time.
+     * */
+    public int getScore() {
+        return mScore;
+    }
+
+    /**
+     * Getter for the game over flag.
+     * @return true if the game was over at the snapshot time.
+     * */
+    public boolean isOver() {
+        return isOver;
+    }
+
+    /**
+     * Getter for the count of the waves.
+     * @return The count of the waves.
+     * */
+    public int getWaveCount() {
+        return mWaveCount;
+    }
+
+    /**
+     * Getter for the radius of a wave.
+     * @param wave The index of the wave, 0 is the oldest and biggest wave.
+     * @return The radius to the middle of the stroke.
+     * */
+    public float getRadius(int wave) {
+        return mRadius[wave];
+    }
+
+    /**
+     * Getter for the count of the visible arcs of a wave.
+     * @param wave The index of the wave.
+     * @return The count of the arcs, 0 if nothing is visible.
+     * */
+    public int getArcCount(int wave) {
+        return mArcCount[wave];
+    }
+
+    /**
+     * Getter for the start of an arc.
+     * @param wave The index of the wave.
+     * @param arc The index of the arc of the wave.
+     * @return The start of the arc in degrees, as Canvas.drawArc() expects.
+     * */
+    public float getArcStart(int wave, int arc) {
+        return mArcStart[wave * WaveShapeGenerator.MAX_HOLES + arc];
+    }
+
+    /**
+     * Getter for the sweep of an arc.
+     * @param wave The index of the wave.
+     * @param arc The index of the arc of the wave.
+     * @return The sweep of the arc in degrees.
+     * */
+    public float getArcSweep(int wave, int arc) {
+        return mArcSweep[wave * WaveShapeGenerator.MAX_HOLES + arc];
+    }
+
+    /**
+     * Double the arrays.
+     * */
+    private void grow() {
+        int length = mRadius.length * 2;
+        float[] radius = new float[length];
+        int[] arcCount = new int[length];
+        float[] arcStart = new float[length * WaveShapeGenerator.MAX_HOLES];
+        float[] arcSweep = new float[length * WaveShapeGenerator.MAX_HOLES];
+
+        System.arraycopy(mRadius, 0, radius, 0, mWaveCount);
+        System.arraycopy(mArcCount, 0, arcCount, 0, mWaveCount);
+        System.arraycopy(mArcStart, 0, arcStart, 0, mWaveCount * WaveShapeGenerator.MAX_HOLES);
+        System.arraycopy(mArcSweep, 0, arcSweep, 0, mWaveCount * WaveShapeGenerator.MAX_HOLES);
+
+        mRadius = radius;
+        mArcCount = arcCount;
+        mArcStart = arcStart;
+        mArcSweep = arcSweep;
+    }
+}
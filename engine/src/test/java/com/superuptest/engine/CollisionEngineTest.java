@@ -0,0 +1,95 @@
+package com.superuptest.engine;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests that compare the radius ordered CollisionEngine with checking every wave.
+ */
+public class CollisionEngineTest {
+
+    private static final int CENTER = 500;
+
+    private static final int POINTS = 20000;
+
+    @Test
+    public void binarySearchMatchesCheckingEveryWave() {
+        ArrayList<WaveShape> waves = new ArrayList<>();
+        CollisionEngine engine = createEngine(waves, 60, 8);
+
+        assertMatches(engine, waves, new Random(1));
+    }
+
+    @Test
+    public void removingAnyWaveKeepsTheOrder() {
+        ArrayList<WaveShape> waves = new ArrayList<>();
+        CollisionEngine engine = createEngine(waves, 40, 12);
+
+        //the oldest waves first, like the GameEngine, then one from the middle
+        for (int i = 0; i < 20; i++) {
+            engine.removeWave(waves.remove(0));
+        }
+        engine.removeWave(waves.remove(7));
+
+        assertEquals(waves.size(), engine.getWaveCount());
+        assertMatches(engine, waves, new Random(2));
+
+        //the ring array wraps around when new waves come
+        for (int i = 0; i < 20; i++) {
+            WaveShape wave = new WaveShapeGenerator(GameEngine.WAVE_STROKE_WIDTH).generate();
+            wave.setRadius(3 - i);
+            waves.add(wave);
+            engine.addWave(wave);
+        }
+
+        assertMatches(engine, waves, new Random(3));
+    }
+
+    /**
+     * Create waves from the biggest radius, the step is smaller than the stroke
+     * so the rings overlap.
+     * */
+    private static CollisionEngine createEngine(ArrayList<WaveShape> waves, int count, int step) {
+        WaveShapeGenerator generator = new WaveShapeGenerator(GameEngine.WAVE_STROKE_WIDTH);
+        CollisionEngine engine = new CollisionEngine();
+        engine.setCenter(CENTER, CENTER);
+        engine.setBorder(CENTER, GameEngine.BORDER_STROKE_WIDTH);
+
+        for (int i = 0; i < count; i++) {
+            WaveShape wave = generator.generate();
+            wave.setRadius(CENTER - 20 - i * step);
+            waves.add(wave);
+            engine.addWave(wave);
+        }
+
+        return engine;
+    }
+
+    private static void assertMatches(CollisionEngine engine, ArrayList<WaveShape> waves, Random random) {
+        CollisionEngine border = new CollisionEngine();
+        border.setCenter(CENTER, CENTER);
+        border.setBorder(CENTER, GameEngine.BORDER_STROKE_WIDTH);
+
+        int hits = 0;
+        for (int i = 0; i < POINTS; i++) {
+            float x = random.nextFloat() * CENTER * 2;
+            float y = random.nextFloat() * CENTER * 2;
+
+            boolean expected = border.isOnWall(x, y);
+            for (int j = 0; j < waves.size() && !expected; j++) {
+                expected = waves.get(j).isOnWall(x - CENTER, y - CENTER);
+            }
+
+            assertEquals("point " + x + "," + y, expected, engine.isOnWall(x, y));
+            if (expected){
+                hits++;
+            }
+        }
+
+        assertTrue(hits > 0);
+    }
+}
@@ -0,0 +1,205 @@
+package com.superuptest.engine;
+
+import org.junit.Test;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+
+import javax.imageio.ImageIO;
+
+import static org.junit.Assert.*;
+
+/**
+ * Golden image tests of the FieldRenderer drawn by the SoftwareRasterizer.
+ *
+ * A changed drawing fails with the count of changed pixels and writes the new image
+ * to build/golden for a diff, run with -Dgolden.update=true to accept it.
+ */
+public class FieldRendererTest {
+
+    private static final int WIDTH = 540;
+
+    private static final int HEIGHT = 960;
+
+    private final FieldRenderer mRenderer = new FieldRenderer();
+
+    @Test
+    public void borderMatchesGolden() throws Exception {
+        SoftwareRasterizer raster = new SoftwareRasterizer(WIDTH, HEIGHT);
+        mRenderer.drawBorder(raster, WIDTH / 2f, HEIGHT / 2f);
+
+        assertGolden("border", raster);
+    }
+
+    @Test
+    public void seededGameMatchesGolden() throws Exception {
+        assertGolden("seeded_game", render(playedEngine()));
+    }
+
+    @Test
+    public void snapshotDrawsSameAsEngine() throws Exception {
+        GameEngine engine = playedEngine();
+        WorldSnapshot snapshot = new WorldSnapshot();
+        engine.writeSnapshot(snapshot);
+
+        SoftwareRasterizer raster = new SoftwareRasterizer(WIDTH, HEIGHT);
+        mRenderer.drawBorder(raster, WIDTH / 2f, HEIGHT / 2f);
+        mRenderer.drawSnapshot(raster, snapshot, WIDTH / 2f, HEIGHT / 2f);
+
+        assertArrayEquals(render(engine).getPixels(), raster.getPixels());
+    }
+
+    @Test
+    public void drawnPixelsMatchCollision() throws Exception {
+        GameEngine engine = playedEngine();
+        SoftwareRasterizer raster = render(engine);
+
+        //the degrees of the arcs are rounded to floats, only edge pixels may differ
+        int mismatches = 0;
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                boolean drawn = raster.getPixel(x, y) != 0;
+                if (drawn != engine.isOnWall(x + 0.5f, y + 0.5f)){
+                    mismatches++;
+                }
+            }
+        }
+
+        assertTrue("mismatches " + mismatches, mismatches < WIDTH * HEIGHT / 10000);
+    }
+
+    @Test
+    public void cappedRendererDrawsNewestWaves() throws Exception {
+        GameEngine engine = playedEngine();
+        assertTrue(engine.getWaveCount() > 2);
+
+        FieldRenderer capped = new FieldRenderer();
+        capped.setMaxWaves(2);
+        SoftwareRasterizer raster = new SoftwareRasterizer(WIDTH, HEIGHT);
+        capped.drawWaves(raster, engine, WIDTH / 2f, HEIGHT / 2f);
+
+        SoftwareRasterizer newest = new SoftwareRasterizer(WIDTH, HEIGHT);
+        for (int i = engine.getWaveCount() - 2; i < engine.getWaveCount(); i++) {
+            mRenderer.drawWave(newest, engine.getWave(i).getShape(), WIDTH / 2f, HEIGHT / 2f);
+        }
+
+        assertArrayEquals(newest.getPixels(), raster.getPixels());
+    }
+
+    @Test
+    public void coarseRendererStaysCloseToExact() throws Exception {
+        GameEngine engine = playedEngine();
+        SoftwareRasterizer exact = render(engine);
+
+        FieldRenderer coarse = new FieldRenderer();
+        coarse.setCoarseGeometry(true);
+        SoftwareRasterizer raster = new SoftwareRasterizer(WIDTH, HEIGHT);
+        coarse.drawBorder(raster, WIDTH / 2f, HEIGHT / 2f);
+        coarse.drawWaves(raster, engine, WIDTH / 2f, HEIGHT / 2f);
+
+        //the radius moves by half a pixel at most and the arcs by a degree
+        int drawn = 0;
+        int changed = 0;
+        for (int i = 0; i < exact.getPixels().length; i++) {
+            if (exact.getPixels()[i] != 0){
+                drawn++;
+            }
+            if (exact.getPixels()[i] != raster.getPixels()[i]){
+                changed++;
+            }
+        }
+
+        assertTrue("changed " + changed + " of " + drawn, changed < drawn / 10);
+    }
+
+    @Test
+    public void coarseRendererReusesArcsWhileRadiusIsRounded() throws Exception {
+        GameEngine engine = playedEngine();
+        FieldRenderer coarse = new FieldRenderer();
+        coarse.setCoarseGeometry(true);
+
+        SoftwareRasterizer first = new SoftwareRasterizer(WIDTH, HEIGHT);
+        coarse.drawWaves(first, engine, WIDTH / 2f, HEIGHT / 2f);
+        assertEquals(0, coarse.getReusedCount());
+
+        //the same frame again is drawn from the kept arcs
+        SoftwareRasterizer second = new SoftwareRasterizer(WIDTH, HEIGHT);
+        coarse.drawWaves(second, engine, WIDTH / 2f, HEIGHT / 2f);
+        long reused = coarse.getReusedCount();
+        assertEquals(engine.getWaveCount(), reused);
+        assertArrayEquals(first.getPixels(), second.getPixels());
+
+        //grown waves are computed again
+        engine.advance(GameEngine.PULSE_INTERVAL / 10);
+        coarse.drawWaves(new SoftwareRasterizer(WIDTH, HEIGHT), engine, WIDTH / 2f, HEIGHT / 2f);
+        assertEquals(reused, coarse.getReusedCount());
+    }
+
+    /**
+     * Create a seeded game with a few growing waves.
+     * @return The GameEngine.
+     * */
+    private GameEngine playedEngine() {
+        GameEngine engine = new GameEngine(new GameEngineTest.RecordingCallbacks(), 23);
+        engine.setSize(WIDTH, HEIGHT);
+        engine.advance(GameEngine.PULSE_INTERVAL * 4 + GameEngine.PULSE_INTERVAL / 2);
+        return engine;
+    }
+
+    /**
+     * Draw the border and the waves of a game.
+     * @return The SoftwareRasterizer with the drawing.
+     * */
+    private SoftwareRasterizer render(GameEngine engine) {
+        SoftwareRasterizer raster = new SoftwareRasterizer(WIDTH, HEIGHT);
+        mRenderer.drawBorder(raster, WIDTH / 2f, HEIGHT / 2f);
+        mRenderer.drawWaves(raster, engine, WIDTH / 2f, HEIGHT / 2f);
+        return raster;
+    }
+
+    /**
+     * Compare a drawing with its golden image.
+     * @param name The name of the golden image.
+     * @param raster The drawing.
+     * */
+    private void assertGolden(String name, SoftwareRasterizer raster) throws IOException {
+        BufferedImage actual = new BufferedImage(raster.getWidth(), raster.getHeight(), BufferedImage.TYPE_INT_ARGB);
+        actual.setRGB(0, 0, raster.getWidth(), raster.getHeight(), raster.getPixels(), 0, raster.getWidth());
+
+        if (Boolean.getBoolean("golden.update")){
+            ImageIO.write(actual, "png", new File("src/test/resources/golden/" + name + ".png"));
+            return;
+        }
+
+        InputStream in = getClass().getResourceAsStream("/golden/" + name + ".png");
+        assertNotNull("no golden image " + name + ", run with -Dgolden.update=true", in);
+
+        BufferedImage golden;
+        try {
+            golden = ImageIO.read(in);
+        } finally {
+            in.close();
+        }
+
+        assertEquals(golden.getWidth(), actual.getWidth());
+        assertEquals(golden.getHeight(), actual.getHeight());
+
+        int changed = 0;
+        for (int y = 0; y < golden.getHeight(); y++) {
+            for (int x = 0; x < golden.getWidth(); x++) {
+                if (golden.getRGB(x, y) != actual.getRGB(x, y)){
+                    changed++;
+                }
+            }
+        }
+
+        if (changed > 0){
+            File diff = new File("build/golden/" + name + ".png");
+            diff.getParentFile().mkdirs();
+            ImageIO.write(actual, "png", diff);
+            fail(changed + " pixels of " + name + " changed, the new image is " + diff.getAbsolutePath());
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.superuptest.engine;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests of the Histogram percentiles and the FrameStats frame accounting.
+ */
+public class FrameStatsTest {
+
+    private static final long VSYNC = FrameStats.DEFAULT_VSYNC_PERIOD;
+
+    @Test
+    public void percentilesAreWithinOneSubBucket() {
+        Histogram histogram = new Histogram();
+        for (long value = 1; value <= 10000; value++) {
+            histogram.record(value * 1000);
+        }
+
+        assertEquals(10000, histogram.getCount());
+        assertEquals(10000000, histogram.getMax());
+        assertWithin(5000000, histogram.getPercentile(50));
+        assertWithin(9500000, histogram.getPercentile(95));
+        assertWithin(9900000, histogram.getPercentile(99));
+        assertEquals(10000000, histogram.getPercentile(100));
+    }
+
+    @Test
+    public void smallValuesAreExact() {
+        Histogram histogram = new Histogram();
+        histogram.record(3);
+        histogram.record(7);
+        histogram.record(-5);
+
+        assertEquals(0, histogram.getPercentile(1));
+        assertEquals(3, histogram.getPercentile(50));
+        assertEquals(7, histogram.getPercentile(99));
+
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getPercentile(50));
+    }
+
+    @Test
+    public void lateFramesCountDroppedFrames() {
+        FrameStats stats = new FrameStats();
+
+        stats.recordFrame(VSYNC);
+        stats.recordFrame(VSYNC + VSYNC / 4);
+        stats.recordFrame(VSYNC * 3);
+        stats.recordFrame(VSYNC / 2);
+
+        assertEquals(2, stats.getDroppedFrameCount());
+        assertEquals(4, stats.getFrameIntervals().getCount());
+        assertEquals(2, stats.getDroppedFrames().getMax());
+    }
+
+    @Test
+    public void drawTimeIsSummedPerFrame() {
+        FrameStats stats = new FrameStats();
+
+        stats.recordDraw(1000);
+        stats.recordDraw(2000);
+        stats.recordFrame(VSYNC);
+        stats.recordFrame(VSYNC);
+
+        assertEquals(1, stats.getDrawTimes().getCount());
+        assertEquals(3000, stats.getDrawTimes().getMax());
+    }
+
+    @Test
+    public void hitChecksAreRecordedWhileTouching() {
+        FrameStats stats = new FrameStats();
+        GameEngine engine = new GameEngine(new GameEngineTest.RecordingCallbacks());
+        engine.setSize(1000, 1000);
+        engine.setFrameStats(stats);
+
+        engine.step(GameEngine.STEP_NANOS);
+        assertEquals(0, stats.getHitCheckTimes().getCount());
+
+        engine.touchMove(500, 500);
+        engine.step(GameEngine.STEP_NANOS);
+        engine.step(GameEngine.STEP_NANOS);
+        assertEquals(2, stats.getHitCheckTimes().getCount());
+    }
+
+    private static void assertWithin(long expected, long actual) {
+        assertTrue("expected about " + expected + " but was " + actual,
+                actual >= expected && actual <= expected + expected / 16);
+    }
+}
@@ -0,0 +1,121 @@
+package com.superuptest.engine;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests of the GameClock.
+ */
+public class GameClockTest {
+
+    @Test
+    public void runsTasksInDueTimeOrder() throws Exception {
+        GameClock clock = new GameClock();
+        ArrayList<String> runs = new ArrayList<>();
+
+        clock.schedule(new NamedTask("late", runs, clock), 30);
+        clock.schedule(new NamedTask("periodic", runs, clock), 10, 10);
+        clock.schedule(new NamedTask("first", runs, clock), 5);
+        clock.schedule(new NamedTask("tie", runs, clock), 20);
+
+        clock.advanceTo(35);
+
+        //same due time runs in schedule order, the periodic task was scheduled again after "tie"
+        assertEquals("[first 5, periodic 10, tie 20, periodic 20, late 30, periodic 30]", runs.toString());
+        assertEquals(35, clock.getTime());
+    }
+
+    @Test
+    public void cancelAndRescheduleMoveTasks() throws Exception {
+        GameClock clock = new GameClock();
+        ArrayList<String> runs = new ArrayList<>();
+        NamedTask a = new NamedTask("a", runs, clock);
+        NamedTask b = new NamedTask("b", runs, clock);
+
+        clock.schedule(a, 10);
+        clock.schedule(b, 20);
+        clock.schedule(a, 30);
+        clock.cancel(b);
+        assertFalse(clock.isScheduled(b));
+        assertEquals(30, clock.getDueTime(a));
+
+        clock.advanceTo(100);
+        assertEquals("[a 30]", runs.toString());
+        assertFalse(clock.isScheduled(a));
+    }
+
+    @Test
+    public void pauseAndTimeScaleChangeGameTime() throws Exception {
+        GameClock clock = new GameClock();
+        assertEquals(1000, clock.toGameNanos(1000));
+
+        clock.pause();
+        assertEquals(0, clock.toGameNanos(1000));
+        assertEquals(0, clock.scale(1000));
+
+        clock.resume();
+        clock.setTimeScale(0.25);
+
+        //the parts of a nanosecond add up
+        long total = 0;
+        for (int i = 0; i < 8; i++) {
+            total += clock.toGameNanos(3);
+        }
+        assertEquals(6, total);
+    }
+
+    @Test
+    public void virtualTimePlaysTenMinutesAtOnce() throws Exception {
+        GameEngineTest.RecordingCallbacks callbacks = new GameEngineTest.RecordingCallbacks();
+        GameEngine engine = new GameEngine(callbacks, 11);
+        engine.setSize(1080, 1920);
+
+        long session = TimeUnit.MINUTES.toNanos(10);
+        engine.advance(session);
+
+        assertEquals(session, engine.getTime());
+        assertEquals(session / GameEngine.PULSE_INTERVAL, callbacks.spawned);
+        assertEquals((session - GameEngine.WAVE_DURATION) / GameEngine.PULSE_INTERVAL, callbacks.removed);
+    }
+
+    @Test
+    public void pausedEngineDoesNotMove() throws Exception {
+        GameEngine engine = new GameEngine(new GameEngineTest.RecordingCallbacks(), 11);
+        engine.getClock().pause();
+        engine.advance(GameEngine.PULSE_INTERVAL * 2);
+        assertEquals(0, engine.getTime());
+
+        engine.getClock().resume();
+        engine.getClock().setTimeScale(2);
+        engine.advance(GameEngine.PULSE_INTERVAL);
+        assertEquals(GameEngine.PULSE_INTERVAL * 2, engine.getTime());
+    }
+
+    /**
+     * ClockTask that writes its name and the clock time it ran at.
+     * */
+    private static class NamedTask implements GameClock.ClockTask {
+
+        private final String mName;
+
+        private final ArrayList<String> mRuns;
+
+        private final GameClock mClock;
+
+        NamedTask(String name, ArrayList<String> runs, GameClock clock) {
+            this.mName = name;
+            this.mRuns = runs;
+            this.mClock = clock;
+        }
+
+        @Override
+        public void onTime(long time) {
+            assertEquals(time, mClock.getTime());
+            mRuns.add(mName + " " + time);
+        }
+    }
+}
@@ -0,0 +1,330 @@
+package com.superuptest.engine;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests of the GameEngine, runs on the JVM without a device.
+ */
+public class GameEngineTest {
+
+    private static final int WIDTH = 1080;
+
+    private static final int HEIGHT = 1920;
+
+    private RecordingCallbacks mCallbacks;
+
+    private GameEngine mEngine;
+
+    @Before
+    public void setUp() throws Exception {
+        mCallbacks = new RecordingCallbacks();
+        mEngine = new GameEngine(mCallbacks);
+        mEngine.setSize(WIDTH, HEIGHT);
+    }
+
+    @Test
+    public void spawnsWaveEveryPulseInterval() throws Exception {
+        mEngine.advance(GameEngine.PULSE_INTERVAL - GameEngine.STEP_NANOS);
+        assertEquals(0, mCallbacks.spawned);
+
+        mEngine.advance(GameEngine.STEP_NANOS);
+        assertEquals(1, mCallbacks.spawned);
+
+        mEngine.advance(GameEngine.PULSE_INTERVAL * 2);
+        assertEquals(3, mCallbacks.spawned);
+        assertEquals(3, mEngine.getWaveCount());
+    }
+
+    @Test
+    public void advanceKeepsTimeLeftForNextCall() throws Exception {
+        mEngine.advance(GameEngine.STEP_NANOS / 2);
+        assertEquals(0, mEngine.getTime());
+
+        mEngine.advance(GameEngine.STEP_NANOS / 2);
+        assertEquals(GameEngine.STEP_NANOS, mEngine.getTime());
+    }
+
+    @Test
+    public void waveGrowsToBorderAndIsRemoved() throws Exception {
+        mEngine.advance(GameEngine.PULSE_INTERVAL);
+        Wave wave = mEngine.getWave(0);
+
+        mEngine.advance(GameEngine.WAVE_DURATION / 2);
+        float half = wave.getShape().getRadius();
+        assertEquals(WIDTH / 4, half, GameEngine.WAVE_PADDING + 1);
+
+        mEngine.advance(GameEngine.WAVE_DURATION / 2);
+        assertEquals(1, mCallbacks.removed);
+        assertNotSame(wave, mEngine.getWave(0));
+    }
+
+    @Test
+    public void countsPointsOnlyAfterTouch() throws Exception {
+        mEngine.advance(GameEngine.PULSE_INTERVAL + GameEngine.WAVE_DURATION);
+        assertEquals(1, mCallbacks.removed);
+        assertEquals(0, mEngine.getScore());
+
+        //the middle of the game is safe, a small wave is erased by its own holes
+        mEngine.touchMove(WIDTH / 2, HEIGHT / 2);
+        mEngine.advance(GameEngine.PULSE_INTERVAL);
+
+        assertFalse(mEngine.isOver());
+        assertEquals(1, mEngine.getScore());
+        assertEquals(1, mCallbacks.score);
+    }
+
+    @Test
+    public void touchOnBorderEndsGame() throws Exception {
+        mEngine.touchMove(WIDTH / 2, HEIGHT / 2 - WIDTH / 2);
+        mEngine.advance(GameEngine.STEP_NANOS);
+
+        assertTrue(mEngine.isOver());
+        assertEquals(1, mCallbacks.gameOver);
+    }
+
+    @Test
+    public void touchUpEndsGame() throws Exception {
+        mEngine.touchMove(WIDTH / 2, HEIGHT / 2);
+        mEngine.touchUp();
+
+        assertTrue(mEngine.isOver());
+        assertEquals(1, mCallbacks.gameOver);
+    }
+
+    @Test
+    public void waveReachingFingerEndsGame() throws Exception {
+
+        //a finger between the centre and the border is reached by a wave or passed
+        //through a hole, play until the game is over or many waves passed
+        mEngine.touchMove(WIDTH / 2 + WIDTH / 4, HEIGHT / 2);
+
+        for (int i = 0; i < 1000 && !mEngine.isOver(); i++) {
+            mEngine.advance(GameEngine.PULSE_INTERVAL);
+        }
+
+        assertTrue(mEngine.isOver());
+        assertEquals(1, mCallbacks.gameOver);
+    }
+
+    @Test
+    public void sweptCollisionFindsWallBetweenSamples() throws Exception {
+        assertTrue(crossesWave(true));
+    }
+
+    @Test
+    public void pointCollisionMissesWallBetweenSamples() throws Exception {
+        assertFalse(crossesWave(false));
+    }
+
+    @Test
+    public void sweptSampleIsCheckedAtItsTime() throws Exception {
+        mEngine.setSweptCollision(true);
+        mEngine.advance(GameEngine.PULSE_INTERVAL + GameEngine.WAVE_DURATION / 4);
+        mEngine.touchMove(WIDTH / 2, HEIGHT / 2, mEngine.getTime());
+        mEngine.step(GameEngine.STEP_NANOS);
+
+        //the wave was many strokes smaller a second before the step
+        long sampleTime = mEngine.getTime() - GameEngine.WAVE_DURATION / 10;
+        mEngine.growWaves(sampleTime);
+        float radius = mEngine.getWave(0).getShape().getRadius();
+
+        double angel = 0;
+        while (!mEngine.isOnWall(WIDTH / 2 + radius * (float) Math.cos(angel),
+                HEIGHT / 2 + radius * (float) Math.sin(angel))){
+            angel += 0.01;
+        }
+
+        float x = WIDTH / 2 + radius * (float) Math.cos(angel);
+        float y = HEIGHT / 2 + radius * (float) Math.sin(angel);
+        mEngine.growWaves(mEngine.getTime());
+        assertFalse(mEngine.isOnWall(x, y));
+
+        mEngine.touchMove(x, y, sampleTime);
+        mEngine.step(GameEngine.STEP_NANOS);
+
+        assertTrue(mEngine.isOver());
+        assertEquals(mEngine.getTime(), mEngine.getWaveTime());
+    }
+
+    @Test
+    public void advancedTimeIncludesTimeLeft() throws Exception {
+        mEngine.advance(GameEngine.STEP_NANOS * 3 / 2);
+
+        assertEquals(GameEngine.STEP_NANOS, mEngine.getTime());
+        assertEquals(GameEngine.STEP_NANOS * 3 / 2, mEngine.getAdvancedTime());
+        assertEquals(mEngine.getAdvancedTime(), mEngine.getWaveTime());
+    }
+
+    /**
+     * Move the finger from the centre over the first wave to outside of it
+     * within one step, where the wave has no hole.
+     * @return true if the game is over.
+     * */
+    private boolean crossesWave(boolean swept) {
+        mEngine.setSweptCollision(swept);
+        mEngine.advance(GameEngine.PULSE_INTERVAL + GameEngine.WAVE_DURATION / 4);
+        float radius = mEngine.getWave(0).getShape().getRadius();
+
+        //find a direction without a hole
+        double angel = 0;
+        while (!mEngine.isOnWall(WIDTH / 2 + radius * (float) Math.cos(angel),
+                HEIGHT / 2 + radius * (float) Math.sin(angel))){
+            angel += 0.01;
+        }
+
+        float x = WIDTH / 2 + (radius + 40) * (float) Math.cos(angel);
+        float y = HEIGHT / 2 + (radius + 40) * (float) Math.sin(angel);
+        assertFalse(mEngine.isOnWall(x, y));
+
+        mEngine.touchMove(WIDTH / 2, HEIGHT / 2, mEngine.getTime());
+        mEngine.step(GameEngine.STEP_NANOS);
+        mEngine.touchMove(x, y, mEngine.getTime() + 1);
+        mEngine.step(GameEngine.STEP_NANOS);
+
+        return mEngine.isOver();
+    }
+
+    @Test
+    public void singleModeIgnoresSecondFinger() throws Exception {
+        mEngine.pointerMove(0, WIDTH / 2, HEIGHT / 2);
+        mEngine.pointerMove(1, WIDTH / 2, HEIGHT / 2 - WIDTH / 2);
+        mEngine.step(GameEngine.STEP_NANOS);
+        mEngine.pointerUp(1);
+
+        assertFalse(mEngine.isOver());
+        assertEquals(1, mEngine.getTouchCount());
+    }
+
+    @Test
+    public void allFingersModeEndsWhenAnyFingerIsLifted() throws Exception {
+        mEngine.setTouchMode(GameEngine.TOUCH_ALL_FINGERS);
+        mEngine.pointerMove(0, WIDTH / 2, HEIGHT / 2);
+        mEngine.pointerMove(3, WIDTH / 2 + 10, HEIGHT / 2);
+        mEngine.step(GameEngine.STEP_NANOS);
+        assertEquals(2, mEngine.getTouchCount());
+
+        mEngine.pointerUp(3);
+        assertTrue(mEngine.isOver());
+    }
+
+    @Test
+    public void coopModeEndsWhenNoFingerIsLeft() throws Exception {
+        mEngine.setTouchMode(GameEngine.TOUCH_COOP);
+        mEngine.pointerMove(0, WIDTH / 2, HEIGHT / 2);
+        mEngine.pointerMove(1, WIDTH / 2, HEIGHT / 2 - WIDTH / 2);
+        mEngine.step(GameEngine.STEP_NANOS);
+
+        //the finger on the border is out until it is lifted
+        assertFalse(mEngine.isOver());
+        assertEquals(1, mEngine.getTouchCount());
+        mEngine.pointerMove(1, WIDTH / 2, HEIGHT / 2);
+        assertEquals(1, mEngine.getTouchCount());
+
+        mEngine.pointerUp(1);
+        mEngine.pointerMove(1, WIDTH / 2, HEIGHT / 2);
+        assertEquals(2, mEngine.getTouchCount());
+
+        mEngine.pointerUp(0);
+        assertFalse(mEngine.isOver());
+        mEngine.pointerUp(1);
+        assertTrue(mEngine.isOver());
+        assertEquals(1, mCallbacks.gameOver);
+    }
+
+    @Test
+    public void waveRadiusIsSameAtAnyFrameRate() throws Exception {
+
+        //a time between two steps, when three waves are growing
+        long time = GameEngine.PULSE_INTERVAL * 3 + 123456789L;
+        float[] expected = radiiAfterFrames(time, new long[]{16666667L});
+
+        //the oldest wave is at its size at the time, not at the last step
+        double fraction = (double) (time - GameEngine.PULSE_INTERVAL) / GameEngine.WAVE_DURATION;
+        double size = GameEngine.WAVE_START_SIZE + fraction * (WIDTH - GameEngine.WAVE_START_SIZE);
+        assertEquals(size * 0.5 - GameEngine.WAVE_PADDING, expected[0], 0.001);
+
+        //90 Hz, 120 Hz and an uneven cadence of a loaded device
+        assertArrayEquals(expected, radiiAfterFrames(time, new long[]{11111111L}), 0);
+        assertArrayEquals(expected, radiiAfterFrames(time, new long[]{8333333L}), 0);
+        assertArrayEquals(expected, radiiAfterFrames(time,
+                new long[]{16666667L, 33333333L, 8333333L, 1000000L, 50000000L}), 0);
+    }
+
+    @Test
+    public void waveGrowsBySubPixels() throws Exception {
+        mEngine.advance(GameEngine.PULSE_INTERVAL + GameEngine.WAVE_DURATION / 2);
+        float radius = mEngine.getWave(0).getShape().getRadius();
+
+        mEngine.advance(TimeUnit.MILLISECONDS.toNanos(1));
+        float grown = mEngine.getWave(0).getShape().getRadius() - radius;
+
+        assertTrue(grown > 0 && grown < 1);
+    }
+
+    /**
+     * Play a new game up to a time with frames of the given intervals, repeated.
+     * @return The radius of every wave at the time.
+     * */
+    private float[] radiiAfterFrames(long time, long[] frames) {
+        GameEngine engine = new GameEngine(new RecordingCallbacks(), 5);
+        engine.setSize(WIDTH, HEIGHT);
+
+        long played = 0;
+        for (int i = 0; played < time; i++) {
+            long frame = Math.min(frames[i % frames.length], time - played);
+            engine.advance(frame);
+            played += frame;
+        }
+
+        float[] radii = new float[engine.getWaveCount()];
+        for (int i = 0; i < radii.length; i++) {
+            radii[i] = engine.getWave(i).getShape().getRadius();
+        }
+        return radii;
+    }
+
+    @Test
+    public void noStepsAfterGameOver() throws Exception {
+        mEngine.touchUp();
+        mEngine.advance(GameEngine.PULSE_INTERVAL * 10);
+
+        assertEquals(0, mEngine.getTime());
+        assertEquals(0, mCallbacks.spawned);
+    }
+
+    static class RecordingCallbacks implements GameEngine.GameEngineCallbacks {
+
+        int spawned;
+
+        int removed;
+
+        int score;
+
+        int gameOver;
+
+        @Override
+        public void onWaveSpawned(Wave wave) {
+            spawned++;
+        }
+
+        @Override
+        public void onWaveRemoved(Wave wave) {
+            removed++;
+        }
+
+        @Override
+        public void onScoreChanged(int score) {
+            this.score = score;
+        }
+
+        @Override
+        public void onGameOver() {
+            gameOver++;
+        }
+    }
+}
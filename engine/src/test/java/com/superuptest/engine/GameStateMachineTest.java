@@ -0,0 +1,60 @@
+package com.superuptest.engine;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests of the GameStateMachine.
+ */
+public class GameStateMachineTest {
+
+    private final ArrayList<String> mChanges = new ArrayList<>();
+
+    private final GameStateMachine mState = new GameStateMachine(new GameStateMachine.GameStateMachineCallbacks() {
+        @Override
+        public void onStateChanged(int from, int to) {
+            mChanges.add(GameStateMachine.getStateName(from) + " -> " + GameStateMachine.getStateName(to));
+        }
+    });
+
+    @Test
+    public void gameWaitsForTheFirstTouch() throws Exception {
+        assertEquals(GameStateMachine.STATE_WAITING, mState.getState());
+        assertTrue(mState.isIdle());
+
+        //a waiting game can not be paused
+        assertFalse(mState.pause());
+        assertTrue(mChanges.isEmpty());
+
+        assertTrue(mState.play());
+        assertFalse(mState.isIdle());
+        assertFalse(mState.play());
+        assertEquals("[waiting -> playing]", mChanges.toString());
+    }
+
+    @Test
+    public void pausedGameIsPlayedAgain() throws Exception {
+        mState.play();
+
+        assertTrue(mState.pause());
+        assertTrue(mState.isIdle());
+        assertFalse(mState.pause());
+
+        assertTrue(mState.play());
+        assertEquals("[waiting -> playing, playing -> paused, paused -> playing]", mChanges.toString());
+    }
+
+    @Test
+    public void overIsTheLastState() throws Exception {
+        assertTrue(mState.over());
+        assertTrue(mState.isIdle());
+
+        assertFalse(mState.over());
+        assertFalse(mState.play());
+        assertFalse(mState.pause());
+        assertEquals("[waiting -> over]", mChanges.toString());
+    }
+}
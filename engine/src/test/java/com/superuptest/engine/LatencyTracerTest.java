@@ -0,0 +1,143 @@
+package com.superuptest.engine;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests of the LatencyTracer, traced by a GameEngine with a virtual clock.
+ */
+public class LatencyTracerTest {
+
+    private static final int WIDTH = 1080;
+
+    private static final int HEIGHT = 1920;
+
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private GameEngineTest.RecordingCallbacks mCallbacks;
+
+    private GameEngine mEngine;
+
+    private VirtualTracer mTracer;
+
+    @Before
+    public void setUp() throws Exception {
+        mCallbacks = new GameEngineTest.RecordingCallbacks();
+        mEngine = new GameEngine(mCallbacks, 5);
+        mEngine.setSize(WIDTH, HEIGHT);
+
+        mTracer = new VirtualTracer();
+        mEngine.setLatencyTracer(mTracer);
+    }
+
+    @Test
+    public void sampleIsTracedToItsCheckAndHitToGameOver() throws Exception {
+        mTracer.now = 1000 * MS;
+        mTracer.onInput(996 * MS);
+        mEngine.pointerMove(0, WIDTH / 2, HEIGHT / 2);
+
+        //the next step checks the finger
+        mTracer.now = 1010 * MS;
+        mEngine.step(GameEngine.STEP_NANOS);
+
+        assertEquals(1, mTracer.getInputToEngine().getCount());
+        assertEquals(4 * MS, mTracer.getInputToEngine().getMax());
+        assertEquals(1, mTracer.getInputToCheck().getCount());
+        assertEquals(14 * MS, mTracer.getInputToCheck().getMax());
+        assertEquals(-1, mTracer.getDetectionLatency());
+
+        //the finger moves on the border
+        mTracer.onInput(1012 * MS);
+        mEngine.pointerMove(0, 0, HEIGHT / 2);
+        mTracer.now = 1020 * MS;
+        mEngine.step(GameEngine.STEP_NANOS);
+
+        assertEquals(1, mCallbacks.gameOver);
+        assertEquals(8 * MS, mTracer.getDetectionLatency());
+        assertEquals(-1, mTracer.getGameOverLatency());
+
+        mTracer.now = 1030 * MS;
+        mTracer.onGameOver();
+        assertEquals(18 * MS, mTracer.getGameOverLatency());
+    }
+
+    @Test
+    public void liftDecidesWithoutHit() throws Exception {
+        mTracer.onInput(100 * MS);
+        mEngine.pointerMove(0, WIDTH / 2, HEIGHT / 2);
+        mEngine.step(GameEngine.STEP_NANOS);
+
+        mTracer.onInput(200 * MS);
+        mTracer.now = 203 * MS;
+        mEngine.touchUp();
+
+        assertEquals(1, mCallbacks.gameOver);
+        assertEquals(3 * MS, mTracer.getDetectionLatency());
+    }
+
+    @Test
+    public void sweptSampleIsCheckedWhenGameTimeReachesIt() throws Exception {
+        mEngine.setSweptCollision(true);
+
+        mTracer.onInput(100 * MS);
+        mEngine.pointerMove(0, WIDTH / 2, HEIGHT / 2, 0);
+
+        //the next sample is a few steps ahead of the game time
+        mTracer.onInput(101 * MS);
+        mEngine.pointerMove(0, WIDTH / 2 + 1, HEIGHT / 2, GameEngine.STEP_NANOS * 3);
+
+        mTracer.now = 110 * MS;
+        mEngine.step(GameEngine.STEP_NANOS);
+        assertEquals(1, mTracer.getInputToCheck().getCount());
+
+        mTracer.now = 120 * MS;
+        mEngine.step(GameEngine.STEP_NANOS * 2);
+        assertEquals(2, mTracer.getInputToCheck().getCount());
+        assertEquals(19 * MS, mTracer.getInputToCheck().getMax());
+
+        StringBuilder dump = new StringBuilder();
+        mTracer.dump(dump);
+        assertTrue(dump.toString(), dump.toString().contains("input to check us n=2"));
+    }
+
+    @Test
+    public void sweptHitIsChargedToTheSampleOfTheHittingSegment() throws Exception {
+        mEngine.setSweptCollision(true);
+
+        mTracer.onInput(100 * MS);
+        mEngine.pointerMove(0, WIDTH / 2, HEIGHT / 2, 0);
+        mEngine.advance(GameEngine.STEP_NANOS);
+
+        //three samples of the next step, the second one moves on the border
+        mTracer.onInput(101 * MS);
+        mEngine.pointerMove(0, WIDTH / 2 + 1, HEIGHT / 2, GameEngine.STEP_NANOS * 5 / 4);
+        mTracer.onInput(102 * MS);
+        mEngine.pointerMove(0, 0, HEIGHT / 2, GameEngine.STEP_NANOS * 3 / 2);
+        mTracer.onInput(103 * MS);
+        mEngine.pointerMove(0, WIDTH / 2, HEIGHT / 2, GameEngine.STEP_NANOS * 7 / 4);
+
+        mTracer.now = 120 * MS;
+        mEngine.advance(GameEngine.STEP_NANOS);
+
+        assertEquals(1, mCallbacks.gameOver);
+        assertEquals(18 * MS, mTracer.getDetectionLatency());
+        assertEquals(2, mTracer.getDecidingFrame());
+    }
+
+    /**
+     * LatencyTracer with a time set by the test.
+     * */
+    private static class VirtualTracer extends LatencyTracer {
+
+        long now = 0;
+
+        @Override
+        protected long now() {
+            return now;
+        }
+    }
+}
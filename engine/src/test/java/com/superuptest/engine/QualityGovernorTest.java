@@ -0,0 +1,153 @@
+package com.superuptest.engine;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests of the QualityGovernor.
+ */
+public class QualityGovernorTest {
+
+    private static final long ON_TIME = FrameStats.DEFAULT_VSYNC_PERIOD;
+
+    private static final long OVERRUN = FrameStats.DEFAULT_VSYNC_PERIOD * 2;
+
+    private final ArrayList<Integer> mLevels = new ArrayList<>();
+
+    private final QualityGovernor mGovernor = new QualityGovernor(new QualityGovernor.QualityGovernorCallbacks() {
+        @Override
+        public void onQualityChanged(int level, String reason) {
+            mLevels.add(level);
+        }
+    });
+
+    @Test
+    public void fewOverrunsKeepTheLevel() throws Exception {
+
+        //less than the limit in every window
+        for (int i = 0; i < QualityGovernor.WINDOW_FRAMES * 20; i++) {
+            mGovernor.onFrame(i % QualityGovernor.WINDOW_FRAMES == 0 ? OVERRUN : ON_TIME);
+        }
+
+        assertEquals(QualityGovernor.QUALITY_FULL, mGovernor.getLevel());
+        assertEquals(0, mGovernor.getChangeCount());
+        assertNull(mGovernor.getLastReason());
+    }
+
+    @Test
+    public void overrunsStepDownOneLevelAtATime() throws Exception {
+        frames(QualityGovernor.OVERRUN_LIMIT, OVERRUN);
+
+        assertEquals(QualityGovernor.QUALITY_COARSE, mGovernor.getLevel());
+        assertTrue(mGovernor.isCoarseGeometry());
+        assertEquals(Integer.MAX_VALUE, mGovernor.getMaxDrawnWaves());
+        assertTrue(mGovernor.getLastReason().startsWith("5 of 5 frames overran"));
+
+        frames(QualityGovernor.WINDOW_FRAMES * 10, OVERRUN);
+
+        assertEquals(QualityGovernor.QUALITY_CAPPED, mGovernor.getLevel());
+        assertTrue(mGovernor.isCoarseGeometry());
+        assertEquals(QualityGovernor.CAPPED_WAVES, mGovernor.getMaxDrawnWaves());
+        assertEquals(2, mLevels.size());
+        assertEquals(Integer.valueOf(QualityGovernor.QUALITY_COARSE), mLevels.get(0));
+    }
+
+    @Test
+    public void onTimeFramesStepUpAfterRecovery() throws Exception {
+        frames(QualityGovernor.OVERRUN_LIMIT * 2, OVERRUN);
+        assertEquals(QualityGovernor.QUALITY_CAPPED, mGovernor.getLevel());
+
+        //one frame short of the recovery keeps the level
+        frames(QualityGovernor.RECOVERY_FRAMES - 1, ON_TIME);
+        assertEquals(QualityGovernor.QUALITY_CAPPED, mGovernor.getLevel());
+
+        frames(1, ON_TIME);
+        assertEquals(QualityGovernor.QUALITY_COARSE, mGovernor.getLevel());
+
+        //an overrun starts the recovery again
+        frames(QualityGovernor.RECOVERY_FRAMES - 1, ON_TIME);
+        frames(1, OVERRUN);
+        frames(QualityGovernor.RECOVERY_FRAMES - 1, ON_TIME);
+        assertEquals(QualityGovernor.QUALITY_COARSE, mGovernor.getLevel());
+
+        frames(1, ON_TIME);
+        assertEquals(QualityGovernor.QUALITY_FULL, mGovernor.getLevel());
+        assertFalse(mGovernor.isCoarseGeometry());
+        assertEquals(Integer.MAX_VALUE, mGovernor.getMaxDrawnWaves());
+    }
+
+    @Test
+    public void fixedLevelIgnoresFrames() throws Exception {
+        mGovernor.setFixedLevel(QualityGovernor.QUALITY_COARSE);
+        frames(QualityGovernor.WINDOW_FRAMES * 10, OVERRUN);
+        frames(QualityGovernor.RECOVERY_FRAMES * 2, ON_TIME);
+
+        assertEquals(QualityGovernor.QUALITY_COARSE, mGovernor.getLevel());
+        assertEquals("fixed", mGovernor.getLastReason());
+
+        StringBuilder dump = new StringBuilder();
+        mGovernor.dump(dump);
+        assertTrue(dump.toString(), dump.toString().startsWith("quality level 1 fixed, 1 changes"));
+    }
+
+    @Test
+    public void longerVsyncPeriodMovesTheBudget() throws Exception {
+
+        //a 30 Hz frame overruns at 60 Hz only
+        mGovernor.setVsyncPeriod(FrameStats.DEFAULT_VSYNC_PERIOD * 2);
+        frames(QualityGovernor.WINDOW_FRAMES, OVERRUN);
+
+        assertEquals(QualityGovernor.QUALITY_FULL, mGovernor.getLevel());
+    }
+
+    @Test
+    public void display60HzAgainst120HzRequestIsNotOverrun() throws Exception {
+        long period120 = 1000000000L / 120;
+        long period60 = 1000000000L / 60;
+
+        //the game asked for 120 Hz, the display still runs at 60 Hz
+        mGovernor.setSupportedVsyncPeriods(new long[]{period120, period60});
+        mGovernor.setVsyncPeriod(period120);
+        frames(QualityGovernor.WINDOW_FRAMES * 20, period60);
+
+        assertEquals(QualityGovernor.QUALITY_FULL, mGovernor.getLevel());
+        assertEquals(period60, mGovernor.getPacedPeriod());
+
+        //a frame that missed a 60 Hz vsync is still an overrun
+        frames(QualityGovernor.OVERRUN_LIMIT, period60 * 2);
+        assertEquals(1, mGovernor.getChangeCount());
+
+        //frames at 120 Hz move the budget back
+        frames(QualityGovernor.WINDOW_FRAMES * 2, period120);
+        assertEquals(period120, mGovernor.getPacedPeriod());
+    }
+
+    @Test
+    public void newVsyncPeriodForgetsTheCountedFrames() throws Exception {
+        long period120 = 1000000000L / 120;
+        long period60 = 1000000000L / 60;
+
+        //no supported rates, the 60 Hz frames overrun the 120 Hz budget
+        mGovernor.setVsyncPeriod(period120);
+        frames(QualityGovernor.OVERRUN_LIMIT - 1, period60);
+
+        //the display reported its 60 Hz rate
+        mGovernor.setVsyncPeriod(period60);
+        frames(QualityGovernor.WINDOW_FRAMES * 20, period60);
+
+        assertEquals(QualityGovernor.QUALITY_FULL, mGovernor.getLevel());
+        assertEquals(0, mGovernor.getChangeCount());
+    }
+
+    /**
+     * Count frames with the same interval.
+     * */
+    private void frames(int count, long intervalNanos) {
+        for (int i = 0; i < count; i++) {
+            mGovernor.onFrame(intervalNanos);
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.superuptest.engine;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests that record a game with random inputs and replay it without a device.
+ */
+public class SessionReplayerTest {
+
+    private static final int WIDTH = 1080;
+
+    private static final int HEIGHT = 1920;
+
+    @Rule
+    public TemporaryFolder mFolder = new TemporaryFolder();
+
+    @Test
+    public void replayGivesTheSameGame() throws Exception {
+        File file = mFolder.newFile("session.bin");
+        Random random = new Random(7);
+
+        SessionRecorder recorder = new SessionRecorder(file);
+        TimelineCallbacks recorded = new TimelineCallbacks();
+        GameEngine engine = new GameEngine(recorded, 42);
+        engine.setRecorder(recorder);
+        engine.setHitTester(null, 2);
+        engine.setSweptCollision(true);
+        engine.setTouchMode(GameEngine.TOUCH_COOP);
+        engine.setPulseInterval(GameEngine.PULSE_INTERVAL / 3);
+        engine.setWaveDuration(GameEngine.WAVE_DURATION / 4);
+        engine.setSize(WIDTH, HEIGHT);
+
+        //frames of random length and two fingers that wander from the centre
+        float[] x = {WIDTH / 2, WIDTH / 2};
+        float[] y = {HEIGHT / 2, HEIGHT / 2};
+        while (!engine.isOver() && engine.getTime() < GameEngine.WAVE_DURATION * 6){
+
+            for (int pointer = 0; pointer < 2; pointer++) {
+                x[pointer] += random.nextFloat() * 16 - 8;
+                y[pointer] += random.nextFloat() * 16 - 8;
+                engine.pointerMove(pointer, x[pointer], y[pointer],
+                        engine.getTime() + random.nextInt(16000000));
+            }
+
+            if (random.nextInt(10) == 0){
+                engine.checkTouch();
+            }
+            engine.advance(8000000 + random.nextInt(40000000));
+        }
+        engine.touchUp();
+
+        recorder.close();
+        recorder.awaitClosed();
+
+        SessionReplayer replayer = SessionReplayer.load(file);
+        TimelineCallbacks replayed = new TimelineCallbacks();
+        GameEngine replay = replayer.createEngine(replayed);
+        replayer.playToEnd();
+
+        assertEquals(42, replayer.getSeed());
+        assertEquals(2, replayer.getHitTesterType());
+        assertFalse(replayer.hasGap());
+        assertTrue(replayer.isFinished());
+        assertTrue(recorded.events.contains("score 1"));
+        assertEquals(recorded.events, replayed.events);
+        assertEquals(engine.getTime(), replay.getTime());
+        assertEquals(engine.getScore(), replay.getScore());
+    }
+
+    @Test
+    public void replayAtAnotherFrameRateGivesTheSameGame() throws Exception {
+        File file = mFolder.newFile("session.bin");
+
+        SessionRecorder recorder = new SessionRecorder(file);
+        TimelineCallbacks recorded = new TimelineCallbacks();
+        GameEngine engine = new GameEngine(recorded, 3);
+        engine.setHitTester(null, 1);
+        engine.setRecorder(recorder);
+        engine.setSize(WIDTH, HEIGHT);
+
+        //a finger that waits at the side for a wave
+        engine.touchMove(WIDTH / 2 + WIDTH / 4, HEIGHT / 2);
+        while (!engine.isOver()){
+            engine.advance(1000000000L / 30);
+        }
+        recorder.close();
+        recorder.awaitClosed();
+
+        SessionReplayer replayer = SessionReplayer.load(file);
+        TimelineCallbacks replayed = new TimelineCallbacks();
+        GameEngine replay = replayer.createEngine(replayed);
+        while (!replay.isOver()){
+            replayer.advance(1000000000L / 120);
+        }
+
+        assertEquals(recorded.events, replayed.events);
+        assertEquals(1, replayer.getHitTesterType());
+    }
+
+    @Test
+    public void failedWriterDropsRecordsWithoutWaiting() throws Exception {
+        SessionRecorder recorder = new SessionRecorder(new File(mFolder.getRoot(), "missing/session.bin"));
+        GameEngine engine = new GameEngine(new TimelineCallbacks(), 5);
+        engine.setRecorder(recorder);
+
+        try {
+            recorder.awaitClosed();
+            fail("the writer opened a file in a missing directory");
+        } catch (IOException expected) {
+            assertEquals(0, recorder.getDroppedCount());
+        }
+
+        //many buffers of records, every full buffer is dropped at once
+        for (int i = 0; i < 100000; i++) {
+            engine.touchMove(WIDTH / 2, HEIGHT / 2);
+        }
+        recorder.close();
+
+        assertTrue(recorder.getDroppedCount() > 10);
+    }
+
+    @Test
+    public void replayEndsAtDroppedRecords() throws Exception {
+        ByteBuffer log = ByteBuffer.allocate(128);
+        log.putInt(SessionRecorder.MAGIC).putShort(SessionRecorder.VERSION).putLong(9);
+        log.put(SessionRecorder.TYPE_SIZE).putLong(0).putInt(WIDTH).putInt(HEIGHT);
+        log.put(SessionRecorder.TYPE_MOVE).putLong(0).put((byte) 0).putFloat(WIDTH / 2).putFloat(HEIGHT / 2);
+        log.put(SessionRecorder.TYPE_DROPPED).putLong(GameEngine.STEP_NANOS * 2).putInt(1);
+        log.put(SessionRecorder.TYPE_TOUCH_UP).putLong(GameEngine.STEP_NANOS * 50);
+        log.flip();
+
+        SessionReplayer replayer = new SessionReplayer(log);
+        TimelineCallbacks replayed = new TimelineCallbacks();
+        GameEngine replay = replayer.createEngine(replayed);
+        replayer.playToEnd();
+
+        assertTrue(replayer.hasGap());
+        assertTrue(replayer.isFinished());
+        assertTrue(replay.isOver());
+        assertEquals(GameEngine.STEP_NANOS * 2, replay.getTime());
+    }
+
+    /**
+     * Callbacks that write every event with its game time.
+     * */
+    private static class TimelineCallbacks implements GameEngine.GameEngineCallbacks {
+
+        final ArrayList<String> events = new ArrayList<>();
+
+        @Override
+        public void onWaveSpawned(Wave wave) {
+            events.add("spawn " + wave.getSpawnTime() + " "
+                    + Arrays.toString(Arrays.copyOf(wave.getShape().getHoleAngels(),
+                            wave.getShape().getHoleCount())));
+        }
+
+        @Override
+        public void onWaveRemoved(Wave wave) {
+            events.add("remove " + wave.getSpawnTime());
+        }
+
+        @Override
+        public void onScoreChanged(int score) {
+            events.add("score " + score);
+        }
+
+        @Override
+        public void onGameOver() {
+            events.add("over");
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.superuptest.engine;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests of the end of a SimulationThread.
+ */
+public class SimulationThreadTest {
+
+    private static final int WIDTH = 1080;
+
+    private static final int HEIGHT = 1920;
+
+    @Test
+    public void joinWaitsForTheEndOfTheThread() throws Exception {
+        SimulationThread simulation = new SimulationThread(11);
+        LatencyTracer tracer = new LatencyTracer();
+        simulation.setLatencyTracer(tracer);
+        simulation.getEngine().setSize(WIDTH, HEIGHT);
+        simulation.start();
+
+        simulation.post(InputQueue.TYPE_SAMPLE, 0, WIDTH / 2, HEIGHT / 2, System.nanoTime());
+        simulation.post(InputQueue.TYPE_TOUCH_UP, 0, 0, 0, System.nanoTime());
+
+        //the thread ends by itself at the game over
+        assertTrue(simulation.join(5000));
+        simulation.stop();
+
+        //every write of the thread is visible after the join
+        assertTrue(simulation.getEngine().isOver());
+        assertEquals(1, tracer.getInputToEngine().getCount());
+        assertTrue(tracer.getDetectionLatency() >= 0);
+    }
+
+    @Test
+    public void threadThatNeverStartedIsEnded() throws Exception {
+        assertTrue(new SimulationThread(11).join(1));
+    }
+}
@@ -0,0 +1,116 @@
+package com.superuptest.engine;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests of the snapshot handoff and the input queue between two threads.
+ */
+public class SnapshotBufferTest {
+
+    private static final int COUNT = 200000;
+
+    @Test
+    public void acquireReturnsNewestPublishedSnapshot() throws Exception {
+        SnapshotBuffer buffer = new SnapshotBuffer();
+
+        buffer.getBack().write(1, 0, false);
+        buffer.publish();
+        buffer.getBack().write(2, 0, false);
+        buffer.publish();
+
+        WorldSnapshot snapshot = buffer.acquire();
+        assertEquals(2, snapshot.getTime());
+
+        //nothing new, the reader keeps its snapshot
+        assertSame(snapshot, buffer.acquire());
+        assertNotSame(snapshot, buffer.getBack());
+    }
+
+    @Test
+    public void readerNeverSeesHalfWrittenSnapshot() throws Exception {
+        final SnapshotBuffer buffer = new SnapshotBuffer();
+        final WaveShape[] shapes = new WaveShape[40];
+        for (int i = 0; i < shapes.length; i++) {
+            shapes[i] = new WaveShape(GameEngine.WAVE_STROKE_WIDTH, new int[0], new int[0]);
+        }
+
+        Thread writer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                for (int time = 1; time <= COUNT; time++) {
+                    WorldSnapshot back = buffer.getBack();
+
+                    //every wave of a snapshot has the radius of the snapshot time
+                    back.write(time, time, time == COUNT);
+                    for (int i = 0; i < time % shapes.length; i++) {
+                        shapes[i].setRadius(time);
+                        back.addWave(shapes[i]);
+                    }
+                    buffer.publish();
+                }
+            }
+        });
+        writer.start();
+
+        long lastTime = 0;
+        WorldSnapshot snapshot;
+        do {
+            snapshot = buffer.acquire();
+            assertTrue(snapshot.getTime() >= lastTime);
+            assertEquals(snapshot.getTime(), snapshot.getScore());
+            assertEquals(snapshot.getTime() % shapes.length, snapshot.getWaveCount());
+
+            for (int i = 0; i < snapshot.getWaveCount(); i++) {
+                assertEquals(snapshot.getTime(), snapshot.getRadius(i), 0);
+            }
+            lastTime = snapshot.getTime();
+        } while (!snapshot.isOver());
+
+        writer.join();
+    }
+
+    @Test
+    public void queueKeepsOrderBetweenThreads() throws Exception {
+        final InputQueue queue = new InputQueue(64);
+        final AtomicReference<Throwable> error = new AtomicReference<>();
+
+        Thread consumer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    int expected = 0;
+                    while (expected < COUNT){
+                        int type = queue.poll();
+                        if (type == 0){
+                            continue;
+                        }
+
+                        assertEquals(InputQueue.TYPE_SAMPLE, type);
+                        assertEquals(expected % 10, queue.getPointerId());
+                        assertEquals(expected, queue.getX(), 0);
+                        assertEquals(-expected, queue.getY(), 0);
+                        assertEquals(expected * 3L, queue.getTime());
+                        expected++;
+                    }
+                } catch (Throwable e) {
+                    error.set(e);
+                }
+            }
+        });
+        consumer.start();
+
+        for (int i = 0; i < COUNT; i++) {
+            while (!queue.offer(InputQueue.TYPE_SAMPLE, i % 10, i, -i, i * 3L)){
+                Thread.yield();
+            }
+        }
+
+        consumer.join();
+        assertNull(error.get());
+        assertEquals(0, queue.poll());
+    }
+}
@@ -0,0 +1,102 @@
+package com.superuptest.engine;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests of the VerifyingHitTester.
+ */
+public class VerifyingHitTesterTest {
+
+    private static final int WIDTH = 1080;
+
+    private static final int HEIGHT = 1920;
+
+    @Test
+    public void geometricTesterAgreesWithEveryWave() throws Exception {
+        final GameEngine engine = new GameEngine(new GameEngineTest.RecordingCallbacks(), 9);
+        engine.setSize(WIDTH, HEIGHT);
+
+        //the reference checks the border and every wave without the binary search
+        HitTester everyWave = new HitTester() {
+            @Override
+            public boolean isOnWall(float x, float y) {
+                float dx = x - WIDTH / 2;
+                float dy = y - HEIGHT / 2;
+                float dist = (float) Math.sqrt(dx * dx + dy * dy);
+
+                if (Math.abs(dist - WIDTH / 2) <= GameEngine.BORDER_STROKE_WIDTH / 2f){
+                    return true;
+                }
+
+                for (int i = 0; i < engine.getWaveCount(); i++) {
+                    if (engine.getWave(i).getShape().isOnWall(dx, dy)){
+                        return true;
+                    }
+                }
+                return false;
+            }
+        };
+
+        MismatchLog log = new MismatchLog();
+        VerifyingHitTester verifier = new VerifyingHitTester(engine.getGeometricHitTester(), everyWave, log);
+        engine.setHitTester(verifier, 0);
+
+        Random random = new Random(1);
+        engine.advance(GameEngine.PULSE_INTERVAL * 4);
+        int hits = 0;
+
+        for (int i = 0; i < 20000; i++) {
+            if (engine.isOnWall(random.nextFloat() * WIDTH, random.nextFloat() * HEIGHT)){
+                hits++;
+            }
+        }
+
+        assertTrue(hits > 0);
+        assertEquals(20000, verifier.getCheckCount());
+        assertEquals(log.mismatches.toString(), 0, verifier.getMismatchCount());
+    }
+
+    @Test
+    public void disagreementsAreCountedAndSent() throws Exception {
+        HitTester never = new HitTester() {
+            @Override
+            public boolean isOnWall(float x, float y) {
+                return false;
+            }
+        };
+        HitTester leftHalf = new HitTester() {
+            @Override
+            public boolean isOnWall(float x, float y) {
+                return x < 10;
+            }
+        };
+
+        MismatchLog log = new MismatchLog();
+        VerifyingHitTester verifier = new VerifyingHitTester(leftHalf, never, log);
+
+        assertTrue(verifier.isOnWall(5, 1));
+        assertFalse(verifier.isOnWall(15, 1));
+
+        assertEquals(2, verifier.getCheckCount());
+        assertEquals(1, verifier.getMismatchCount());
+        assertEquals("[5.0,1.0 true/false]", log.mismatches.toString());
+    }
+
+    /**
+     * Callbacks that write every disagreement.
+     * */
+    private static class MismatchLog implements VerifyingHitTester.VerifyingHitTesterCallbacks {
+
+        final ArrayList<String> mismatches = new ArrayList<>();
+
+        @Override
+        public void onHitMismatch(float x, float y, boolean primary, boolean reference) {
+            mismatches.add(x + "," + y + " " + primary + "/" + reference);
+        }
+    }
+}
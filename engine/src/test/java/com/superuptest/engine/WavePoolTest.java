@@ -0,0 +1,61 @@
+package com.superuptest.engine;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests of the WavePool and the reset of a WaveShape.
+ */
+public class WavePoolTest {
+
+    @Test
+    public void reusedShapeGetsSameHolesAsNewShape() throws Exception {
+        WaveShapeGenerator fresh = new WaveShapeGenerator(GameEngine.WAVE_STROKE_WIDTH, 7);
+        WaveShapeGenerator reused = new WaveShapeGenerator(GameEngine.WAVE_STROKE_WIDTH, 7);
+        WaveShape shape = new WaveShape(GameEngine.WAVE_STROKE_WIDTH, WaveShapeGenerator.MAX_HOLES);
+
+        float[] freshStart = new float[WaveShapeGenerator.MAX_HOLES];
+        float[] freshSweep = new float[WaveShapeGenerator.MAX_HOLES];
+        float[] reusedStart = new float[WaveShapeGenerator.MAX_HOLES];
+        float[] reusedSweep = new float[WaveShapeGenerator.MAX_HOLES];
+
+        for (int i = 0; i < 200; i++) {
+            WaveShape expected = fresh.generate();
+            shape.setRadius(300);
+            reused.generate(shape);
+
+            //the reset shape has no radius until it is grown again
+            assertEquals(0, shape.getRadius(), 0);
+            assertEquals(expected.getHoleCount(), shape.getHoleCount());
+
+            expected.setRadius(100 + i);
+            shape.setRadius(100 + i);
+            int arcs = expected.getArcs(freshStart, freshSweep);
+            assertEquals(arcs, shape.getArcs(reusedStart, reusedSweep));
+
+            for (int j = 0; j < arcs; j++) {
+                assertEquals(freshStart[j], reusedStart[j], 0);
+                assertEquals(freshSweep[j], reusedSweep[j], 0);
+            }
+        }
+    }
+
+    @Test
+    public void steadyPlayReusesEveryWave() throws Exception {
+        GameEngine engine = new GameEngine(new GameEngineTest.RecordingCallbacks(), 3);
+        engine.setSize(1080, 1920);
+
+        //the first waves are allocated until the first removed wave is back
+        engine.advance(GameEngine.PULSE_INTERVAL + GameEngine.WAVE_DURATION * 2);
+        PoolStats stats = engine.getWavePoolStats();
+        long misses = stats.getMisses();
+        long hits = stats.getHits();
+
+        engine.advance(GameEngine.PULSE_INTERVAL * 20);
+
+        assertEquals(misses, stats.getMisses());
+        assertEquals(hits + 20, stats.getHits());
+        assertEquals(0, stats.getDropped());
+    }
+}
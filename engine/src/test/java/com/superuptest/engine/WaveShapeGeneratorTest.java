@@ -0,0 +1,102 @@
+package com.superuptest.engine;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests of the WaveShapeGenerator.
+ */
+public class WaveShapeGeneratorTest {
+
+    private static final int WAVES = 10000;
+
+    @Test
+    public void holesAreSpacedOnTheGrid() throws Exception {
+        WaveShapeGenerator generator = new WaveShapeGenerator(GameEngine.WAVE_STROKE_WIDTH, 3);
+        WaveShape shape = new WaveShape(GameEngine.WAVE_STROKE_WIDTH, WaveShapeGenerator.MAX_HOLES);
+        int[] counts = new int[WaveShapeGenerator.MAX_HOLES + 1];
+        int[] slots = new int[360 / WaveShapeGenerator.SLOT_DEGREES];
+
+        for (int wave = 0; wave < WAVES; wave++) {
+            generator.generate(shape);
+            int[] angels = shape.getHoleAngels();
+            counts[shape.getHoleCount()]++;
+
+            for (int i = 0; i < shape.getHoleCount(); i++) {
+                assertEquals(0, angels[i] % WaveShapeGenerator.SLOT_DEGREES);
+                assertTrue(angels[i] >= 0 && angels[i] < 360);
+                slots[angels[i] / WaveShapeGenerator.SLOT_DEGREES]++;
+
+                //the distance around the circle to every other hole
+                for (int j = 0; j < i; j++) {
+                    int distance = Math.abs(angels[i] - angels[j]);
+                    assertTrue(angels[i] + " " + angels[j],
+                            Math.min(distance, 360 - distance) >= WaveShapeGenerator.MIN_HOLE_SPACING);
+                }
+            }
+        }
+
+        //every number of holes and every angel is drawn
+        for (int holes = 1; holes <= WaveShapeGenerator.MAX_HOLES; holes++) {
+            assertTrue(counts[holes] > WAVES / 4);
+        }
+        for (int slot : slots) {
+            assertTrue(slot > 0);
+        }
+    }
+
+    @Test
+    public void spacedHolesDoNotMergeOnBigRing() throws Exception {
+        WaveShapeGenerator generator = new WaveShapeGenerator(GameEngine.WAVE_STROKE_WIDTH, 4);
+        WaveShape shape = new WaveShape(GameEngine.WAVE_STROKE_WIDTH, WaveShapeGenerator.MAX_HOLES);
+        float[] start = new float[WaveShapeGenerator.MAX_HOLES];
+        float[] sweep = new float[WaveShapeGenerator.MAX_HOLES];
+
+        for (int wave = 0; wave < 1000; wave++) {
+            generator.generate(shape);
+            shape.setRadius(200);
+
+            //one arc between every two holes
+            assertEquals(shape.getHoleCount(), shape.getArcs(start, sweep));
+        }
+    }
+
+    @Test
+    public void prefetchKeepsTheSeededWaves() throws Exception {
+        WaveShapeGenerator prefetched = new WaveShapeGenerator(GameEngine.WAVE_STROKE_WIDTH, 11);
+        WaveShapeGenerator inline = new WaveShapeGenerator(GameEngine.WAVE_STROKE_WIDTH, 11);
+        WaveShape a = new WaveShape(GameEngine.WAVE_STROKE_WIDTH, WaveShapeGenerator.MAX_HOLES);
+        WaveShape b = new WaveShape(GameEngine.WAVE_STROKE_WIDTH, WaveShapeGenerator.MAX_HOLES);
+
+        for (int wave = 0; wave < 100; wave++) {
+            if (wave % 3 == 0){
+                prefetched.prefetch();
+                assertEquals(WaveShapeGenerator.PREFETCH_SIZE, prefetched.getPrefetchedCount());
+            }
+
+            prefetched.generate(a);
+            inline.generate(b);
+
+            assertEquals(b.getHoleCount(), a.getHoleCount());
+            for (int i = 0; i < a.getHoleCount(); i++) {
+                assertEquals(b.getHoleAngels()[i], a.getHoleAngels()[i]);
+                assertEquals(b.getHolesSizes()[i], a.getHolesSizes()[i]);
+            }
+        }
+    }
+
+    @Test
+    public void fastRandomIsUniform() throws Exception {
+        FastRandom random = new FastRandom(1);
+        int[] counts = new int[7];
+
+        for (int i = 0; i < 70000; i++) {
+            counts[random.nextInt(7)]++;
+        }
+
+        for (int count : counts) {
+            assertEquals(10000, count, 500);
+        }
+    }
+}